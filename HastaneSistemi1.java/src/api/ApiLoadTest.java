@@ -0,0 +1,177 @@
+package api;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Çalışan bir ApiServer'a eşzamanlı istekler gönderip verim ve işlem türüne göre gecikme yüzdeliklerini yazar.
+ * Hasta girişiyle doktor kimliği de verilirse her load.writeEvery'nci istek (varsayılan 10) bir yazma turudur:
+ * doktorun boş saatlerinden ilki alınır (POST /appointments) ve hemen iptal edilir (POST .../cancel). Turlar ayrı
+ * günlere dağıtılır, çünkü hasta aynı güne iki randevu alamaz. Randevu istekleri kullanıcı başına hız sınırına
+ * takılır (429); yazma verimini ölçmek için sunucuyu yüksek booking.burst / booking.ratePerSecond ile başlatın.
+ *
+ * Kullanım: java api.ApiLoadTest http://localhost:8080 kullanici sifre [eşzamanlılık] [istek sayısı] [doktor id]
+ */
+public class ApiLoadTest {
+
+    // Randevu en fazla bir yıl sonrasına alınabildiğinden yazma turları bu kadar güne dağıtılır
+    private static final int WRITE_DAYS = 300;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Kullanım: ApiLoadTest <taban-url> <kullanıcı> <şifre> [eşzamanlılık] [istek] [doktor-id]");
+            System.exit(2);
+        }
+        String base = args[0].replaceAll("/+$", "") + "/api";
+        int concurrency = args.length > 3 ? Integer.parseInt(args[3]) : 64;
+        int total = args.length > 4 ? Integer.parseInt(args[4]) : 10_000;
+        Integer doctorId = args.length > 5 ? Integer.valueOf(args[5]) : null;
+        int writeEvery = Integer.getInteger("load.writeEvery", 10);
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(4))
+                .build();
+
+        String loginBody = Json.write(Map.of("username", args[1], "password", args[2]));
+        HttpResponse<String> login = client.send(post(base + "/login", loginBody), HttpResponse.BodyHandlers.ofString());
+        if (login.statusCode() != 200) {
+            System.err.println("Giriş başarısız: " + login.body());
+            System.exit(1);
+        }
+        Map<String, Object> session = Json.parseObject(login.body());
+        String token = (String) session.get("token");
+        boolean doctor = "DOCTOR".equals(session.get("role"));
+        if (doctor && doctorId != null) {
+            System.err.println("Yazma turları hasta girişi ister; yalnızca okuma yapılacak.");
+            doctorId = null;
+        }
+
+        List<String> paths = doctor
+                ? List.of("/appointments?date=" + LocalDate.now(), "/branches")
+                : List.of("/appointments", "/branches", "/doctors?q=");
+
+        Stats reads = new Stats("okuma");
+        Stats bookings = new Stats("randevu");
+        Stats cancels = new Stats("iptal");
+        Integer writeDoctor = doctorId;
+        AtomicInteger next = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(concurrency);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+
+        long start = System.nanoTime();
+        for (int w = 0; w < concurrency; w++) {
+            workers.execute(() -> {
+                try {
+                    int i;
+                    while ((i = next.getAndIncrement()) < total) {
+                        if (writeDoctor != null && i % writeEvery == 0) {
+                            LocalDate day = LocalDate.now().plusDays(1 + (i / writeEvery) % WRITE_DAYS);
+                            bookAndCancel(client, base, token, writeDoctor, day, reads, bookings, cancels);
+                        } else {
+                            send(client, request(base + paths.get(i % paths.size()), token).GET().build(), reads);
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        workers.shutdown();
+
+        System.out.printf("%d istek, %d eşzamanlı, %.2f sn%n", total, concurrency, elapsed / 1e9);
+        for (Stats s : List.of(reads, bookings, cancels)) s.print(elapsed);
+        System.exit(0);
+    }
+
+    // Boş saat sorgusu okuma sayılır; randevu alınamazsa (dolu gün, 409, 429) iptal edilecek bir şey yoktur
+    private static void bookAndCancel(HttpClient client, String base, String token, int doctorId, LocalDate day,
+                                      Stats reads, Stats bookings, Stats cancels) {
+        HttpResponse<String> free = send(client,
+                request(base + "/doctors/" + doctorId + "/availability?date=" + day, token).GET().build(), reads);
+        if (free == null || free.statusCode() != 200) return;
+        List<?> times = (List<?>) Json.parse(free.body());
+        if (times.isEmpty()) return;
+
+        String body = Json.write(Map.of("doctorId", doctorId, "date", day.toString(), "time", times.get(0)));
+        HttpResponse<String> booked = send(client, request(base + "/appointments", token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build(), bookings);
+        if (booked == null || booked.statusCode() != 201) return;
+
+        long id = ((Number) Json.parseObject(booked.body()).get("id")).longValue();
+        send(client, request(base + "/appointments/" + id + "/cancel", token)
+                .POST(HttpRequest.BodyPublishers.noBody()).build(), cancels);
+    }
+
+    // Bağlantı hatası -1 durumuyla sayılır ve null döner
+    private static HttpResponse<String> send(HttpClient client, HttpRequest req, Stats stats) {
+        long t0 = System.nanoTime();
+        HttpResponse<String> res;
+        try {
+            res = client.send(req, HttpResponse.BodyHandlers.ofString());
+        } catch (Exception e) {
+            res = null;
+        }
+        stats.record(System.nanoTime() - t0, res == null ? -1 : res.statusCode());
+        return res;
+    }
+
+    private static HttpRequest.Builder request(String url, String token) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30));
+    }
+
+    private static HttpRequest post(String url, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static final class Stats {
+        final String name;
+        final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+        Stats(String name) {
+            this.name = name;
+        }
+
+        void record(long nanos, int status) {
+            latencies.add(nanos);
+            statuses.computeIfAbsent(status, k -> new LongAdder()).increment();
+        }
+
+        void print(long elapsedNanos) {
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            if (sorted.length == 0) return;
+            System.out.printf("%s: %d istek, %.0f istek/sn, p50=%.1fms p90=%.1fms p99=%.1fms maks=%.1fms%n",
+                    name, sorted.length, sorted.length / (elapsedNanos / 1e9),
+                    percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99),
+                    sorted[sorted.length - 1] / 1e6);
+            statuses.forEach((s, n) -> System.out.println("  HTTP " + (s < 0 ? "hata" : s) + ": " + n.sum()));
+        }
+    }
+
+    private static double percentile(long[] sorted, int p) {
+        int idx = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, idx)] / 1e6;
+    }
+}
@@ -0,0 +1,505 @@
+package api;
+
+import archive.AppointmentArchiver;
+import booking.BookingGateway;
+import booking.BookingRejectedException;
+import booking.BookingRequest;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import dao.RuleViolationException;
+import dao.ShardedAppointmentDAO;
+import dao.ShardedUserDAO;
+import dao.SlotTakenException;
+import dao.UpdateResult;
+import drug.DrugCatalog;
+import db.ConnectionPool;
+import db.DatabaseManager;
+import model.Appointment;
+import model.Doctor;
+import model.ExamRecord;
+import model.Patient;
+import model.PrescriptionLine;
+import model.User;
+import observer.ChangeFeed;
+import slot.SlotHorizonJob;
+import slot.SlotKey;
+import state.AppointmentState;
+import waitlist.WaitlistService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Masaüstü arayüzünün yaptığı işlemleri HTTP/JSON olarak sunan gömülü sunucu. Her istek kendi
+ * thread'inde (JDK 21+ ise sanal thread) çalışır ve havuzdan bir bağlantı ödünç alır. Aynı anda
+ * işlenen istek sayısı havuz boyutunu aşamaz; fazlası kuyrukta beklemek yerine 503 ve Retry-After
+ * ile reddedilir. Randevu oluşturma BookingGateway kuyruğundan geçer; kabul edilmeyen istek 429 alır.
+ */
+public class ApiServer {
+
+    private static final String PREFIX = "/api";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ConnectionPool pool;
+    private final Semaphore permits;
+    private final long acquireMs = Long.getLong("api.acquireMs", 200L);
+    private final long bookingWaitMs = Long.getLong("api.bookingWaitMs", 10_000L);
+    private final long sessionMs = TimeUnit.MINUTES.toMillis(Long.getLong("api.sessionMinutes", 60L));
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService sessionSweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "api-sessions");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public ApiServer(int port, ConnectionPool pool) throws IOException {
+        this.pool = pool;
+        this.permits = new Semaphore(pool.getMaxSize());
+        this.executor = newRequestExecutor(pool.getMaxSize());
+        this.server = HttpServer.create(new InetSocketAddress(port), Integer.getInteger("api.backlog", 1024));
+        server.createContext(PREFIX + "/", this::handle);
+        server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+        // Geri gelmeyen istemcilerin oturumları da birikmesin diye süresi dolanlar dakikada bir atılır
+        sessionSweeper.scheduleWithFixedDelay(this::evictExpiredSessions, 1, 1, TimeUnit.MINUTES);
+    }
+
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+        sessionSweeper.shutdownNow();
+    }
+
+    private void evictExpiredSessions() {
+        long now = System.currentTimeMillis();
+        sessions.values().removeIf(s -> now - s.lastSeen > sessionMs);
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Sanal thread'ler JDK 21 ile geliyor; daha eski JDK'da aynı sınırla platform thread havuzu kullanılır
+    private static ExecutorService newRequestExecutor(int poolSize) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(poolSize * 2, r -> {
+                Thread t = new Thread(r, "api-worker");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    private void handle(HttpExchange ex) throws IOException {
+        try {
+            // Randevu isteği kendi kuyruğunda bekler; beklerken havuzdan bağlantı ve izin tutmaz
+            if (isBooking(ex)) {
+                Response r = book(ex);
+                send(ex, r.status, r.body);
+                return;
+            }
+            if (!permits.tryAcquire(acquireMs, TimeUnit.MILLISECONDS)) {
+                ex.getResponseHeaders().set("Retry-After", "1");
+                send(ex, 503, error("Sunucu meşgul, daha sonra tekrar deneyin"));
+                return;
+            }
+            try {
+                Connection c = pool.borrow(acquireMs, TimeUnit.MILLISECONDS);
+                try {
+                    Response r = route(ex, c);
+                    send(ex, r.status, r.body);
+                } finally {
+                    pool.release(c);
+                }
+            } finally {
+                permits.release();
+            }
+        } catch (BookingRejectedException e) {
+            ex.getResponseHeaders().set("Retry-After", String.valueOf(e.getRetryAfterSeconds()));
+            send(ex, 429, error(e.getMessage()));
+        } catch (ApiException e) {
+            send(ex, e.status, error(e.getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            send(ex, 503, error("İstek kesildi"));
+        } catch (SQLException e) {
+            ex.getResponseHeaders().set("Retry-After", "1");
+            send(ex, 503, error(e.getMessage()));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            send(ex, 400, error(e.getMessage()));
+        } catch (SlotTakenException e) {
+            send(ex, 409, error(e.getMessage()));
+        } catch (RuleViolationException e) {
+            send(ex, 422, error(e.getMessage()));
+        } catch (RuntimeException e) {
+            send(ex, 500, error("Sunucu hatası"));
+        } finally {
+            ex.close();
+        }
+    }
+
+    private Response route(HttpExchange ex, Connection c) throws IOException, SQLException {
+        String method = ex.getRequestMethod();
+        String[] p = ex.getRequestURI().getPath().substring(PREFIX.length()).split("/");
+        // p[0] her zaman boş: "/login" -> ["", "login"]
+        Map<String, String> q = query(ex);
+
+        if (p.length == 2 && p[1].equals("login") && method.equals("POST")) return login(ex, c);
+
+        User u = authenticate(ex);
+        ShardedAppointmentDAO appointments = new ShardedAppointmentDAO(0, c);
+        ShardedUserDAO users = new ShardedUserDAO(0, c);
+
+        if (p.length == 2 && p[1].equals("branches") && method.equals("GET")) {
+            return ok(users.getAllBranches());
+        }
+        if (p.length == 2 && p[1].equals("doctors") && method.equals("GET")) {
+            List<Doctor> list = q.containsKey("branch")
+                    ? users.getDoctorsByBranch(q.get("branch"))
+                    : users.searchDoctors(q.getOrDefault("q", ""));
+            List<Object> out = new ArrayList<>();
+            for (Doctor d : list) out.add(doctorJson(d));
+            return ok(out);
+        }
+        if (p.length == 4 && p[1].equals("doctors") && p[3].equals("availability") && method.equals("GET")) {
+            Doctor d = users.getDoctorByUserId(intParam(p[2]));
+            if (d == null) throw new ApiException(404, "Doktor bulunamadı");
+            LocalDate date = LocalDate.parse(required(q, "date"));
+            List<Object> out = new ArrayList<>();
+            for (int slot : appointments.getFreeSlots(d.getId(), date)) out.add(SlotKey.formatTime(slot));
+            return ok(out);
+        }
+        if (p.length == 2 && p[1].equals("appointments")) {
+            if (method.equals("GET")) return listAppointments(u, q, appointments);
+        }
+        if (p.length == 4 && p[1].equals("appointments")) {
+            int id = intParam(p[2]);
+            switch (p[3] + " " + method) {
+                case "cancel POST" -> {
+                    Patient patient = requirePatient(u);
+                    Appointment before = appointments.findById(id);
+                    if (before == null || before.getPatientId() != patient.getId())
+                        throw new ApiException(404, "Randevu bulunamadı");
+                    appointments.cancelByPatient(id, patient.getId());
+                    return ok(appointmentJson(appointments.findById(id)));
+                }
+                case "reschedule POST" -> {
+                    Patient patient = requirePatient(u);
+                    Map<String, Object> b = body(ex);
+                    Appointment before = appointments.findById(id);
+                    if (before == null || before.getPatientId() != patient.getId())
+                        throw new ApiException(404, "Randevu bulunamadı");
+                    return result(appointments.rescheduleByPatient(id, patient.getId(), before.getDoctorId(),
+                            slotField(b), intField(b, "version")),
+                            this::appointmentJson);
+                }
+                case "state POST" -> {
+                    Doctor doctor = requireDoctor(u);
+                    Map<String, Object> b = body(ex);
+                    return result(appointments.updateStateByDoctor(id, doctor.getId(),
+                            AppointmentState.ofName(stringField(b, "state")), intField(b, "version")),
+                            this::appointmentJson);
+                }
+                case "exam GET" -> {
+                    Doctor doctor = requireDoctor(u);
+                    ExamRecord r = appointments.findExam(id, doctor.getId());
+                    if (r == null) throw new ApiException(404, "Randevu bulunamadı");
+                    return ok(examJson(r, appointments.getPrescriptionLines(id)));
+                }
+                case "exam PUT" -> {
+                    Doctor doctor = requireDoctor(u);
+                    Map<String, Object> b = body(ex);
+                    String prescription = optionalField(b, "prescription");
+                    return result(appointments.saveExam(id, doctor.getId(), optionalField(b, "note"), prescription,
+                            DrugCatalog.getInstance().parse(prescription), intField(b, "version")),
+                            r -> examJson(r, appointments.getPrescriptionLines(id)));
+                }
+                default -> { }
+            }
+        }
+        throw new ApiException(404, "Bilinmeyen uç nokta: " + method + " " + ex.getRequestURI().getPath());
+    }
+
+    private static boolean isBooking(HttpExchange ex) {
+        return ex.getRequestMethod().equals("POST") && ex.getRequestURI().getPath().equals(PREFIX + "/appointments");
+    }
+
+    // Idempotency-Key başlığıyla tekrarlanan istek ilk isteğin sonucunu alır
+    private Response book(HttpExchange ex) throws IOException, InterruptedException {
+        Patient patient = requirePatient(authenticate(ex));
+        Map<String, Object> b = body(ex);
+        BookingRequest r = new BookingRequest(patient.getId(), intField(b, "doctorId"), slotField(b),
+                ex.getRequestHeaders().getFirst("Idempotency-Key"));
+        try {
+            Appointment a = BookingGateway.getInstance().submit(r).get(bookingWaitMs, TimeUnit.MILLISECONDS);
+            return new Response(201, Json.write(appointmentJson(a)));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new RuntimeException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new BookingRejectedException("İstek sırada; aynı Idempotency-Key ile tekrar sorgulayın", 1000);
+        }
+    }
+
+    private Response login(HttpExchange ex, Connection c) throws IOException {
+        Map<String, Object> b = body(ex);
+        User u = new ShardedUserDAO(0, c).login(stringField(b, "username"), stringField(b, "password"));
+        if (u == null) throw new ApiException(401, "Kullanıcı adı veya şifre hatalı");
+        String token = UUID.randomUUID().toString();
+        sessions.put(token, new Session(u, System.currentTimeMillis()));
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("token", token);
+        out.put("userId", u.getId());
+        out.put("role", u instanceof Doctor ? "DOCTOR" : "PATIENT");
+        out.put("name", u.getFullName());
+        return ok(out);
+    }
+
+    private User authenticate(HttpExchange ex) {
+        String h = ex.getRequestHeaders().getFirst("Authorization");
+        if (h == null || !h.startsWith("Bearer ")) throw new ApiException(401, "Oturum gerekli");
+        String token = h.substring(7).trim();
+        Session s = sessions.get(token);
+        long now = System.currentTimeMillis();
+        if (s == null || now - s.lastSeen > sessionMs) {
+            if (s != null) sessions.remove(token, s);
+            throw new ApiException(401, "Oturum süresi doldu");
+        }
+        s.lastSeen = now;
+        return s.user;
+    }
+
+    private Response listAppointments(User u, Map<String, String> q, ShardedAppointmentDAO appointments) {
+        List<Object> out = new ArrayList<>();
+        if (u instanceof Doctor d) {
+            LocalDate from = LocalDate.parse(q.getOrDefault("from", q.getOrDefault("date", LocalDate.now().toString())));
+            LocalDate to = LocalDate.parse(q.getOrDefault("to", from.toString()));
+            for (String[] r : appointments.getByDoctorBetween(d.getId(), from, to)) {
+                Map<String, Object> m = new LinkedHashMap<>();
+                m.put("id", Integer.parseInt(r[0]));
+                m.put("patientTc", r[1]);
+                m.put("patient", r[2]);
+                m.put("date", r[3]);
+                m.put("time", r[4]);
+                m.put("state", r[5]);
+                m.put("patientId", Integer.parseInt(r[6]));
+                m.put("version", Integer.parseInt(r[7]));
+                out.add(m);
+            }
+        } else {
+            for (String[] r : appointments.getByPatient(u.getId())) {
+                Map<String, Object> m = new LinkedHashMap<>();
+                m.put("id", Integer.parseInt(r[0]));
+                m.put("doctor", r[1]);
+                m.put("branch", r[2]);
+                m.put("date", r[3]);
+                m.put("time", r[4]);
+                m.put("state", r[5]);
+                m.put("doctorId", Integer.parseInt(r[6]));
+                m.put("version", Integer.parseInt(r[7]));
+                out.add(m);
+            }
+        }
+        return ok(out);
+    }
+
+    private <T> Response result(UpdateResult<T> r, Function<T, Object> json) {
+        if (r.isApplied()) return ok(json.apply(r.getCurrent()));
+        if (!r.isConflict()) throw new ApiException(404, "Randevu bulunamadı");
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("error", "Kayıt başka bir kullanıcı tarafından değiştirildi");
+        out.put("current", json.apply(r.getCurrent()));
+        return new Response(409, Json.write(out));
+    }
+
+    private static Patient requirePatient(User u) {
+        if (u instanceof Patient p) return p;
+        throw new ApiException(403, "Bu işlem yalnızca hastalar içindir");
+    }
+
+    private static Doctor requireDoctor(User u) {
+        if (u instanceof Doctor d) return d;
+        throw new ApiException(403, "Bu işlem yalnızca doktorlar içindir");
+    }
+
+    private Object appointmentJson(Appointment a) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("id", a.getId());
+        m.put("patientId", a.getPatientId());
+        m.put("doctorId", a.getDoctorId());
+        m.put("date", a.getDate().toString());
+        m.put("time", a.getTime());
+        m.put("state", a.getState().getStateName());
+        m.put("version", a.getVersion());
+        return m;
+    }
+
+    private static Object examJson(ExamRecord r, List<PrescriptionLine> rx) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("appointmentId", r.getAppointmentId());
+        m.put("note", r.getNote());
+        m.put("prescription", r.getPrescription());
+        List<Object> lines = new ArrayList<>();
+        for (PrescriptionLine l : rx) {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("lineNo", l.getLineNo());
+            line.put("drug", l.getDrugName());
+            line.put("activeIngredient", l.getActiveIngredient());
+            line.put("form", l.getForm());
+            line.put("instructions", l.getInstructions());
+            lines.add(line);
+        }
+        m.put("lines", lines);
+        m.put("version", r.getVersion());
+        return m;
+    }
+
+    private static Object doctorJson(Doctor d) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("id", d.getId());
+        m.put("name", d.getFullName());
+        m.put("branch", d.getBranch());
+        m.put("clinic", d.getClinic());
+        m.put("workingHours", d.getWorkingHours());
+        return m;
+    }
+
+    private static Map<String, Object> body(HttpExchange ex) throws IOException {
+        try (InputStream in = ex.getRequestBody()) {
+            return Json.parseObject(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static Map<String, String> query(HttpExchange ex) {
+        Map<String, String> m = new LinkedHashMap<>();
+        String raw = ex.getRequestURI().getRawQuery();
+        if (raw == null) return m;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) continue;
+            m.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return m;
+    }
+
+    private static String required(Map<String, String> q, String name) {
+        String v = q.get(name);
+        if (v == null || v.isBlank()) throw new IllegalArgumentException(name + " parametresi gerekli");
+        return v;
+    }
+
+    private static int intParam(String s) {
+        try {
+            return Integer.parseInt(s);
+        } catch (NumberFormatException e) {
+            throw new ApiException(404, "Geçersiz id: " + s);
+        }
+    }
+
+    private static String stringField(Map<String, Object> b, String name) {
+        Object v = b.get(name);
+        if (v == null) throw new IllegalArgumentException(name + " alanı gerekli");
+        return v.toString();
+    }
+
+    // "date" + "time" alanları tek slot anahtarına çözülür
+    private static int slotField(Map<String, Object> b) {
+        return SlotKey.of(LocalDate.parse(stringField(b, "date")), stringField(b, "time"));
+    }
+
+    private static String optionalField(Map<String, Object> b, String name) {
+        Object v = b.get(name);
+        return v == null ? null : v.toString();
+    }
+
+    private static int intField(Map<String, Object> b, String name) {
+        Object v = b.get(name);
+        if (v instanceof Number n) return n.intValue();
+        if (v instanceof String s) return Integer.parseInt(s);
+        throw new IllegalArgumentException(name + " alanı gerekli");
+    }
+
+    private static Response ok(Object v) {
+        return new Response(200, Json.write(v));
+    }
+
+    private static String error(String msg) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("error", msg);
+        return Json.write(m);
+    }
+
+    private static void send(HttpExchange ex, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private record Response(int status, String body) { }
+
+    private static final class Session {
+        final User user;
+        volatile long lastSeen;
+
+        Session(User user, long lastSeen) {
+            this.user = user;
+            this.lastSeen = lastSeen;
+        }
+    }
+
+    static final class ApiException extends RuntimeException {
+        final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : Integer.getInteger("api.port", 8080);
+        DatabaseManager db = DatabaseManager.getInstance();
+        new AppointmentArchiver().start();
+        new SlotHorizonJob().start();
+        ChangeFeed.getInstance().start();
+        WaitlistService.getInstance().start();
+
+        ApiServer api = new ApiServer(port, db.getPool());
+        api.start();
+        System.out.println("API dinleniyor: http://localhost:" + api.getPort() + PREFIX
+                + " (eşzamanlı istek sınırı " + db.getPool().getMaxSize() + ")");
+    }
+}
@@ -0,0 +1,205 @@
+package api;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * API için küçük JSON yazıcı ve ayrıştırıcı. Nesneler Map, diziler List olarak döner; sayılar
+ * Long veya Double, diğerleri String/Boolean/null.
+ */
+public final class Json {
+
+    private Json() { }
+
+    public static String write(Object v) {
+        StringBuilder sb = new StringBuilder();
+        write(sb, v);
+        return sb.toString();
+    }
+
+    private static void write(StringBuilder sb, Object v) {
+        if (v == null) {
+            sb.append("null");
+        } else if (v instanceof Number || v instanceof Boolean) {
+            sb.append(v);
+        } else if (v instanceof Map<?, ?> m) {
+            sb.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> e : m.entrySet()) {
+                if (!first) sb.append(',');
+                first = false;
+                quote(sb, String.valueOf(e.getKey()));
+                sb.append(':');
+                write(sb, e.getValue());
+            }
+            sb.append('}');
+        } else if (v instanceof Iterable<?> it) {
+            sb.append('[');
+            boolean first = true;
+            for (Object o : it) {
+                if (!first) sb.append(',');
+                first = false;
+                write(sb, o);
+            }
+            sb.append(']');
+        } else {
+            quote(sb, v.toString());
+        }
+    }
+
+    private static void quote(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    public static Object parse(String s) {
+        Parser p = new Parser(s);
+        p.skip();
+        Object v = p.value();
+        p.skip();
+        if (p.pos != s.length()) throw new IllegalArgumentException("Geçersiz JSON: fazladan karakter");
+        return v;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> parseObject(String s) {
+        if (s == null || s.isBlank()) return new LinkedHashMap<>();
+        Object v = parse(s);
+        if (!(v instanceof Map)) throw new IllegalArgumentException("JSON nesnesi bekleniyordu");
+        return (Map<String, Object>) v;
+    }
+
+    private static final class Parser {
+        private final String s;
+        private int pos;
+
+        Parser(String s) { this.s = s; }
+
+        Object value() {
+            if (pos >= s.length()) throw error("beklenmeyen son");
+            char c = s.charAt(pos);
+            return switch (c) {
+                case '{' -> object();
+                case '[' -> array();
+                case '"' -> string();
+                case 't' -> literal("true", Boolean.TRUE);
+                case 'f' -> literal("false", Boolean.FALSE);
+                case 'n' -> literal("null", null);
+                default -> number();
+            };
+        }
+
+        Map<String, Object> object() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            pos++;
+            skip();
+            if (peek() == '}') { pos++; return m; }
+            while (true) {
+                skip();
+                if (peek() != '"') throw error("anahtar bekleniyordu");
+                String k = string();
+                skip();
+                expect(':');
+                skip();
+                m.put(k, value());
+                skip();
+                if (peek() == ',') { pos++; continue; }
+                expect('}');
+                return m;
+            }
+        }
+
+        List<Object> array() {
+            List<Object> l = new ArrayList<>();
+            pos++;
+            skip();
+            if (peek() == ']') { pos++; return l; }
+            while (true) {
+                skip();
+                l.add(value());
+                skip();
+                if (peek() == ',') { pos++; continue; }
+                expect(']');
+                return l;
+            }
+        }
+
+        String string() {
+            pos++;
+            StringBuilder sb = new StringBuilder();
+            while (pos < s.length()) {
+                char c = s.charAt(pos++);
+                if (c == '"') return sb.toString();
+                if (c != '\\') { sb.append(c); continue; }
+                if (pos >= s.length()) break;
+                char e = s.charAt(pos++);
+                switch (e) {
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    case 't' -> sb.append('\t');
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'u' -> {
+                        if (pos + 4 > s.length()) throw error("eksik \\u kaçışı");
+                        sb.append((char) Integer.parseInt(s.substring(pos, pos + 4), 16));
+                        pos += 4;
+                    }
+                    default -> sb.append(e);
+                }
+            }
+            throw error("kapanmamış metin");
+        }
+
+        Object number() {
+            int start = pos;
+            while (pos < s.length() && "+-0123456789.eE".indexOf(s.charAt(pos)) >= 0) pos++;
+            String n = s.substring(start, pos);
+            if (n.isEmpty()) throw error("beklenmeyen karakter");
+            try {
+                if (n.contains(".") || n.contains("e") || n.contains("E")) return Double.parseDouble(n);
+                return Long.parseLong(n);
+            } catch (NumberFormatException ex) {
+                throw error("geçersiz sayı");
+            }
+        }
+
+        Object literal(String word, Object v) {
+            if (!s.startsWith(word, pos)) throw error("beklenmeyen karakter");
+            pos += word.length();
+            return v;
+        }
+
+        char peek() {
+            return pos < s.length() ? s.charAt(pos) : '\0';
+        }
+
+        void expect(char c) {
+            if (peek() != c) throw error("'" + c + "' bekleniyordu");
+            pos++;
+        }
+
+        void skip() {
+            while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) pos++;
+        }
+
+        IllegalArgumentException error(String msg) {
+            return new IllegalArgumentException("Geçersiz JSON (" + pos + "): " + msg);
+        }
+    }
+}
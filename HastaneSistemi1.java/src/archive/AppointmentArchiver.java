@@ -0,0 +1,175 @@
+package archive;
+
+import db.DatabaseManager;
+import db.Shard;
+import state.AppointmentState;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class AppointmentArchiver implements Runnable {
+
+    private static final String TERMINAL_STATES = "(" + AppointmentState.TAMAMLANDI.getCode() + ","
+            + AppointmentState.GELMEDI.getCode() + "," + AppointmentState.IPTAL.getCode() + ")";
+
+    // Parçalı kurulumda her veritabanının arşivi ayrı ilerler; ufuk bağlantı adresine göre tutulur
+    private static final Map<String, Horizon> horizons = new ConcurrentHashMap<>();
+    private static final long HORIZON_TTL_MS = 5 * 60_000L;
+
+    private final int ageDays = Integer.getInteger("archive.ageDays", 365);
+    private final int batchSize = Integer.getInteger("archive.batchSize", 500);
+    private final long pauseMs = Long.getLong("archive.pauseMs", 200L);
+    private final long intervalMinutes = Long.getLong("archive.intervalMinutes", 60L);
+
+    private ScheduledExecutorService scheduler;
+
+    public synchronized void start() {
+        if (scheduler != null) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "appointment-archiver");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this, 1, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    public synchronized void stop() {
+        if (scheduler == null) return;
+        scheduler.shutdownNow();
+        scheduler = null;
+    }
+
+    @Override
+    public void run() {
+        LocalDate cutoff = LocalDate.now().minusDays(ageDays);
+        for (Shard shard : DatabaseManager.getInstance().getRouter().shards()) {
+            try (Connection conn = shard.openConnection()) {
+                int moved;
+                do {
+                    moved = archiveBatch(conn, cutoff);
+                    if (moved > 0) Thread.sleep(pauseMs);
+                } while (moved == batchSize);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (SQLException e) {
+                System.err.println("Arşivleme başarısız (" + shard + "): " + e.getMessage());
+            }
+        }
+    }
+
+    private int archiveBatch(Connection conn, LocalDate cutoff) throws SQLException {
+        conn.setAutoCommit(false);
+        try {
+            List<Integer> ids = new ArrayList<>();
+            LocalDate maxDate = null;
+            String select = """
+                SELECT id, date FROM appointments
+                WHERE state_code IN %s AND date < ?
+                ORDER BY id
+                LIMIT ?
+                FOR UPDATE
+            """.formatted(TERMINAL_STATES);
+            try (PreparedStatement ps = conn.prepareStatement(select)) {
+                ps.setDate(1, Date.valueOf(cutoff));
+                ps.setInt(2, batchSize);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        ids.add(rs.getInt(1));
+                        LocalDate d = rs.getDate(2).toLocalDate();
+                        if (maxDate == null || d.isAfter(maxDate)) maxDate = d;
+                    }
+                }
+            }
+            if (ids.isEmpty()) {
+                conn.commit();
+                return 0;
+            }
+
+            String in = inClause(ids.size());
+            String copy = """
+                INSERT INTO appointments_archive
+                (id,patient_id,doctor_id,date,time,state_code,version)
+                SELECT id,patient_id,doctor_id,date,time,state_code,version
+                FROM appointments WHERE id IN %s
+            """.formatted(in);
+            try (PreparedStatement ps = conn.prepareStatement(copy)) {
+                bindIds(ps, ids);
+                ps.executeUpdate();
+            }
+            try (PreparedStatement ps = conn.prepareStatement("DELETE FROM appointments WHERE id IN " + in)) {
+                bindIds(ps, ids);
+                ps.executeUpdate();
+            }
+            conn.commit();
+            horizon(conn).advance(maxDate);
+            return ids.size();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private static String inClause(int n) {
+        return "(" + "?,".repeat(n - 1) + "?)";
+    }
+
+    private static void bindIds(PreparedStatement ps, List<Integer> ids) throws SQLException {
+        for (int i = 0; i < ids.size(); i++) ps.setInt(i + 1, ids.get(i));
+    }
+
+    // Arşivdeki en yeni tarih; arşiv boşsa null. Sorgular arşive yalnızca bu tarihe uzanıyorsa gider.
+    // Başka istemcilerin arşivlediklerini de görmek için değer belirli aralıklarla tazelenir.
+    public static LocalDate archivedThrough(Connection conn) {
+        Horizon h = horizon(conn);
+        if (!h.expired()) return h.through;
+        synchronized (h) {
+            if (!h.expired()) return h.through;
+            try (PreparedStatement ps = conn.prepareStatement("SELECT MAX(date) FROM appointments_archive");
+                 ResultSet rs = ps.executeQuery()) {
+                Date d = rs.next() ? rs.getDate(1) : null;
+                h.through = d == null ? null : d.toLocalDate();
+                h.loadedAt = System.currentTimeMillis();
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+            return h.through;
+        }
+    }
+
+    private static Horizon horizon(Connection conn) {
+        try {
+            return horizons.computeIfAbsent(conn.getMetaData().getURL(), url -> new Horizon());
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static boolean reachesArchive(Connection conn, LocalDate from) {
+        LocalDate horizon = archivedThrough(conn);
+        return horizon != null && (from == null || !from.isAfter(horizon));
+    }
+
+    private static final class Horizon {
+        volatile LocalDate through;
+        volatile long loadedAt;
+
+        synchronized void advance(LocalDate d) {
+            if (through == null || d.isAfter(through)) through = d;
+        }
+
+        boolean expired() {
+            return System.currentTimeMillis() - loadedAt > HORIZON_TTL_MS;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package booking;
+
+import dao.AppointmentDAO;
+import dao.SlotTakenException;
+import model.Appointment;
+import slot.SlotKey;
+import state.AppointmentState;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Takvim açılışı benzetimi: istemciler aynı anda randevu ister, çoğu aynı doktorun aynı gününe.
+ * İsteklerin bir kısmı çift tık gibi aynı anahtarla tekrar gönderilir. Veritabanı yerine sabit süreli,
+ * bellekte slot tutan bir yazıcı kullanılır; ölçülen kapının kendisidir. Birkaç tur koşulur ki verim ve
+ * p99'un turdan tura sabit kaldığı görülsün.
+ *
+ * Kullanım: java booking.BookingBurst [istek=5000] [eşzamanlılık=64] [yazma µs=2000] [tur=3]
+ */
+public class BookingBurst {
+
+    private static final int[] MINUTES = {9 * 60, 10 * 60, 11 * 60, 12 * 60, 13 * 60, 14 * 60, 15 * 60, 16 * 60};
+
+    public static void main(String[] args) throws Exception {
+        int total = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        long serviceNanos = TimeUnit.MICROSECONDS.toNanos(args.length > 2 ? Long.parseLong(args[2]) : 2000);
+        int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+
+        for (int round = 1; round <= rounds; round++) {
+            Set<Long> slots = ConcurrentHashMap.newKeySet();
+            AtomicInteger ids = new AtomicInteger();
+            LongAdder writes = new LongAdder();
+            BookingGateway gateway = new BookingGateway(doctorId -> null, (c, r) -> {
+                LockSupport.parkNanos(serviceNanos);
+                writes.increment();
+                if (!slots.add((long) r.getDoctorId() << 32 | r.getSlot())) {
+                    throw new SlotTakenException(AppointmentDAO.SLOT_TAKEN);
+                }
+                return new Appointment(ids.incrementAndGet(), r.getPatientId(), r.getDoctorId(),
+                        r.getSlot(), AppointmentState.AKTIF, 0);
+            }, 4);
+            run(round, gateway, total, concurrency, writes);
+        }
+        System.exit(0);
+    }
+
+    private static void run(int round, BookingGateway gateway, int total, int concurrency, LongAdder writes)
+            throws InterruptedException {
+        // %70 tek popüler doktor-gün, kalanı 40 doktora dağılır; %10 önceki isteğin tekrarı
+        Random rnd = new Random(42 + round);
+        BookingRequest[] requests = new BookingRequest[total];
+        LocalDate day = LocalDate.now().plusDays(14);
+        for (int i = 0; i < total; i++) {
+            if (i > 0 && rnd.nextInt(10) == 0) {
+                requests[i] = requests[i - 1 - rnd.nextInt(Math.min(i, 5))];
+                continue;
+            }
+            int doctor = rnd.nextInt(10) < 7 ? 1 : 2 + rnd.nextInt(40);
+            requests[i] = new BookingRequest(1000 + rnd.nextInt(total), doctor,
+                    SlotKey.of(day, MINUTES[rnd.nextInt(MINUTES.length)]), "k" + i);
+        }
+
+        long[] latencies = new long[total];
+        Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+        AtomicInteger next = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(concurrency);
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+
+        long start = System.nanoTime();
+        for (int w = 0; w < concurrency; w++) {
+            clients.execute(() -> {
+                try {
+                    int i;
+                    while ((i = next.getAndIncrement()) < total) {
+                        long t0 = System.nanoTime();
+                        String outcome;
+                        try {
+                            CompletableFuture<Appointment> f = gateway.submit(requests[i]);
+                            f.join();
+                            outcome = "randevu";
+                        } catch (BookingRejectedException e) {
+                            outcome = "reddedildi (tekrar dene)";
+                        } catch (RuntimeException e) {
+                            Throwable cause = e.getCause() != null ? e.getCause() : e;
+                            outcome = cause instanceof BookingRejectedException ? "reddedildi (tekrar dene)"
+                                    : "kural: " + cause.getMessage();
+                        }
+                        latencies[i] = System.nanoTime() - t0;
+                        outcomes.computeIfAbsent(outcome, k -> new LongAdder()).increment();
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        clients.shutdown();
+
+        Arrays.sort(latencies);
+        System.out.printf("Tur %d: %d istek, %d eşzamanlı, %.2f sn, %.0f istek/sn, %d yazma%n",
+                round, total, concurrency, elapsed / 1e9, total / (elapsed / 1e9), writes.sum());
+        System.out.printf("  Gecikme p50=%.1fms p90=%.1fms p99=%.1fms maks=%.1fms%n",
+                percentile(latencies, 50), percentile(latencies, 90), percentile(latencies, 99),
+                latencies[total - 1] / 1e6);
+        outcomes.forEach((k, n) -> System.out.println("  " + k + ": " + n.sum()));
+        System.out.println("  " + gateway);
+    }
+
+    private static double percentile(long[] sorted, int p) {
+        int idx = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, idx)] / 1e6;
+    }
+}
@@ -0,0 +1,256 @@
+package booking;
+
+import dao.AppointmentDAO;
+import dao.ShardedAppointmentDAO;
+import dao.SlotTakenException;
+import db.ConnectionPool;
+import db.DatabaseManager;
+import db.ShardRouter;
+import model.Appointment;
+import observer.AppointmentEvent;
+import observer.AppointmentObserver;
+import observer.AppointmentSubject;
+import slot.SlotKey;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Randevu oluşturmanın tek kapısı. Popüler bir doktorun takvimi açıldığında aynı güne gelen istekler
+ * veritabanında birbiriyle yarışmak yerine doktor-gün başına sınırlı bir kuyrukta sıraya girer ve tek tek
+ * işlenir; kuyruğu işleyen thread bir bağlantıyı tüm parti boyunca tutar. Sırada dolduğu anlaşılan
+ * saatler bellekte işaretlenir, aynı saate gelen sonraki istekler veritabanına gitmeden reddedilir. Parçalı
+ * kurulumda bağlantı doktorun parçasının havuzundan alınır.
+ *
+ * Kabul denetimi kuyruktan önce yapılır: kullanıcı başına jeton kovası (booking.burst, booking.ratePerSecond)
+ * ve kuyruk sınırı (booking.queueSize). Reddedilen istek beklemez, ne zaman tekrar denenebileceğini
+ * söyleyen BookingRejectedException alır. Anahtarlı istekler booking.idempotencyMinutes boyunca hatırlanır.
+ */
+public final class BookingGateway implements AppointmentObserver {
+
+    // Sırası gelen isteği yazar; benchmark'ta veritabanısız bir uygulama verilir
+    public interface Booker {
+        Appointment book(Connection c, BookingRequest r);
+    }
+
+    private static final int MAX_BUCKETS = 100_000;
+    private static final int MAX_REMEMBERED = 50_000;
+
+    private static BookingGateway instance;
+
+    private final int queueSize = Integer.getInteger("booking.queueSize", 32);
+    private final int burst = Integer.getInteger("booking.burst", 3);
+    private final double ratePerSecond = Double.parseDouble(System.getProperty("booking.ratePerSecond", "1"));
+    private final long idempotencyMs = TimeUnit.MINUTES.toMillis(Long.getLong("booking.idempotencyMinutes", 10L));
+
+    private final IntFunction<ConnectionPool> pools;
+    private final Booker booker;
+    private final ExecutorService workers;
+
+    private final Map<Long, Lane> lanes = new HashMap<>();
+    private final Map<Integer, TokenBucket> buckets = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, TokenBucket> eldest) {
+            return size() > MAX_BUCKETS || size() > 1000 && eldest.getValue().isFull(System.currentTimeMillis());
+        }
+    };
+    private final Map<String, Submitted> remembered = new LinkedHashMap<>(256, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Submitted> eldest) {
+            return size() > MAX_REMEMBERED || System.currentTimeMillis() - eldest.getValue().at > idempotencyMs;
+        }
+    };
+
+    private volatile double avgServiceMs = 5;
+    private long accepted;
+    private long duplicates;
+    private long rateLimited;
+    private long queueFull;
+    private long shortCircuited;
+
+    // pools: doktor kimliğinden o doktorun parçasının havuzu
+    BookingGateway(IntFunction<ConnectionPool> pools, Booker booker, int threads) {
+        this.pools = pools;
+        this.booker = booker;
+        this.workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "booking-worker");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public static synchronized BookingGateway getInstance() {
+        if (instance == null) {
+            ShardRouter router = DatabaseManager.getInstance().getRouter();
+            instance = new BookingGateway(doctorId -> router.shard(router.ofId(doctorId)).getPool(),
+                    (c, r) -> new ShardedAppointmentDAO(router.ofId(r.getDoctorId()), c)
+                            .create(r.getPatientId(), r.getDoctorId(), r.getSlot()),
+                    Integer.getInteger("booking.workers", 4));
+            AppointmentSubject.getInstance().addObserver(instance);
+        }
+        return instance;
+    }
+
+    public CompletableFuture<Appointment> submit(BookingRequest r) {
+        long now = System.currentTimeMillis();
+        String key = r.getIdempotencyKey() == null ? null : r.getPatientId() + ":" + r.getIdempotencyKey();
+        Lane lane;
+        CompletableFuture<Appointment> future = new CompletableFuture<>();
+        boolean start = false;
+        synchronized (this) {
+            Submitted previous = key == null ? null : remembered.get(key);
+            if (previous != null && now - previous.at <= idempotencyMs) {
+                if (!previous.request.sameBooking(r)) {
+                    throw new IllegalArgumentException("Bu istek anahtarı başka bir randevu için kullanılmış");
+                }
+                duplicates++;
+                return previous.future;
+            }
+
+            long laneKey = laneKey(r.getDoctorId(), r.getSlot());
+            lane = lanes.get(laneKey);
+            if (lane != null && lane.queue.size() >= queueSize) {
+                queueFull++;
+                throw new BookingRejectedException("Bu gün için çok fazla istek var, birazdan tekrar deneyin",
+                        Math.max(200, (long) (lane.queue.size() * avgServiceMs)));
+            }
+            long wait = buckets.computeIfAbsent(r.getPatientId(), id -> new TokenBucket(burst, ratePerSecond, now))
+                    .tryTake(now);
+            if (wait > 0) {
+                rateLimited++;
+                throw new BookingRejectedException("Çok sık deneme yapıldı, biraz bekleyin", wait);
+            }
+
+            if (lane == null) {
+                lane = new Lane(laneKey);
+                lanes.put(laneKey, lane);
+            }
+            lane.queue.add(new Task(r, future));
+            if (key != null) remembered.put(key, new Submitted(r, future, now));
+            accepted++;
+            if (!lane.running) {
+                lane.running = true;
+                start = true;
+            }
+        }
+        if (start) {
+            Lane l = lane;
+            workers.execute(() -> drain(l));
+        }
+        return future;
+    }
+
+    // Kuyruk boşalana kadar istekleri sırayla işler; bağlantı parti boyunca tutulur
+    private void drain(Lane lane) {
+        ConnectionPool pool = pools.apply((int) (lane.key >>> 32));
+        Connection c = null;
+        try {
+            if (pool != null) c = pool.borrow(5, TimeUnit.SECONDS);
+            Task t;
+            while ((t = next(lane)) != null) run(lane, t, c);
+        } catch (SQLException | InterruptedException e) {
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            Task t;
+            while ((t = next(lane)) != null) {
+                forget(t);
+                t.future.completeExceptionally(new BookingRejectedException("Sunucu meşgul, birazdan tekrar deneyin", 1000));
+            }
+        } finally {
+            if (c != null) pool.release(c);
+        }
+    }
+
+    private synchronized Task next(Lane lane) {
+        Task t = lane.queue.poll();
+        if (t == null) {
+            lane.running = false;
+            lanes.remove(lane.key);
+        }
+        return t;
+    }
+
+    // Hiç denenmeden reddedilen istek aynı anahtarla tekrar gönderilebilmeli
+    private synchronized void forget(Task t) {
+        String key = t.request.getIdempotencyKey();
+        if (key != null) remembered.remove(t.request.getPatientId() + ":" + key);
+    }
+
+    private void run(Lane lane, Task t, Connection c) {
+        int slot = t.request.getSlot();
+        synchronized (this) {
+            if (lane.taken.contains(slot)) {
+                shortCircuited++;
+                t.future.completeExceptionally(new SlotTakenException(AppointmentDAO.SLOT_TAKEN));
+                return;
+            }
+        }
+        long start = System.nanoTime();
+        try {
+            Appointment a = booker.book(c, t.request);
+            synchronized (this) {
+                lane.taken.add(slot);
+            }
+            t.future.complete(a);
+        } catch (SlotTakenException e) {
+            synchronized (this) {
+                lane.taken.add(slot);
+            }
+            t.future.completeExceptionally(e);
+        } catch (RuntimeException e) {
+            t.future.completeExceptionally(e);
+        } finally {
+            avgServiceMs = avgServiceMs * 0.9 + (System.nanoTime() - start) / 1e6 * 0.1;
+        }
+    }
+
+    // Boşalan saat sıradaki isteklere yeniden açılır; başka istemcide alınan saat kapanır
+    @Override
+    public synchronized void onAppointmentChanged(AppointmentEvent e) {
+        if (e.freesSlot()) {
+            int freed = e.freedSlot();
+            Lane lane = freed == AppointmentEvent.NO_SLOT ? null : lanes.get(laneKey(e.getDoctorId(), freed));
+            if (lane != null) lane.taken.remove(freed);
+        }
+        if (e.getType() == AppointmentEvent.Type.CREATED || e.getType() == AppointmentEvent.Type.RESCHEDULED) {
+            Lane lane = lanes.get(laneKey(e.getDoctorId(), e.getSlot()));
+            if (lane != null) lane.taken.add(e.getSlot());
+        }
+    }
+
+    // Kuyruklar (doktor, gün) başınadır: üst 32 bit doktor, alt 32 bit epoch günü
+    private static long laneKey(int doctorId, int slot) {
+        return (long) doctorId << 32 | SlotKey.epochDay(slot);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%d kabul, %d tekrar, %d hız sınırı, %d kuyruk dolu, %d bellekten dolu, ort. %.1f ms/istek",
+                accepted, duplicates, rateLimited, queueFull, shortCircuited, avgServiceMs);
+    }
+
+    private static final class Lane {
+        final long key;
+        final ArrayDeque<Task> queue = new ArrayDeque<>();
+        final Set<Integer> taken = new HashSet<>();
+        boolean running;
+
+        Lane(long key) {
+            this.key = key;
+        }
+    }
+
+    private record Task(BookingRequest request, CompletableFuture<Appointment> future) { }
+
+    private record Submitted(BookingRequest request, CompletableFuture<Appointment> future, long at) { }
+}
@@ -0,0 +1,23 @@
+package booking;
+
+/**
+ * İstek kuyruğa alınmadan reddedildi (kullanıcı çok sık deniyor ya da o günün kuyruğu dolu).
+ * Randevu kuralı ihlali değildir; istemci getRetryAfterMs() kadar bekleyip aynı anahtarla tekrar dener.
+ */
+public class BookingRejectedException extends RuntimeException {
+
+    private final long retryAfterMs;
+
+    public BookingRejectedException(String message, long retryAfterMs) {
+        super(message);
+        this.retryAfterMs = Math.max(1, retryAfterMs);
+    }
+
+    public long getRetryAfterMs() {
+        return retryAfterMs;
+    }
+
+    public int getRetryAfterSeconds() {
+        return (int) Math.max(1, (retryAfterMs + 999) / 1000);
+    }
+}
@@ -0,0 +1,41 @@
+package booking;
+
+import slot.SlotKey;
+
+import java.time.LocalDate;
+
+/**
+ * Randevu isteği. İstemci her deneme için bir anahtar üretir (idempotencyKey); aynı anahtarla gelen
+ * tekrarlar (çift tık, ağ hatasından sonra yeniden gönderim) yeni randevu açmaz, ilk isteğin sonucunu alır.
+ */
+public class BookingRequest {
+
+    private final int patientId;
+    private final int doctorId;
+    private final int slot;
+    private final String idempotencyKey;
+
+    public BookingRequest(int patientId, int doctorId, int slot, String idempotencyKey) {
+        this.patientId = patientId;
+        this.doctorId = doctorId;
+        this.slot = slot;
+        this.idempotencyKey = idempotencyKey == null || idempotencyKey.isBlank() ? null : idempotencyKey;
+    }
+
+    public int getPatientId() { return patientId; }
+    public int getDoctorId() { return doctorId; }
+    public int getSlot() { return slot; }
+    public LocalDate getDate() { return SlotKey.date(slot); }
+    public String getIdempotencyKey() { return idempotencyKey; }
+
+    // Aynı anahtarın başka bir randevu için kullanılması istemci hatasıdır
+    boolean sameBooking(BookingRequest o) {
+        return patientId == o.patientId && doctorId == o.doctorId
+                && slot == o.slot;
+    }
+
+    @Override
+    public String toString() {
+        return "hasta " + patientId + " -> doktor " + doctorId + " " + SlotKey.toString(slot);
+    }
+}
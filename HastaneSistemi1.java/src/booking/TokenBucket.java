@@ -0,0 +1,32 @@
+package booking;
+
+// Kullanıcı başına istek sınırı: en çok capacity istek art arda, sonra saniyede ratePerSecond istek
+final class TokenBucket {
+
+    private final double capacity;
+    private final double perMs;
+    private double tokens;
+    private long last;
+
+    TokenBucket(double capacity, double ratePerSecond, long now) {
+        this.capacity = capacity;
+        this.perMs = ratePerSecond / 1000.0;
+        this.tokens = capacity;
+        this.last = now;
+    }
+
+    // 0: jeton alındı; aksi halde bir sonraki jetona kalan süre (ms)
+    long tryTake(long now) {
+        tokens = Math.min(capacity, tokens + (now - last) * perMs);
+        last = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / perMs);
+    }
+
+    boolean isFull(long now) {
+        return tokens + (now - last) * perMs >= capacity;
+    }
+}
@@ -0,0 +1,179 @@
+package calendar;
+
+import dao.ScheduleExceptionDAO;
+import db.DatabaseManager;
+import db.ShardRouter;
+import model.ScheduleException;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * İzin, yarım gün, branş kapanışı ve resmi tatillerin bellekteki görüntüsü. Doktor, branş ve hastane geneli
+ * için ayrı aralık ağaçları tutulur (anahtar: epoch dakikası); bir slotun kapalı olup olmadığı üç ağaçta
+ * O(log n) aramadır, aylık bir aralıktaki istisnalar da veritabanına gitmeden bulunur.
+ * Bu JVM'deki değişiklikler görüntüyü hemen yeniler; diğer istemcilerinkiler calendar.refreshSeconds içinde gelir.
+ */
+public final class ExceptionCalendar {
+
+    private static final int SLOT_MINUTES = 60; // HourlyWorkingHourStrategy
+    private static final long DAY_MINUTES = 24 * 60;
+
+    private static ExceptionCalendar instance;
+
+    private final long refreshMillis = Long.getLong("calendar.refreshSeconds", 60L) * 1000;
+    private final AtomicBoolean reloading = new AtomicBoolean();
+    private volatile Snapshot snapshot;
+
+    private ExceptionCalendar() { }
+
+    public static synchronized ExceptionCalendar getInstance() {
+        if (instance == null) instance = new ExceptionCalendar();
+        return instance;
+    }
+
+    // Slotu kapatan istisna (varsa); doktorunki, branşınki ve genel olan sırayla aranır. Slot anahtarı epoch dakikasıdır.
+    public ScheduleException blocking(int doctorId, int slot) {
+        return current().first(doctorId, slot, (long) slot + SLOT_MINUTES);
+    }
+
+    public boolean isBlocked(int doctorId, int slot) {
+        return blocking(doctorId, slot) != null;
+    }
+
+    // slots aynı güne ait, sıralı anahtarlar; kapalı olanlar çıkarılır
+    public int[] filter(int doctorId, LocalDate date, int[] slots) {
+        Snapshot s = current();
+        long day = minutes(date, LocalTime.MIDNIGHT);
+        if (s.first(doctorId, day, day + DAY_MINUTES) == null) return slots;
+        int[] open = new int[slots.length];
+        int n = 0;
+        for (int slot : slots) {
+            if (s.first(doctorId, slot, (long) slot + SLOT_MINUTES) == null) open[n++] = slot;
+        }
+        return Arrays.copyOf(open, n);
+    }
+
+    // Tarih aralığına (iki uç dahil) düşen istisnalar, başlangıca göre sıralı
+    public List<ScheduleException> between(int doctorId, LocalDate from, LocalDate to) {
+        return current().all(doctorId, minutes(from, LocalTime.MIDNIGHT), minutes(to.plusDays(1), LocalTime.MIDNIGHT));
+    }
+
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    private Snapshot current() {
+        Snapshot s = snapshot;
+        if (s == null) {
+            synchronized (this) {
+                if (snapshot == null) snapshot = load();
+                return snapshot;
+            }
+        }
+        // Süresi dolmuş görüntü arka planda yenilenir; o sırada gelen sorgular eskisini kullanır
+        if (System.currentTimeMillis() - s.loadedAt > refreshMillis && reloading.compareAndSet(false, true)) {
+            Thread t = new Thread(() -> {
+                try {
+                    snapshot = load();
+                } catch (RuntimeException e) {
+                    System.err.println("Takvim yenilenemedi: " + e.getMessage());
+                } finally {
+                    reloading.set(false);
+                }
+            }, "calendar-refresh");
+            t.setDaemon(true);
+            t.start();
+        }
+        return s;
+    }
+
+    // İstisnalar birincil parçada; doktorlar kendi branşlarının parçasında olduğundan branş eşlemesi her parçadan toplanır
+    private static Snapshot load() {
+        try {
+            ShardRouter router = DatabaseManager.getInstance().getRouter();
+            List<ScheduleException> active =
+                    router.on(0, c -> new ScheduleExceptionDAO(c).getActive(LocalDate.now().minusDays(1)));
+            Map<Integer, String> branches = new HashMap<>();
+            for (Map<Integer, String> part : router.scatter(c -> new ScheduleExceptionDAO(c).getDoctorBranches())) {
+                branches.putAll(part);
+            }
+            return new Snapshot(active, branches);
+        } catch (Exception e) {
+            throw new RuntimeException("Takvim yüklenemedi: " + e.getMessage(), e);
+        }
+    }
+
+    static long minutes(LocalDate date, LocalTime time) {
+        return date.toEpochDay() * DAY_MINUTES + time.toSecondOfDay() / 60;
+    }
+
+    private static final class Snapshot {
+        final long loadedAt = System.currentTimeMillis();
+        final Map<Integer, IntervalTree<ScheduleException>> byDoctor = new HashMap<>();
+        final Map<String, IntervalTree<ScheduleException>> byBranch = new HashMap<>();
+        final IntervalTree<ScheduleException> global;
+        final Map<Integer, String> doctorBranch;
+
+        Snapshot(List<ScheduleException> exceptions, Map<Integer, String> doctorBranch) {
+            this.doctorBranch = doctorBranch;
+            Map<Integer, IntervalTree.Builder<ScheduleException>> doctors = new HashMap<>();
+            Map<String, IntervalTree.Builder<ScheduleException>> branches = new HashMap<>();
+            IntervalTree.Builder<ScheduleException> all = new IntervalTree.Builder<>();
+
+            for (ScheduleException e : exceptions) {
+                IntervalTree.Builder<ScheduleException> b;
+                if (e.getDoctorId() != null) b = doctors.computeIfAbsent(e.getDoctorId(), k -> new IntervalTree.Builder<>());
+                else if (e.getBranch() != null) b = branches.computeIfAbsent(e.getBranch(), k -> new IntervalTree.Builder<>());
+                else b = all;
+                add(b, e);
+            }
+            doctors.forEach((k, b) -> byDoctor.put(k, b.build()));
+            branches.forEach((k, b) -> byBranch.put(k, b.build()));
+            global = all.build();
+        }
+
+        // Tam gün istisna tek aralıktır; saatli olan (yarım gün) her gün için ayrı aralık olur
+        private static void add(IntervalTree.Builder<ScheduleException> b, ScheduleException e) {
+            if (e.isFullDay()) {
+                b.add(minutes(e.getDateFrom(), LocalTime.MIDNIGHT), minutes(e.getDateTo().plusDays(1), LocalTime.MIDNIGHT), e);
+                return;
+            }
+            for (LocalDate d = e.getDateFrom(); !d.isAfter(e.getDateTo()); d = d.plusDays(1)) {
+                b.add(minutes(d, e.getTimeFrom()), minutes(d, e.getTimeTo()), e);
+            }
+        }
+
+        ScheduleException first(int doctorId, long from, long to) {
+            IntervalTree<ScheduleException> t = byDoctor.get(doctorId);
+            ScheduleException hit = t == null ? null : t.firstOverlap(from, to);
+            if (hit != null) return hit;
+            String branch = doctorBranch.get(doctorId);
+            t = branch == null ? null : byBranch.get(branch);
+            hit = t == null ? null : t.firstOverlap(from, to);
+            return hit != null ? hit : global.firstOverlap(from, to);
+        }
+
+        List<ScheduleException> all(int doctorId, long from, long to) {
+            Set<ScheduleException> found = new LinkedHashSet<>();
+            IntervalTree<ScheduleException> t = byDoctor.get(doctorId);
+            if (t != null) found.addAll(t.overlapping(from, to));
+            String branch = doctorBranch.get(doctorId);
+            t = branch == null ? null : byBranch.get(branch);
+            if (t != null) found.addAll(t.overlapping(from, to));
+            found.addAll(global.overlapping(from, to));
+            List<ScheduleException> list = new ArrayList<>(found);
+            list.sort(Comparator.comparing(ScheduleException::getDateFrom));
+            return list;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package calendar;
+
+import dao.ScheduleExceptionDAO;
+import model.ScheduleException;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Hastane geneli tatilleri ve branş kapanışlarını yönetmek için komut satırı aracı. Doktor izinleri
+ * doktor panelindeki "İzinler" sekmesinden girilir.
+ */
+public class ExceptionTool {
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            usage();
+            return;
+        }
+        ScheduleExceptionDAO dao = new ScheduleExceptionDAO();
+        switch (args[0]) {
+            case "list" -> {
+                LocalDate from = args.length > 1 ? LocalDate.parse(args[1]) : LocalDate.now();
+                for (ScheduleException e : dao.getActive(from)) {
+                    String scope = e.getDoctorId() != null ? "doktor " + e.getDoctorId()
+                            : e.getBranch() != null ? e.getBranch() : "genel";
+                    System.out.printf("%5d  %-12s %s%n", e.getId(), scope, e);
+                }
+            }
+            case "tatil" -> {
+                if (args.length < 3) { usage(); return; }
+                print(dao.add(null, null, LocalDate.parse(args[1]), LocalDate.parse(args[2]),
+                        time(args, 4, 0), time(args, 4, 1), ScheduleException.Kind.RESMI_TATIL, arg(args, 3)));
+            }
+            case "brans" -> {
+                if (args.length < 4) { usage(); return; }
+                print(dao.add(null, args[1], LocalDate.parse(args[2]), LocalDate.parse(args[3]),
+                        time(args, 5, 0), time(args, 5, 1), ScheduleException.Kind.BRANS_KAPALI, arg(args, 4)));
+            }
+            case "sil" -> {
+                if (args.length < 2) { usage(); return; }
+                System.out.println(dao.delete(Integer.parseInt(args[1]), null) ? "Silindi." : "Kayıt bulunamadı.");
+            }
+            default -> usage();
+        }
+    }
+
+    private static void usage() {
+        System.err.println("""
+            Kullanım:
+              ExceptionTool list [baslangic]
+              ExceptionTool tatil <baslangic> <bitis> [aciklama] [SS:DD-SS:DD]
+              ExceptionTool brans <brans> <baslangic> <bitis> [aciklama] [SS:DD-SS:DD]
+              ExceptionTool sil <id>
+            Saat aralığı verilmezse tüm gün kapanır (örn. arife için 13:00-23:59).""");
+    }
+
+    private static void print(ScheduleException e) {
+        System.out.println("Eklendi: " + e.getId() + " " + e);
+    }
+
+    private static String arg(String[] args, int i) {
+        return args.length > i ? args[i] : null;
+    }
+
+    private static LocalTime time(String[] args, int i, int part) {
+        String range = arg(args, i);
+        return range == null ? null : LocalTime.parse(range.split("-")[part].trim());
+    }
+}
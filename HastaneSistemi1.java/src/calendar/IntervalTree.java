@@ -0,0 +1,115 @@
+package calendar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Yarı açık [start, end) aralıkları için değişmez aralık ağacı. Aralıklar başlangıca göre sıralı bir dizide
+ * tutulur; dizinin ortası kök olacak şekilde örtük dengeli ağaç kurulur ve her düğüm alt ağacındaki en büyük
+ * bitişi saklar. "Çakışan var mı" sorgusu O(log n), çakışanların hepsi O(log n + k) sürer.
+ * Değişiklikte yeniden kurulur; okuyucular kilitsiz paylaşır.
+ */
+public final class IntervalTree<T> {
+
+    private final long[] starts;
+    private final long[] ends;
+    private final long[] maxEnd;
+    private final Object[] values;
+
+    private IntervalTree(long[] starts, long[] ends, Object[] values) {
+        this.starts = starts;
+        this.ends = ends;
+        this.values = values;
+        this.maxEnd = new long[starts.length];
+        fillMaxEnd(0, starts.length);
+    }
+
+    public static <T> IntervalTree<T> empty() {
+        return new IntervalTree<>(new long[0], new long[0], new Object[0]);
+    }
+
+    public int size() {
+        return starts.length;
+    }
+
+    public boolean overlaps(long from, long to) {
+        return find(0, starts.length, from, to) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T firstOverlap(long from, long to) {
+        int i = find(0, starts.length, from, to);
+        return i < 0 ? null : (T) values[i];
+    }
+
+    public List<T> overlapping(long from, long to) {
+        List<T> out = new ArrayList<>();
+        collect(0, starts.length, from, to, out);
+        return out;
+    }
+
+    private long fillMaxEnd(int lo, int hi) {
+        if (lo >= hi) return Long.MIN_VALUE;
+        int mid = (lo + hi) >>> 1;
+        long m = Math.max(ends[mid], Math.max(fillMaxEnd(lo, mid), fillMaxEnd(mid + 1, hi)));
+        maxEnd[mid] = m;
+        return m;
+    }
+
+    // Sol alt ağaçta from'dan sonra biten bir aralık varsa ve o da çakışmıyorsa, başlangıcı to'dan sonradır;
+    // sağdakiler daha geç başladığı için onlar da çakışamaz. Bu yüzden her seviyede tek dala inilir.
+    private int find(int lo, int hi, long from, long to) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (maxEnd[mid] <= from) return -1;
+            int left = (lo + mid) >>> 1;
+            if (lo < mid && maxEnd[left] > from) {
+                hi = mid;
+                continue;
+            }
+            if (starts[mid] >= to) return -1;
+            if (ends[mid] > from) return mid;
+            lo = mid + 1;
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void collect(int lo, int hi, long from, long to, List<T> out) {
+        if (lo >= hi) return;
+        int mid = (lo + hi) >>> 1;
+        if (maxEnd[mid] <= from) return;
+        collect(lo, mid, from, to, out);
+        if (starts[mid] >= to) return;
+        if (ends[mid] > from) out.add((T) values[mid]);
+        collect(mid + 1, hi, from, to, out);
+    }
+
+    public static final class Builder<T> {
+        private final List<long[]> ranges = new ArrayList<>();
+        private final List<T> items = new ArrayList<>();
+
+        public Builder<T> add(long start, long end, T value) {
+            if (end <= start) return this;
+            ranges.add(new long[]{start, end, items.size()});
+            items.add(value);
+            return this;
+        }
+
+        public IntervalTree<T> build() {
+            long[][] sorted = ranges.toArray(new long[0][]);
+            Arrays.sort(sorted, Comparator.comparingLong(r -> r[0]));
+            long[] s = new long[sorted.length];
+            long[] e = new long[sorted.length];
+            Object[] v = new Object[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                s[i] = sorted[i][0];
+                e[i] = sorted[i][1];
+                v[i] = items.get((int) sorted[i][2]);
+            }
+            return new IntervalTree<>(s, e, v);
+        }
+    }
+}
@@ -1,46 +1,73 @@
 package dao;
 
+import archive.AppointmentArchiver;
+import calendar.ExceptionCalendar;
 import db.DatabaseManager;
+import db.DbConfig;
+import journal.AppointmentJournal;
+import journal.JournalRecord;
+import model.Appointment;
+import model.ExamRecord;
+import model.PrescriptionLine;
+import model.ScheduleException;
+import observer.AppointmentEvent;
 import observer.AppointmentSubject;
-import state.*;
+import observer.ChangeFeed;
+import slot.SlotKey;
+import state.AppointmentState;
 
 import java.sql.*;
 import java.time.LocalDate;
-import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public class AppointmentDAO {
 
-    private final Connection conn = DatabaseManager.getInstance().getConnection();
+    public static final String SLOT_TAKEN = "Bu saat dolu";
+    public static final String SLOT_HELD = "Bu saat başka bir hasta için birkaç dakikalığına ayrıldı";
+
+    private final Connection conn;
     private final AppointmentSubject subject = AppointmentSubject.getInstance();
+    private final AppointmentJournal journal = AppointmentJournal.getInstance();
+    private final ChangeFeed changeFeed = ChangeFeed.getInstance();
+    private final ExceptionCalendar calendar = ExceptionCalendar.getInstance();
+    private final SlotDAO slots;
+    private final ExamDAO exams;
 
-    public boolean isSlotTaken(int doctorId, LocalDate date, String hhmm) {
-        String sql = """
-            SELECT COUNT(*) FROM appointments
-            WHERE doctor_id=? AND date=? AND time=? AND state='AKTIF'
-        """;
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setInt(1, doctorId);
-            ps.setDate(2, Date.valueOf(date));
-            ps.setTime(3, Time.valueOf(LocalTime.parse(hhmm)));
-            try (ResultSet rs = ps.executeQuery()) {
-                rs.next();
-                return rs.getInt(1) > 0;
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
+    public AppointmentDAO() {
+        this(DatabaseManager.getInstance().getConnection());
+    }
+
+    // Arka plan servisleri arayüzün bağlantısını paylaşmamak için kendi bağlantılarıyla oluşturur
+    public AppointmentDAO(Connection conn) {
+        this.conn = conn;
+        this.slots = new SlotDAO(conn);
+        this.exams = new ExamDAO(conn);
+    }
+
+    public boolean isSlotTaken(int doctorId, int slot) {
+        return !slots.isFree(doctorId, slot);
+    }
+
+    public int[] getFreeSlots(int doctorId, LocalDate date) {
+        return slots.getFreeSlots(doctorId, date);
+    }
+
+    public int[] getFreeSlots(int doctorId, LocalDate date, int viewerId) {
+        return slots.getFreeSlots(doctorId, date, viewerId);
     }
 
     public boolean hasPatientAppointmentSameDay(int patientId, LocalDate date) {
         String sql = """
             SELECT COUNT(*) FROM appointments
-            WHERE patient_id=? AND date=? AND state='AKTIF'
+            WHERE patient_id=? AND date=? AND state_code=?
         """;
         try (PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, patientId);
             ps.setDate(2, Date.valueOf(date));
+            ps.setInt(3, AppointmentState.AKTIF.getCode());
             try (ResultSet rs = ps.executeQuery()) {
                 rs.next();
                 return rs.getInt(1) > 0;
@@ -50,163 +77,335 @@ public class AppointmentDAO {
         }
     }
 
-    public void create(int patientId, int doctorId, LocalDate date, String hhmm) {
+    public Appointment create(int patientId, int doctorId, int slot) {
 
+        LocalDate date = SlotKey.date(slot);
         if (hasPatientAppointmentSameDay(patientId, date))
-            throw new RuntimeException("Hasta aynı gün birden fazla randevu alamaz");
-
-        if (isSlotTaken(doctorId, date, hhmm))
-            throw new RuntimeException("Bu saat dolu");
+            throw new RuleViolationException("Hasta aynı gün birden fazla randevu alamaz");
 
-        AppointmentState state = new AktifState();
+        checkNotBlocked(doctorId, slot);
+        slots.ensureCovered(doctorId, date);
+        AppointmentState state = AppointmentState.AKTIF;
 
         String sql = """
             INSERT INTO appointments
-            (patient_id,doctor_id,date,time,state,note,prescription)
-            VALUES (?,?,?,?,?,?,?)
+            (patient_id,doctor_id,date,time,state_code)
+            VALUES (?,?,?,?,?)
         """;
 
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setInt(1, patientId);
-            ps.setInt(2, doctorId);
-            ps.setDate(3, Date.valueOf(date));
-            ps.setTime(4, Time.valueOf(LocalTime.parse(hhmm)));
-            ps.setString(5, state.getStateName());
-            ps.setString(6, null);
-            ps.setString(7, null);
-            ps.executeUpdate();
-            subject.notifyObservers();
+        List<AppointmentEvent> events = new ArrayList<>();
+        try {
+            // Randevu satırı, slot sahiplenmesi ve değişiklik kaydı birlikte; slot alınamazsa ekleme geri alınır
+            Appointment created = inTransaction(() -> {
+                int id;
+                try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                    ps.setInt(1, patientId);
+                    ps.setInt(2, doctorId);
+                    ps.setDate(3, Date.valueOf(date));
+                    ps.setTime(4, SlotKey.sqlTime(SlotKey.minute(slot)));
+                    ps.setInt(5, state.getCode());
+                    ps.executeUpdate();
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        keys.next();
+                        id = keys.getInt(1);
+                    }
+                }
+                if (!slots.claim(doctorId, slot, id, patientId)) throw slotRefused(doctorId, slot, patientId);
+                Appointment a = new Appointment(id, patientId, doctorId, slot, state, 0);
+                events.add(recordChange(AppointmentEvent.Type.CREATED, a, null));
+                return a;
+            });
+            appendJournal(created.getId(), JournalRecord.Op.CREATE, null, created.toString());
+            notifyCommitted(events);
+            return created;
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
     }
 
     public void cancelByPatient(int appointmentId, int patientId) {
-        AppointmentState state = new IptalState();
+        AppointmentState state = AppointmentState.IPTAL;
+        Appointment before = findById(appointmentId);
         String sql = """
             UPDATE appointments
-            SET state=?
-            WHERE id=? AND patient_id=? AND state='AKTIF'
+            SET state_code=?, version=version+1
+            WHERE id=? AND patient_id=? AND state_code=?
         """;
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, state.getStateName());
-            ps.setInt(2, appointmentId);
-            ps.setInt(3, patientId);
-            ps.executeUpdate();
-            subject.notifyObservers();
+        if (before == null) return;
+        Appointment after = withState(before, state);
+        List<AppointmentEvent> events = new ArrayList<>();
+        try {
+            boolean cancelled = inTransaction(() -> {
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    ps.setInt(1, state.getCode());
+                    ps.setInt(2, appointmentId);
+                    ps.setInt(3, patientId);
+                    ps.setInt(4, AppointmentState.AKTIF.getCode());
+                    if (ps.executeUpdate() == 0) return false;
+                }
+                slots.release(appointmentId);
+                events.add(recordChange(AppointmentEvent.Type.CANCELLED, after, null));
+                return true;
+            });
+            if (cancelled) {
+                appendJournal(appointmentId, JournalRecord.Op.CANCEL, before.toString(), after.toString());
+                notifyCommitted(events);
+            }
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
     }
 
-    public void rescheduleByPatient(
+    // Satır kilitlenerek okunur, kurallar denetlenir, randevu ve slotu aynı transaction'da taşınır; bir adım
+    // başarısız olursa randevu eski saatinde kalır. Taşınan randevu "aynı gün tek randevu" kuralında sayılmaz.
+    public UpdateResult<Appointment> rescheduleByPatient(
             int appointmentId, int patientId, int doctorId,
-            LocalDate newDate, String newHhmm) {
+            int newSlot, int expectedVersion) {
 
-        if (hasPatientAppointmentSameDay(patientId, newDate))
-            throw new RuntimeException("Hasta aynı gün başka randevuya sahip");
+        LocalDate newDate = SlotKey.date(newSlot);
+        checkNotBlocked(doctorId, newSlot);
+        slots.ensureCovered(doctorId, newDate);
 
-        if (isSlotTaken(doctorId, newDate, newHhmm))
-            throw new RuntimeException("Yeni saat dolu");
+        String sql = "UPDATE appointments SET date=?, time=?, version=version+1 WHERE id=?";
 
-        String sql = """
-            UPDATE appointments
-            SET date=?, time=?
-            WHERE id=? AND patient_id=? AND doctor_id=? AND state='AKTIF'
-        """;
+        List<AppointmentEvent> events = new ArrayList<>();
+        try {
+            MoveSource source = inTransaction(() -> {
+                MoveSource locked = lockForMove(appointmentId, newDate);
+                if (refusal(locked.row(), patientId, doctorId, expectedVersion) != null) return locked;
+                if (locked.sameDayTaken()) throw new RuleViolationException("Hasta aynı gün başka randevuya sahip");
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    ps.setDate(1, Date.valueOf(newDate));
+                    ps.setTime(2, SlotKey.sqlTime(SlotKey.minute(newSlot)));
+                    ps.setInt(3, appointmentId);
+                    ps.executeUpdate();
+                }
+                if (!slots.move(appointmentId, patientId, doctorId, locked.row().getSlot(), newSlot, locked.workingHours()))
+                    throw slotRefused(doctorId, newSlot, patientId);
+                events.add(recordChange(AppointmentEvent.Type.RESCHEDULED, moved(locked.row(), newSlot), locked.row()));
+                return locked;
+            });
+            UpdateResult<Appointment> refused = refusal(source.row(), patientId, doctorId, expectedVersion);
+            if (refused != null) return refused;
 
+            Appointment before = source.row();
+            Appointment after = moved(before, newSlot);
+            appendJournal(appointmentId, JournalRecord.Op.RESCHEDULE, before.toString(), after.toString());
+            notifyCommitted(events);
+            return UpdateResult.applied(after, after.getVersion());
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // Kilitli okumanın sonucu: taşınacak satır (yoksa null), hastanın yeni günde başka aktif randevusu olup olmadığı
+    // ve doktorun güncel çalışma saatleri (eski slot yeniden açılacak mı)
+    private record MoveSource(Appointment row, boolean sameDayTaken, String workingHours) { }
+
+    private MoveSource lockForMove(int appointmentId, LocalDate newDate) throws SQLException {
+        String sql = """
+            SELECT a.id,a.patient_id,a.doctor_id,a.date,%s,a.state_code,a.version,
+                   (SELECT COUNT(*) FROM appointments o
+                    WHERE o.patient_id=a.patient_id AND o.date=? AND o.state_code=? AND o.id<>a.id),
+                   (SELECT d.working_hours FROM doctors d WHERE d.user_id=a.doctor_id)
+            FROM appointments a WHERE a.id=?
+            FOR UPDATE
+        """.formatted(minuteOfDay("a.time"));
         try (PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setDate(1, Date.valueOf(newDate));
-            ps.setTime(2, Time.valueOf(LocalTime.parse(newHhmm)));
+            ps.setInt(2, AppointmentState.AKTIF.getCode());
             ps.setInt(3, appointmentId);
-            ps.setInt(4, patientId);
-            ps.setInt(5, doctorId);
-            ps.executeUpdate();
-            subject.notifyObservers();
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return new MoveSource(null, false, null);
+                return new MoveSource(read(rs), rs.getInt(8) > 0, rs.getString(9));
+            }
         }
     }
 
-    public void updateStateByDoctor(int appointmentId, int doctorId, AppointmentState newState) {
+    // null: taşınabilir. Başka hastanın / doktorun randevusu bulunamadı, değişmiş ya da aktif olmayan randevu çakışmadır.
+    private static UpdateResult<Appointment> refusal(Appointment row, int patientId, int doctorId, int expectedVersion) {
+        if (row == null || row.getPatientId() != patientId || row.getDoctorId() != doctorId) return UpdateResult.notFound();
+        if (row.getVersion() != expectedVersion || !row.getState().isActive())
+            return UpdateResult.conflict(row, row.getVersion());
+        return null;
+    }
+
+    // Sahiplenilemeyen slotun nedeni; fırlatılınca transaction geri alınır
+    private RuntimeException slotRefused(int doctorId, int slot, int patientId) throws SQLException {
+        if (!slots.exists(doctorId, slot)) return new RuleViolationException("Seçilen saat doktorun çalışma saatleri dışında");
+        return new SlotTakenException(slots.isHeldByOther(doctorId, slot, patientId) ? SLOT_HELD : SLOT_TAKEN);
+    }
+
+    public UpdateResult<Appointment> updateStateByDoctor(
+            int appointmentId, int doctorId, AppointmentState newState, int expectedVersion) {
+
+        Appointment before = findById(appointmentId);
+        if (before == null || before.getDoctorId() != doctorId) return UpdateResult.notFound();
+        if (before.getVersion() != expectedVersion) return UpdateResult.conflict(before, before.getVersion());
+        AppointmentState current = before.getState();
+        if (!current.canTransitionTo(newState))
+            throw new RuleViolationException(current + " durumundaki randevu " + newState + " yapılamaz");
+
         String sql = """
-            UPDATE appointments SET state=?
-            WHERE id=? AND doctor_id=?
+            UPDATE appointments SET state_code=?, version=version+1
+            WHERE id=? AND doctor_id=? AND version=? AND state_code=?
         """;
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, newState.getStateName());
-            ps.setInt(2, appointmentId);
-            ps.setInt(3, doctorId);
-            ps.executeUpdate();
-            subject.notifyObservers();
+        Appointment after = withState(before, newState);
+        List<AppointmentEvent> events = new ArrayList<>();
+        try {
+            boolean updated = inTransaction(() -> {
+                try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                    ps.setInt(1, newState.getCode());
+                    ps.setInt(2, appointmentId);
+                    ps.setInt(3, doctorId);
+                    ps.setInt(4, expectedVersion);
+                    ps.setInt(5, current.getCode());
+                    if (ps.executeUpdate() == 0) return false;
+                }
+                // Doktor iptali saati yeniden açar; TAMAMLANDI/GELMEDI saati kullanılmış sayar
+                if (newState == AppointmentState.IPTAL) slots.release(appointmentId);
+                events.add(recordChange(AppointmentEvent.Type.STATE_CHANGED, after, null));
+                return true;
+            });
+            if (!updated) return conflictOrMissing(appointmentId);
+
+            appendJournal(appointmentId, JournalRecord.Op.STATE, before.toString(), after.toString());
+            notifyCommitted(events);
+            return UpdateResult.applied(after, after.getVersion());
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
     }
 
-    public void saveExam(int appointmentId, int doctorId, String note, String prescription) {
-        String sql = """
-            UPDATE appointments
-            SET note=?, prescription=?
-            WHERE id=? AND doctor_id=?
-        """;
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, note);
-            ps.setString(2, prescription);
-            ps.setInt(3, appointmentId);
-            ps.setInt(4, doctorId);
-            ps.executeUpdate();
-            subject.notifyObservers();
+    // lines: reçete metninin katalogla eşleşen satırları; metinle birlikte aynı transaction'da yazılır
+    public UpdateResult<ExamRecord> saveExam(int appointmentId, int doctorId, String note, String prescription,
+                                             List<PrescriptionLine> lines, int expectedVersion) {
+
+        ExamRecord before = findExam(appointmentId, doctorId);
+        if (before == null) return UpdateResult.notFound();
+        if (before.getVersion() != expectedVersion) return UpdateResult.conflict(before, before.getVersion());
+
+        List<AppointmentEvent> events = new ArrayList<>();
+        try {
+            boolean saved = inTransaction(() -> {
+                if (!exams.save(appointmentId, note, prescription, expectedVersion)) return false;
+                exams.saveLines(appointmentId, lines);
+                Appointment current = findById(appointmentId);
+                if (current != null) events.add(recordChange(AppointmentEvent.Type.EXAM_SAVED, current, null));
+                return true;
+            });
+            if (!saved) {
+                ExamRecord current = findExam(appointmentId, doctorId);
+                return current == null ? UpdateResult.notFound() : UpdateResult.conflict(current, current.getVersion());
+            }
+
+            ExamRecord after = new ExamRecord(appointmentId, note, prescription, expectedVersion + 1);
+            appendJournal(appointmentId, JournalRecord.Op.EXAM,
+                    examValue(before.getNote(), before.getPrescription()), examValue(note, prescription));
+            notifyCommitted(events);
+            return UpdateResult.applied(after, after.getVersion());
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
     }
 
-    public String[] getExam(int appointmentId, int doctorId) {
+    private void checkNotBlocked(int doctorId, int slot) {
+        ScheduleException blocked = calendar.blocking(doctorId, slot);
+        if (blocked != null) throw new RuleViolationException("Seçilen saat kapalı: " + blocked);
+    }
+
+    private interface SqlWork<T> {
+        T run() throws SQLException;
+    }
+
+    // Bağlantı zaten bir transaction içindeyse (autoCommit kapalı) ona katılır, commit çağırana kalır
+    private <T> T inTransaction(SqlWork<T> work) throws SQLException {
+        if (!conn.getAutoCommit()) return work.run();
+        conn.setAutoCommit(false);
+        try {
+            T result = work.run();
+            conn.commit();
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private UpdateResult<Appointment> conflictOrMissing(int appointmentId) {
+        Appointment current = findById(appointmentId);
+        return current == null ? UpdateResult.notFound() : UpdateResult.conflict(current, current.getVersion());
+    }
+
+    public Appointment findById(int appointmentId) {
         String sql = """
-            SELECT note,prescription FROM appointments
-            WHERE id=? AND doctor_id=?
-        """;
+            SELECT id,patient_id,doctor_id,date,%s,state_code,version
+            FROM appointments WHERE id=?
+        """.formatted(minuteOfDay("time"));
         try (PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, appointmentId);
-            ps.setInt(2, doctorId);
             try (ResultSet rs = ps.executeQuery()) {
-                if (!rs.next()) return new String[]{"", ""};
-                return new String[]{ rs.getString("note"), rs.getString("prescription") };
+                if (!rs.next()) return null;
+                return read(rs);
             }
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
     }
 
-    public List<String[]> getByPatient(int patientId) {
-        List<String[]> list = new ArrayList<>();
+    private static Appointment read(ResultSet rs) throws SQLException {
+        return new Appointment(rs.getInt(1), rs.getInt(2), rs.getInt(3), SlotKey.of(rs.getDate(4).toLocalDate(), rs.getInt(5)),
+                AppointmentState.ofCode(rs.getInt(6)), rs.getInt(7));
+    }
+
+    private static Appointment withState(Appointment a, AppointmentState state) {
+        return new Appointment(a.getId(), a.getPatientId(), a.getDoctorId(), a.getSlot(),
+                state, a.getVersion() + 1);
+    }
+
+    private static Appointment moved(Appointment a, int slot) {
+        return new Appointment(a.getId(), a.getPatientId(), a.getDoctorId(), slot,
+                a.getState(), a.getVersion() + 1);
+    }
+
+    // Değişikliği diğer istemciler için yazımla aynı transaction'da değişiklik akışına kaydeder; yazım geri alınırsa
+    // kayıt da gider. Dönen olay commit'ten sonra notifyCommitted ile bu JVM'deki gözlemcilere bildirilir.
+    private AppointmentEvent recordChange(AppointmentEvent.Type type, Appointment a, Appointment previous)
+            throws SQLException {
+        long revision = changeFeed.record(conn, type, a.getId(), previous);
+        return new AppointmentEvent(type, a.getId(), a.getPatientId(), a.getDoctorId(),
+                a.getSlot(), a.getState(), previous == null ? AppointmentEvent.NO_SLOT : previous.getSlot(),
+                revision, false);
+    }
+
+    private void notifyCommitted(List<AppointmentEvent> events) {
+        for (AppointmentEvent e : events) subject.notifyObservers(e);
+    }
+
+    // Günlük arka planda yazılır; yazılamazsa randevu değişikliği geri alınmaz, hangi kaydın eksik kaldığı raporlanır
+    private void appendJournal(int appointmentId, JournalRecord.Op op, String before, String after) {
+        journal.append(appointmentId, op, before, after).whenComplete((v, e) -> {
+            if (e != null) System.err.println("Randevu günlüğüne yazılamadı (#" + appointmentId + " " + op + "): " + e.getMessage());
+        });
+    }
+
+    private static String examValue(String note, String prescription) {
+        return (note == null ? "" : note) + '\u001F' + (prescription == null ? "" : prescription);
+    }
+
+    public List<Appointment> getActiveFrom(LocalDate from) {
+        List<Appointment> list = new ArrayList<>();
         String sql = """
-            SELECT a.id,
-                   CONCAT(u.name,' ',u.surname),
-                   d.branch,
-                   a.date,
-                   TIME_FORMAT(a.time,'%H:%i'),
-                   a.state
-            FROM appointments a
-            JOIN users u ON a.doctor_id=u.id
-            JOIN doctors d ON u.id=d.user_id
-            WHERE a.patient_id=?
-            ORDER BY a.date DESC, a.time DESC
-        """;
+            SELECT id,patient_id,doctor_id,date,%s,state_code,version
+            FROM appointments WHERE state_code=? AND date >= ?
+        """.formatted(minuteOfDay("time"));
         try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setInt(1, patientId);
+            ps.setInt(1, AppointmentState.AKTIF.getCode());
+            ps.setDate(2, Date.valueOf(from));
             try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    list.add(new String[]{
-                            rs.getString(1),
-                            rs.getString(2),
-                            rs.getString(3),
-                            rs.getString(4),
-                            rs.getString(5),
-                            rs.getString(6)
-                    });
-                }
+                while (rs.next()) list.add(read(rs));
             }
         } catch (SQLException e) {
             throw new RuntimeException(e);
@@ -214,71 +413,115 @@ public class AppointmentDAO {
         return list;
     }
 
+    public ExamRecord findExam(int appointmentId, int doctorId) {
+        return exams.find(appointmentId, doctorId);
+    }
+
+    public List<PrescriptionLine> getPrescriptionLines(int appointmentId) {
+        return exams.getLines(appointmentId);
+    }
+
+    public Map<Integer, ExamRecord> findExams(Collection<Integer> appointmentIds, int doctorId) {
+        return exams.findAll(appointmentIds, doctorId);
+    }
+
+    public List<String[]> getByPatient(int patientId) {
+        boolean withArchive = AppointmentArchiver.reachesArchive(conn, null);
+        String sql = patientHistorySql("appointments", "a.patient_id=?");
+        if (withArchive) sql += " UNION ALL " + patientHistorySql("appointments_archive", "a.patient_id=?");
+        sql += " ORDER BY 4 DESC, 5 DESC";
+
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, patientId);
+            if (withArchive) ps.setInt(2, patientId);
+            return readRows(ps);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     public List<String[]> getByDoctorBetween(int doctorId, LocalDate from, LocalDate to) {
-        List<String[]> list = new ArrayList<>();
-        String sql = """
-            SELECT a.id,u.tc,CONCAT(u.name,' ',u.surname),
-                   a.date,TIME_FORMAT(a.time,'%H:%i'),a.state
-            FROM appointments a
-            JOIN users u ON a.patient_id=u.id
-            WHERE a.doctor_id=? AND a.date BETWEEN ? AND ?
-            ORDER BY a.date,a.time
-        """;
+        boolean withArchive = AppointmentArchiver.reachesArchive(conn, from);
+        String sql = doctorRangeSql("appointments");
+        if (withArchive) sql += " UNION ALL " + doctorRangeSql("appointments_archive");
+        sql += " ORDER BY 4, 5";
+
         try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setInt(1, doctorId);
-            ps.setDate(2, Date.valueOf(from));
-            ps.setDate(3, Date.valueOf(to));
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    list.add(new String[]{
-                            rs.getString(1),
-                            rs.getString(2),
-                            rs.getString(3),
-                            rs.getString(4),
-                            rs.getString(5),
-                            rs.getString(6)
-                    });
-                }
+            for (int i = 0; i < (withArchive ? 2 : 1); i++) {
+                ps.setInt(i * 3 + 1, doctorId);
+                ps.setDate(i * 3 + 2, Date.valueOf(from));
+                ps.setDate(i * 3 + 3, Date.valueOf(to));
             }
+            return readRows(ps);
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
-        return list;
     }
 
     public List<String[]> getByPatientBetween(int patientId, LocalDate from, LocalDate to) {
-        List<String[]> list = new ArrayList<>();
-        String sql = """
+        boolean withArchive = AppointmentArchiver.reachesArchive(conn, from);
+        String where = "a.patient_id=? AND a.date BETWEEN ? AND ?";
+        String sql = patientHistorySql("appointments", where);
+        if (withArchive) sql += " UNION ALL " + patientHistorySql("appointments_archive", where);
+        sql += " ORDER BY 4, 5";
+
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (int i = 0; i < (withArchive ? 2 : 1); i++) {
+                ps.setInt(i * 3 + 1, patientId);
+                ps.setDate(i * 3 + 2, Date.valueOf(from));
+                ps.setDate(i * 3 + 3, Date.valueOf(to));
+            }
+            return readRows(ps);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String doctorRangeSql(String table) {
+        return """
+            SELECT a.id,u.tc,CONCAT(u.name,' ',u.surname),
+                   a.date,%s,%s,
+                   a.patient_id,a.version
+            FROM %s a
+            JOIN users u ON a.patient_id=u.id
+            WHERE a.doctor_id=? AND a.date BETWEEN ? AND ?
+        """.formatted(hhmm("a.time"), AppointmentState.nameSql("a.state_code"), table);
+    }
+
+    private static String patientHistorySql(String table, String where) {
+        return """
             SELECT a.id,
                    CONCAT(u.name,' ',u.surname),
                    d.branch,
                    a.date,
-                   TIME_FORMAT(a.time,'%H:%i'),
-                   a.state
-            FROM appointments a
+                   %s,
+                   %s,
+                   a.doctor_id,
+                   a.version
+            FROM %s a
             JOIN users u ON a.doctor_id=u.id
             JOIN doctors d ON u.id=d.user_id
-            WHERE a.patient_id=? AND a.date BETWEEN ? AND ?
-            ORDER BY a.date,a.time
-        """;
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setInt(1, patientId);
-            ps.setDate(2, Date.valueOf(from));
-            ps.setDate(3, Date.valueOf(to));
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    list.add(new String[]{
-                            rs.getString(1),
-                            rs.getString(2),
-                            rs.getString(3),
-                            rs.getString(4),
-                            rs.getString(5),
-                            rs.getString(6)
-                    });
-                }
+            WHERE %s
+        """.formatted(hhmm("a.time"), AppointmentState.nameSql("a.state_code"), table, where);
+    }
+
+    private static String hhmm(String column) {
+        return DbConfig.getInstance().getDialect().hhmm(column);
+    }
+
+    private static String minuteOfDay(String column) {
+        return DbConfig.getInstance().getDialect().minuteOfDay(column);
+    }
+
+    private static List<String[]> readRows(PreparedStatement ps) throws SQLException {
+        List<String[]> list = new ArrayList<>();
+        try (ResultSet rs = ps.executeQuery()) {
+            int cols = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                String[] row = new String[cols];
+                for (int i = 0; i < cols; i++) row[i] = rs.getString(i + 1);
+                list.add(row);
             }
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
         }
         return list;
     }
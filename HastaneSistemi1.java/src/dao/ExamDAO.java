@@ -0,0 +1,147 @@
+package dao;
+
+import db.DatabaseManager;
+import exam.ExamCodec;
+import model.ExamRecord;
+import model.PrescriptionLine;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Muayene notu ve reçeteler appointments satırlarını şişirmemek için appointment_exams tablosunda tutulur.
+ * Henüz yazılmamış muayene, sürümü 0 olan boş kayıt olarak döner; ilk kayıt INSERT, sonrakiler sürüm
+ * kontrollü UPDATE'tir. Kayıt randevunun doktoruna aittir; sahiplik appointments / arşiv üzerinden denetlenir.
+ */
+public class ExamDAO {
+
+    private static final String[] TABLES = {"appointments", "appointments_archive"};
+
+    private final Connection conn;
+
+    public ExamDAO() {
+        this(DatabaseManager.getInstance().getConnection());
+    }
+
+    public ExamDAO(Connection conn) {
+        this.conn = conn;
+    }
+
+    public ExamRecord find(int appointmentId, int doctorId) {
+        Map<Integer, ExamRecord> found = findAll(List.of(appointmentId), doctorId);
+        return found.get(appointmentId);
+    }
+
+    // Tek sorguda birden çok randevunun muayenesi; doktora ait olmayan id'ler sonuçta yer almaz
+    public Map<Integer, ExamRecord> findAll(Collection<Integer> appointmentIds, int doctorId) {
+        Map<Integer, ExamRecord> found = new HashMap<>();
+        List<Integer> missing = new ArrayList<>(appointmentIds);
+        for (String table : TABLES) {
+            if (missing.isEmpty()) break;
+            String sql = """
+                SELECT a.id, e.note, e.note_z, e.prescription, e.version
+                FROM %s a LEFT JOIN appointment_exams e ON e.appointment_id=a.id
+                WHERE a.doctor_id=? AND a.id IN (%s)
+            """.formatted(table, String.join(",", Collections.nCopies(missing.size(), "?")));
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setInt(1, doctorId);
+                for (int i = 0; i < missing.size(); i++) ps.setInt(i + 2, missing.get(i));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        int id = rs.getInt(1);
+                        byte[] z = rs.getBytes(3);
+                        String note = z != null ? ExamCodec.decompress(z) : rs.getString(2);
+                        found.put(id, new ExamRecord(id, note, rs.getString(4), rs.getInt(5)));
+                    }
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+            missing.removeIf(found::containsKey);
+        }
+        return found;
+    }
+
+    // false: kayıt bu arada başka oturumda yazılmış (sürüm tutmuyor)
+    public boolean save(int appointmentId, String note, String prescription, int expectedVersion) throws SQLException {
+        byte[] z = ExamCodec.compress(note);
+        if (expectedVersion == 0) {
+            String sql = "INSERT INTO appointment_exams (note,note_z,prescription,appointment_id,version) VALUES (?,?,?,?,1)";
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                bind(ps, z, note, prescription);
+                ps.setInt(4, appointmentId);
+                ps.executeUpdate();
+                return true;
+            } catch (SQLException e) {
+                if (e.getSQLState() != null && e.getSQLState().startsWith("23")) return false;
+                throw e;
+            }
+        }
+        String sql = """
+            UPDATE appointment_exams SET note=?, note_z=?, prescription=?, version=version+1
+            WHERE appointment_id=? AND version=?
+        """;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            bind(ps, z, note, prescription);
+            ps.setInt(4, appointmentId);
+            ps.setInt(5, expectedVersion);
+            return ps.executeUpdate() == 1;
+        }
+    }
+
+    // Satırlar her kayıtta baştan yazılır; çağıran muayene kaydıyla aynı transaction'da çağırır
+    public void saveLines(int appointmentId, List<PrescriptionLine> lines) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("DELETE FROM prescription_lines WHERE appointment_id=?")) {
+            ps.setInt(1, appointmentId);
+            ps.executeUpdate();
+        }
+        if (lines.isEmpty()) return;
+        String sql = """
+            INSERT INTO prescription_lines (appointment_id,line_no,drug_name,active_ingredient,form,instructions)
+            VALUES (?,?,?,?,?,?)
+        """;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (PrescriptionLine l : lines) {
+                ps.setInt(1, appointmentId);
+                ps.setInt(2, l.getLineNo());
+                ps.setString(3, l.getDrugName());
+                ps.setString(4, l.getActiveIngredient());
+                ps.setString(5, l.getForm());
+                ps.setString(6, l.getInstructions());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    public List<PrescriptionLine> getLines(int appointmentId) {
+        List<PrescriptionLine> list = new ArrayList<>();
+        String sql = """
+            SELECT line_no,drug_name,active_ingredient,form,instructions
+            FROM prescription_lines WHERE appointment_id=? ORDER BY line_no
+        """;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, appointmentId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(new PrescriptionLine(rs.getInt(1), rs.getString(2), rs.getString(3),
+                            rs.getString(4), rs.getString(5)));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return list;
+    }
+
+    private static void bind(PreparedStatement ps, byte[] z, String note, String prescription) throws SQLException {
+        ps.setString(1, z == null ? note : null);
+        ps.setBytes(2, z);
+        ps.setString(3, prescription);
+    }
+}
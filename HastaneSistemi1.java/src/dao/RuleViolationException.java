@@ -0,0 +1,12 @@
+package dao;
+
+/**
+ * Randevu kuralı ihlali (aynı gün ikinci randevu, geçersiz durum geçişi, kapalı ya da mesai dışı saat).
+ * Mesaj kullanıcıya olduğu gibi gösterilir; API bunu 422 olarak döner.
+ */
+public class RuleViolationException extends RuntimeException {
+
+    public RuleViolationException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,149 @@
+package dao;
+
+import calendar.ExceptionCalendar;
+import db.DatabaseManager;
+import model.ScheduleException;
+import state.AppointmentState;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ScheduleExceptionDAO {
+
+    private static final String COLUMNS = "id,doctor_id,branch,date_from,date_to,time_from,time_to,kind,description";
+
+    private final Connection conn;
+
+    public ScheduleExceptionDAO() {
+        this(DatabaseManager.getInstance().getConnection());
+    }
+
+    public ScheduleExceptionDAO(Connection conn) {
+        this.conn = conn;
+    }
+
+    public ScheduleException add(Integer doctorId, String branch, LocalDate from, LocalDate to,
+                                 LocalTime timeFrom, LocalTime timeTo, ScheduleException.Kind kind, String description) {
+        if (to.isBefore(from)) throw new IllegalArgumentException("Bitiş tarihi başlangıçtan önce olamaz");
+        if ((timeFrom == null) != (timeTo == null) || (timeFrom != null && !timeFrom.isBefore(timeTo)))
+            throw new IllegalArgumentException("Geçersiz saat aralığı");
+        if (doctorId != null) branch = null;
+
+        String sql = """
+            INSERT INTO schedule_exceptions (doctor_id,branch,date_from,date_to,time_from,time_to,kind,description)
+            VALUES (?,?,?,?,?,?,?,?)
+        """;
+        try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            if (doctorId == null) ps.setNull(1, Types.INTEGER); else ps.setInt(1, doctorId);
+            ps.setString(2, branch);
+            ps.setDate(3, Date.valueOf(from));
+            ps.setDate(4, Date.valueOf(to));
+            if (timeFrom == null) ps.setNull(5, Types.TIME); else ps.setTime(5, Time.valueOf(timeFrom));
+            if (timeTo == null) ps.setNull(6, Types.TIME); else ps.setTime(6, Time.valueOf(timeTo));
+            ps.setString(7, kind.name());
+            ps.setString(8, description);
+            ps.executeUpdate();
+            ExceptionCalendar.getInstance().invalidate();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                keys.next();
+                return new ScheduleException(keys.getInt(1), doctorId, branch, from, to, timeFrom, timeTo, kind, description);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // doctorId verilirse yalnızca o doktorun kendi kaydı silinir
+    public boolean delete(int id, Integer doctorId) {
+        String sql = doctorId == null
+                ? "DELETE FROM schedule_exceptions WHERE id=?"
+                : "DELETE FROM schedule_exceptions WHERE id=? AND doctor_id=?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, id);
+            if (doctorId != null) ps.setInt(2, doctorId);
+            boolean deleted = ps.executeUpdate() > 0;
+            if (deleted) ExceptionCalendar.getInstance().invalidate();
+            return deleted;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public List<ScheduleException> getActive(LocalDate from) {
+        return query("SELECT " + COLUMNS + " FROM schedule_exceptions WHERE date_to >= ? ORDER BY date_from", from, null);
+    }
+
+    public List<ScheduleException> getByDoctor(int doctorId, LocalDate from) {
+        return query("SELECT " + COLUMNS + " FROM schedule_exceptions WHERE date_to >= ? AND doctor_id=? ORDER BY date_from",
+                from, doctorId);
+    }
+
+    public Map<Integer, String> getDoctorBranches() {
+        Map<Integer, String> map = new HashMap<>();
+        try (PreparedStatement ps = conn.prepareStatement("SELECT user_id, branch FROM doctors");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) map.put(rs.getInt(1), rs.getString(2));
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return map;
+    }
+
+    // İzin girilirken o aralıkta kalan, ayrıca ele alınması gereken AKTIF randevular
+    public int countActiveAppointments(int doctorId, LocalDate from, LocalDate to, LocalTime timeFrom, LocalTime timeTo) {
+        String sql = """
+            SELECT COUNT(*) FROM appointments
+            WHERE doctor_id=? AND date BETWEEN ? AND ? AND state_code=?
+        """ + (timeFrom == null ? "" : " AND time >= ? AND time < ?");
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, doctorId);
+            ps.setDate(2, Date.valueOf(from));
+            ps.setDate(3, Date.valueOf(to));
+            ps.setInt(4, AppointmentState.AKTIF.getCode());
+            if (timeFrom != null) {
+                ps.setTime(5, Time.valueOf(timeFrom));
+                ps.setTime(6, Time.valueOf(timeTo));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private List<ScheduleException> query(String sql, LocalDate from, Integer doctor) {
+        List<ScheduleException> list = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setDate(1, Date.valueOf(from));
+            if (doctor != null) ps.setInt(2, doctor);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    int d = rs.getInt(2);
+                    Integer doctorId = rs.wasNull() ? null : d;
+                    Time tf = rs.getTime(6);
+                    Time tt = rs.getTime(7);
+                    list.add(new ScheduleException(
+                            rs.getInt(1),
+                            doctorId,
+                            rs.getString(3),
+                            rs.getDate(4).toLocalDate(),
+                            rs.getDate(5).toLocalDate(),
+                            tf == null ? null : tf.toLocalTime(),
+                            tt == null ? null : tt.toLocalTime(),
+                            ScheduleException.Kind.valueOf(rs.getString(8)),
+                            rs.getString(9)));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,161 @@
+package dao;
+
+import db.DatabaseManager;
+import db.ShardRouter;
+import model.Appointment;
+import model.ExamRecord;
+import model.PrescriptionLine;
+import slot.SlotKey;
+import state.AppointmentState;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * AppointmentDAO çağrılarını ilgili parçaya yönlendirir (bkz. ShardRouter). Randevu, slot ve muayene işlemleri
+ * doktorun ya da randevunun kimliğinden bulunan tek parçada çalışır. Hasta geçmişi bütün parçalara paralel sorulup
+ * tarih / saate göre birleştirilir. "Hasta aynı gün tek randevu" kuralı diğer parçalara yazmadan önce sorulur;
+ * iki parçaya aynı anda gelen istekler arasındaki yarış bu denetimle kapanmaz.
+ *
+ * Verilen bağlantı homeShard'a aittir ve o parçadaki çağrılarda kullanılır; diğer parçalar için havuzdan bağlantı
+ * ödünç alınır. Tek parçalı kurulumda bütün çağrılar verilen bağlantıda, AppointmentDAO'daki gibi çalışır.
+ */
+public class ShardedAppointmentDAO {
+
+    // Satırlarda tarih yyyy-MM-dd, saat HH:mm olduğundan metin sırası zaman sırasıdır
+    private static final Comparator<String[]> BY_SLOT =
+            Comparator.<String[], String>comparing(r -> r[3]).thenComparing(r -> r[4]);
+
+    private final ShardRouter router = DatabaseManager.getInstance().getRouter();
+    private final int homeShard;
+    private final Connection home;
+
+    public ShardedAppointmentDAO() {
+        this(0, DatabaseManager.getInstance().getConnection());
+    }
+
+    public ShardedAppointmentDAO(int homeShard, Connection home) {
+        this.homeShard = homeShard;
+        this.home = home;
+    }
+
+    private <T> T at(int shard, ShardRouter.Work<T> work) {
+        if (shard != homeShard || home == null) return router.on(shard, work);
+        try {
+            return work.run(home);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private <T> List<T> all(ShardRouter.Work<T> work) {
+        return router.size() == 1 ? List.of(at(0, work)) : router.scatter(work);
+    }
+
+    // Randevunun kendi parçasındaki denetimi AppointmentDAO yapar; burada yalnızca diğer parçalara bakılır
+    private void checkSameDayElsewhere(int shard, int patientId, LocalDate date, String message) {
+        if (router.size() == 1) return;
+        if (router.scatterOthers(shard, c -> new AppointmentDAO(c).hasPatientAppointmentSameDay(patientId, date))
+                .contains(true)) throw new RuleViolationException(message);
+    }
+
+    public boolean isSlotTaken(int doctorId, int slot) {
+        return at(router.ofId(doctorId), c -> new AppointmentDAO(c).isSlotTaken(doctorId, slot));
+    }
+
+    public int[] getFreeSlots(int doctorId, LocalDate date) {
+        return at(router.ofId(doctorId), c -> new AppointmentDAO(c).getFreeSlots(doctorId, date));
+    }
+
+    public int[] getFreeSlots(int doctorId, LocalDate date, int viewerId) {
+        return at(router.ofId(doctorId), c -> new AppointmentDAO(c).getFreeSlots(doctorId, date, viewerId));
+    }
+
+    public boolean hasPatientAppointmentSameDay(int patientId, LocalDate date) {
+        return all(c -> new AppointmentDAO(c).hasPatientAppointmentSameDay(patientId, date)).contains(true);
+    }
+
+    public Appointment create(int patientId, int doctorId, int slot) {
+        int shard = router.ofId(doctorId);
+        checkSameDayElsewhere(shard, patientId, SlotKey.date(slot), "Hasta aynı gün birden fazla randevu alamaz");
+        return at(shard, c -> new AppointmentDAO(c).create(patientId, doctorId, slot));
+    }
+
+    public void cancelByPatient(int appointmentId, int patientId) {
+        at(router.ofId(appointmentId), c -> {
+            new AppointmentDAO(c).cancelByPatient(appointmentId, patientId);
+            return null;
+        });
+    }
+
+    public UpdateResult<Appointment> rescheduleByPatient(
+            int appointmentId, int patientId, int doctorId,
+            int newSlot, int expectedVersion) {
+        int shard = router.ofId(appointmentId);
+        checkSameDayElsewhere(shard, patientId, SlotKey.date(newSlot), "Hasta aynı gün başka randevuya sahip");
+        return at(shard, c -> new AppointmentDAO(c)
+                .rescheduleByPatient(appointmentId, patientId, doctorId, newSlot, expectedVersion));
+    }
+
+    public UpdateResult<Appointment> updateStateByDoctor(
+            int appointmentId, int doctorId, AppointmentState newState, int expectedVersion) {
+        return at(router.ofId(appointmentId), c -> new AppointmentDAO(c)
+                .updateStateByDoctor(appointmentId, doctorId, newState, expectedVersion));
+    }
+
+    public UpdateResult<ExamRecord> saveExam(int appointmentId, int doctorId, String note, String prescription,
+                                             List<PrescriptionLine> lines, int expectedVersion) {
+        return at(router.ofId(appointmentId), c -> new AppointmentDAO(c)
+                .saveExam(appointmentId, doctorId, note, prescription, lines, expectedVersion));
+    }
+
+    public Appointment findById(int appointmentId) {
+        return at(router.ofId(appointmentId), c -> new AppointmentDAO(c).findById(appointmentId));
+    }
+
+    public List<Appointment> getActiveFrom(LocalDate from) {
+        List<Appointment> out = new ArrayList<>();
+        for (List<Appointment> part : all(c -> new AppointmentDAO(c).getActiveFrom(from))) out.addAll(part);
+        return out;
+    }
+
+    public ExamRecord findExam(int appointmentId, int doctorId) {
+        return at(router.ofId(appointmentId), c -> new AppointmentDAO(c).findExam(appointmentId, doctorId));
+    }
+
+    public List<PrescriptionLine> getPrescriptionLines(int appointmentId) {
+        return at(router.ofId(appointmentId), c -> new AppointmentDAO(c).getPrescriptionLines(appointmentId));
+    }
+
+    // Doktorun bütün randevuları doktorun parçasında
+    public Map<Integer, ExamRecord> findExams(Collection<Integer> appointmentIds, int doctorId) {
+        return at(router.ofId(doctorId), c -> new AppointmentDAO(c).findExams(appointmentIds, doctorId));
+    }
+
+    public List<String[]> getByPatient(int patientId) {
+        if (router.size() == 1) return at(0, c -> new AppointmentDAO(c).getByPatient(patientId));
+        return merge(router.scatter(c -> new AppointmentDAO(c).getByPatient(patientId)), BY_SLOT.reversed());
+    }
+
+    public List<String[]> getByDoctorBetween(int doctorId, LocalDate from, LocalDate to) {
+        return at(router.ofId(doctorId), c -> new AppointmentDAO(c).getByDoctorBetween(doctorId, from, to));
+    }
+
+    public List<String[]> getByPatientBetween(int patientId, LocalDate from, LocalDate to) {
+        if (router.size() == 1) return at(0, c -> new AppointmentDAO(c).getByPatientBetween(patientId, from, to));
+        return merge(router.scatter(c -> new AppointmentDAO(c).getByPatientBetween(patientId, from, to)), BY_SLOT);
+    }
+
+    private static List<String[]> merge(List<List<String[]>> parts, Comparator<String[]> order) {
+        List<String[]> out = new ArrayList<>();
+        for (List<String[]> part : parts) out.addAll(part);
+        out.sort(order);
+        return out;
+    }
+}
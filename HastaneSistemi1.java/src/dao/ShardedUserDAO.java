@@ -0,0 +1,163 @@
+package dao;
+
+import db.DatabaseManager;
+import db.ShardRouter;
+import model.Doctor;
+import model.User;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * UserDAO çağrılarını ilgili parçaya yönlendirir (bkz. ShardRouter). Hastalar her parçada bulunduğundan hasta
+ * okumaları birincilde, doktorunkiler doktorun parçasında yapılır; doktor arama ve branş listeleri bütün parçalara
+ * paralel sorulup birleştirilir. Hasta kaydı ve profil güncellemesi her parçaya yazılır; yazımlar parçalar arasında
+ * tek transaction değildir, yarıda kalan kopya bir sonraki güncellemede düzelir.
+ *
+ * Verilen bağlantı homeShard'a aittir ve o parçadaki çağrılarda kullanılır; diğer parçalar için havuzdan bağlantı
+ * ödünç alınır. Tek parçalı kurulumda bütün çağrılar verilen bağlantıda, UserDAO'daki gibi çalışır.
+ */
+public class ShardedUserDAO {
+
+    private static final Comparator<Doctor> BY_NAME =
+            Comparator.comparing(Doctor::getName).thenComparing(Doctor::getSurname);
+
+    private final ShardRouter router = DatabaseManager.getInstance().getRouter();
+    private final int homeShard;
+    private final Connection home;
+
+    public ShardedUserDAO() {
+        this(0, DatabaseManager.getInstance().getConnection());
+    }
+
+    public ShardedUserDAO(int homeShard, Connection home) {
+        this.homeShard = homeShard;
+        this.home = home;
+    }
+
+    private <T> T at(int shard, ShardRouter.Work<T> work) {
+        if (shard != homeShard || home == null) return router.on(shard, work);
+        try {
+            return work.run(home);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private <T> List<T> all(ShardRouter.Work<T> work) {
+        return router.size() == 1 ? List.of(at(0, work)) : router.scatter(work);
+    }
+
+    // Hastalar ve eski doktorlar birincil parçada bulunur; bulunamazsa diğer parçalara sorulur
+    public User login(String username, String password) {
+        User u = at(0, c -> new UserDAO(c).login(username, password));
+        if (u != null || router.size() == 1) return u;
+        for (User found : router.scatter(c -> new UserDAO(c).login(username, password))) {
+            if (found != null) return found;
+        }
+        return null;
+    }
+
+    public boolean registerPatient(String name, String surname, String tc, String username, String password,
+                                   String contactInfo) {
+        if (router.size() == 1) return at(0, c -> new UserDAO(c).registerPatient(name, surname, tc, username, password, contactInfo));
+        if (router.scatter(c -> new UserDAO(c).isTaken(tc, username)).contains(true)) return false;
+        int id = at(0, c -> new UserDAO(c).insertPatient(name, surname, tc, username, password, contactInfo));
+        if (id < 0) return false;
+        at(0, c -> {
+            UserDAO source = new UserDAO(c);
+            for (int i = 1; i < router.size(); i++) {
+                int shard = i;
+                router.on(shard, target -> {
+                    source.copyPatientTo(id, target);
+                    return null;
+                });
+            }
+            return null;
+        });
+        return true;
+    }
+
+    public Doctor getDoctorByUserId(int userId) {
+        return at(router.ofId(userId), c -> new UserDAO(c).getDoctorByUserId(userId));
+    }
+
+    public List<String> getAllBranches() {
+        if (router.size() == 1) return at(0, c -> new UserDAO(c).getAllBranches());
+        TreeSet<String> branches = new TreeSet<>();
+        for (List<String> part : router.scatter(c -> new UserDAO(c).getAllBranches())) branches.addAll(part);
+        return new ArrayList<>(branches);
+    }
+
+    public List<Doctor> searchDoctors(String q) {
+        if (router.size() == 1) return at(0, c -> new UserDAO(c).searchDoctors(q));
+        return merge(router.scatter(c -> new UserDAO(c).searchDoctors(q)));
+    }
+
+    public List<Doctor> getDoctorsByBranch(String branch) {
+        if (router.size() == 1) return at(0, c -> new UserDAO(c).getDoctorsByBranch(branch));
+        return merge(router.scatter(c -> new UserDAO(c).getDoctorsByBranch(branch)));
+    }
+
+    public List<String[]> searchPatientsByTcOrName(String q) {
+        return at(0, c -> new UserDAO(c).searchPatientsByTcOrName(q));
+    }
+
+    public String getContactInfo(int userId) {
+        return at(router.ofId(userId), c -> new UserDAO(c).getContactInfo(userId));
+    }
+
+    public String getPassword(int userId) {
+        return at(router.ofId(userId), c -> new UserDAO(c).getPassword(userId));
+    }
+
+    // Hasta her parçada kopyalı; doktor satırı yalnızca kendi parçasında olduğundan diğerlerinde güncelleme boşa düşer
+    public void updateContactInfoAndPassword(int userId, String contactInfo, String newPassword) {
+        if (router.size() == 1 || router.ofId(userId) != 0) {
+            at(router.ofId(userId), c -> {
+                new UserDAO(c).updateContactInfoAndPassword(userId, contactInfo, newPassword);
+                return null;
+            });
+            return;
+        }
+        router.scatter(c -> {
+            new UserDAO(c).updateContactInfoAndPassword(userId, contactInfo, newPassword);
+            return null;
+        });
+    }
+
+    public void updateDoctorWorkingHours(int doctorUserId, String hours) {
+        at(router.ofId(doctorUserId), c -> {
+            new UserDAO(c).updateDoctorWorkingHours(doctorUserId, hours);
+            return null;
+        });
+    }
+
+    // [toplam doktor sayısı, parçalardaki en yeni ref_updated_at (ms)]
+    public long[] getDoctorStamp() {
+        long[] total = new long[2];
+        for (long[] s : all(c -> new UserDAO(c).getDoctorStamp())) {
+            total[0] += s[0];
+            total[1] = Math.max(total[1], s[1]);
+        }
+        return total;
+    }
+
+    public List<Doctor> getDoctorsUpdatedSince(Timestamp since) {
+        List<Doctor> out = new ArrayList<>();
+        for (List<Doctor> part : all(c -> new UserDAO(c).getDoctorsUpdatedSince(since))) out.addAll(part);
+        return out;
+    }
+
+    private static List<Doctor> merge(List<List<Doctor>> parts) {
+        List<Doctor> out = new ArrayList<>();
+        for (List<Doctor> part : parts) out.addAll(part);
+        out.sort(BY_NAME);
+        return out;
+    }
+}
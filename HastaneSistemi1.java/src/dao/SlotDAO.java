@@ -0,0 +1,484 @@
+package dao;
+
+import calendar.ExceptionCalendar;
+import db.DatabaseManager;
+import db.DbConfig;
+import db.Dialect;
+import slot.SlotKey;
+import state.AppointmentState;
+import strategy.HourlyWorkingHourStrategy;
+import strategy.WorkingHourStrategy;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Doktor başına somut slot satırları (slots) ve bunların hangi tarihe kadar üretildiği (slot_horizon).
+ * Randevu almak boş slot satırını koşullu UPDATE ile sahiplenmek, iptal etmek onu bırakmaktır; bir günün
+ * boş saatleri (doctor_id, date) birincil anahtar aralığında tek taramadır. İzin ve tatiller slot satırlarını
+ * silmez; boş saatler takvim istisnalarına göre süzülür. Hasta bir saati seçtiğinde slot kısa süreliğine
+ * onun adına tutulur (held_by, held_until); süresi geçmiş tutma boş sayılır.
+ */
+public class SlotDAO {
+
+    private static final String SLOT_COLUMNS = "doctor_id,date,time";
+    private static final int MAX_AHEAD_DAYS = 365;
+
+    // Bu JVM'in bildiği üretim ufku; yalnızca alt sınırdır, başka istemci daha ileri üretmiş olabilir
+    private static final Map<Integer, LocalDate> knownHorizon = new ConcurrentHashMap<>();
+
+    private final Connection conn;
+    private final Dialect dialect = DbConfig.getInstance().getDialect();
+    private final ExceptionCalendar calendar = ExceptionCalendar.getInstance();
+    private final WorkingHourStrategy workingHourStrategy = new HourlyWorkingHourStrategy();
+    private final int horizonDays = Integer.getInteger("slots.horizonDays", 60);
+
+    public SlotDAO() {
+        this(DatabaseManager.getInstance().getConnection());
+    }
+
+    public SlotDAO(Connection conn) {
+        this.conn = conn;
+    }
+
+    public int[] getFreeSlots(int doctorId, LocalDate date) {
+        return getFreeSlots(doctorId, date, 0);
+    }
+
+    // Günün boş slot anahtarları (SlotKey), sıralı. Başka hastanın süresi dolmamış tutması olan saatler görünmez;
+    // izleyenin kendi tuttuğu saat görünür.
+    public int[] getFreeSlots(int doctorId, LocalDate date, int viewerId) {
+        if (beyondLimit(date)) return new int[0];
+        ensureCovered(doctorId, date);
+        int base = SlotKey.of(date, 0);
+        int[] slots = new int[24];
+        int n = 0;
+        String sql = """
+            SELECT %s FROM slots
+            WHERE doctor_id=? AND date=? AND appointment_id IS NULL
+              AND (held_by IS NULL OR held_by=? OR held_until<?)
+            ORDER BY time
+        """.formatted(dialect.minuteOfDay("time"));
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, doctorId);
+            ps.setDate(2, Date.valueOf(date));
+            ps.setInt(3, viewerId);
+            ps.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (n == slots.length) slots = Arrays.copyOf(slots, n * 2);
+                    slots[n++] = base + rs.getInt(1);
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return calendar.filter(doctorId, date, Arrays.copyOf(slots, n));
+    }
+
+    public boolean isFree(int doctorId, int slot) {
+        if (beyondLimit(SlotKey.date(slot)) || calendar.isBlocked(doctorId, slot)) return false;
+        ensureCovered(doctorId, SlotKey.date(slot));
+        String sql = """
+            SELECT 1 FROM slots
+            WHERE doctor_id=? AND date=? AND time=? AND appointment_id IS NULL
+              AND (held_by IS NULL OR held_until<?)
+        """;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, doctorId);
+            bindSlot(ps, 2, slot);
+            ps.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // Boş ama başka bir hasta tarafından süresi dolmamış şekilde tutulan slot
+    public boolean isHeldByOther(int doctorId, int slot, int patientId) throws SQLException {
+        String sql = """
+            SELECT 1 FROM slots
+            WHERE doctor_id=? AND date=? AND time=? AND appointment_id IS NULL
+              AND held_by IS NOT NULL AND held_by<>? AND held_until>=?
+        """;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, doctorId);
+            bindSlot(ps, 2, slot);
+            ps.setInt(4, patientId);
+            ps.setTimestamp(5, new Timestamp(System.currentTimeMillis()));
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    public boolean exists(int doctorId, int slot) throws SQLException {
+        String sql = "SELECT 1 FROM slots WHERE doctor_id=? AND date=? AND time=?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, doctorId);
+            bindSlot(ps, 2, slot);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    // Çağıran transaction içindeyse onun parçası olur; false dönerse slot dolu, başkasınca tutuluyor ya da yok.
+    // Hastanın kendi tutması aynı UPDATE ile randevuya dönüşür.
+    public boolean claim(int doctorId, int slot, int appointmentId, int patientId) throws SQLException {
+        String sql = """
+            UPDATE slots SET appointment_id=?, patient_id=?, held_by=NULL, held_until=NULL
+            WHERE doctor_id=? AND date=? AND time=? AND appointment_id IS NULL
+              AND (held_by IS NULL OR held_by=? OR held_until<?)
+        """;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, appointmentId);
+            ps.setInt(2, patientId);
+            ps.setInt(3, doctorId);
+            bindSlot(ps, 4, slot);
+            ps.setInt(6, patientId);
+            ps.setTimestamp(7, new Timestamp(System.currentTimeMillis()));
+            return ps.executeUpdate() == 1;
+        }
+    }
+
+    // Randevunun slotunu tek UPDATE ile taşır: eski satır bırakılır, yeni saat sahiplenilir; aynı saate taşımada satır
+    // sahipli kalır. Çağıranın transaction'ında çalışmalı, false dönerse yeni saat alınamamıştır ve çağıran geri almalıdır.
+    // Eski saat artık çalışma saatlerinde değilse satırı release'deki gibi silinir.
+    public boolean move(int appointmentId, int patientId, int doctorId, int oldSlot, int newSlot, String workingHours)
+            throws SQLException {
+        if (oldSlot != newSlot && !contains(workingHourStrategy.generate(workingHours), SlotKey.minute(oldSlot))) {
+            try (PreparedStatement ps = conn.prepareStatement("DELETE FROM slots WHERE appointment_id=?")) {
+                ps.setInt(1, appointmentId);
+                ps.executeUpdate();
+            }
+        }
+        String sql = """
+            UPDATE slots
+            SET patient_id=CASE WHEN date=? AND time=? THEN ? END,
+                appointment_id=CASE WHEN date=? AND time=? THEN ? END,
+                held_by=NULL, held_until=NULL
+            WHERE doctor_id=? AND (appointment_id=?
+               OR (date=? AND time=? AND appointment_id IS NULL AND (held_by IS NULL OR held_by=? OR held_until<?)))
+        """;
+        int changed;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            bindSlot(ps, 1, newSlot);
+            ps.setInt(3, patientId);
+            bindSlot(ps, 4, newSlot);
+            ps.setInt(6, appointmentId);
+            ps.setInt(7, doctorId);
+            ps.setInt(8, appointmentId);
+            bindSlot(ps, 9, newSlot);
+            ps.setInt(11, patientId);
+            ps.setTimestamp(12, new Timestamp(System.currentTimeMillis()));
+            changed = ps.executeUpdate();
+        }
+        if (changed == 2) return true;
+        // Tek satır: aynı saat, eski satırı olmayan randevu ya da yalnızca bırakma; hangisi olduğuna bakılır
+        return changed == 1 && isClaimedBy(appointmentId, doctorId, newSlot);
+    }
+
+    private boolean isClaimedBy(int appointmentId, int doctorId, int slot) throws SQLException {
+        String sql = "SELECT 1 FROM slots WHERE doctor_id=? AND date=? AND time=? AND appointment_id=?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, doctorId);
+            bindSlot(ps, 2, slot);
+            ps.setInt(4, appointmentId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    // Hasta aynı anda tek saat tutar: önceki tutması bırakılır. false: saat bu arada alınmış ya da başkasınca tutuluyor
+    public boolean hold(int doctorId, int slot, int patientId, long untilMs) throws SQLException {
+        releaseHolds(patientId);
+        String sql = """
+            UPDATE slots SET held_by=?, held_until=?
+            WHERE doctor_id=? AND date=? AND time=? AND appointment_id IS NULL
+              AND (held_by IS NULL OR held_by=? OR held_until<?)
+        """;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, patientId);
+            ps.setTimestamp(2, new Timestamp(untilMs));
+            ps.setInt(3, doctorId);
+            bindSlot(ps, 4, slot);
+            ps.setInt(6, patientId);
+            ps.setTimestamp(7, new Timestamp(System.currentTimeMillis()));
+            return ps.executeUpdate() == 1;
+        }
+    }
+
+    public void releaseHolds(int patientId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "UPDATE slots SET held_by=NULL, held_until=NULL WHERE held_by=?")) {
+            ps.setInt(1, patientId);
+            ps.executeUpdate();
+        }
+    }
+
+    // Süresi dolan tutma; bu arada yenilenmişse (held_until ileri alınmışsa) dokunulmaz
+    public void expireHold(int doctorId, int slot, int patientId) throws SQLException {
+        String sql = """
+            UPDATE slots SET held_by=NULL, held_until=NULL
+            WHERE doctor_id=? AND date=? AND time=? AND held_by=? AND held_until<=?
+        """;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, doctorId);
+            bindSlot(ps, 2, slot);
+            ps.setInt(4, patientId);
+            ps.setTimestamp(5, new Timestamp(System.currentTimeMillis()));
+            ps.executeUpdate();
+        }
+    }
+
+    // Saat artık doktorun çalışma saatleri içinde değilse (saatler randevudan sonra değişmiş) slot yeniden açılmaz, silinir
+    public void release(int appointmentId) throws SQLException {
+        int doctorId, minute;
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT doctor_id,%s FROM slots WHERE appointment_id=?".formatted(dialect.minuteOfDay("time")))) {
+            ps.setInt(1, appointmentId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return;
+                doctorId = rs.getInt(1);
+                minute = rs.getInt(2);
+            }
+        }
+        boolean onSchedule = contains(workingHourStrategy.generate(workingHoursOf(doctorId)), minute);
+        String sql = onSchedule
+                ? "UPDATE slots SET appointment_id=NULL, patient_id=NULL WHERE appointment_id=?"
+                : "DELETE FROM slots WHERE appointment_id=?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, appointmentId);
+            ps.executeUpdate();
+        }
+    }
+
+    // Tarih üretim ufkunun ötesindeyse ufku o tarihe (en az horizonDays) kadar uzatır. MAX_AHEAD_DAYS'ten ileri
+    // tarihler için slot üretilmez; sessizce geçilirse randevu "saat dolu" gibi yanıltıcı bir hatayla düşerdi.
+    public void ensureCovered(int doctorId, LocalDate date) {
+        LocalDate today = LocalDate.now();
+        if (beyondLimit(date))
+            throw new IllegalArgumentException("Randevu en fazla " + MAX_AHEAD_DAYS + " gün sonrası için alınabilir");
+        if (date.isBefore(today)) return;
+        LocalDate known = knownHorizon.get(doctorId);
+        if (known != null && !known.isBefore(date)) return;
+
+        LocalDate target = today.plusDays(horizonDays);
+        extendHorizon(doctorId, date.isAfter(target) ? date : target);
+    }
+
+    public void extendHorizon(int doctorId, LocalDate through) {
+        try {
+            String hours = workingHoursOf(doctorId);
+            String[] horizon = readHorizon(doctorId);
+            LocalDate today = LocalDate.now();
+            LocalDate from = today;
+
+            if (horizon != null) {
+                LocalDate generated = LocalDate.parse(horizon[0]);
+                if (!same(horizon[1], hours)) regenerate(doctorId, horizon[1], hours, generated);
+                if (!generated.isBefore(through)) {
+                    knownHorizon.merge(doctorId, generated, (a, b) -> a.isAfter(b) ? a : b);
+                    return;
+                }
+                if (!generated.isBefore(from)) from = generated.plusDays(1);
+            }
+
+            int[] times = workingHourStrategy.generate(hours);
+            try (PreparedStatement ps = conn.prepareStatement(dialect.insertIgnore("slots", SLOT_COLUMNS, SLOT_COLUMNS))) {
+                for (LocalDate d = from; !d.isAfter(through); d = d.plusDays(1)) {
+                    Date day = Date.valueOf(d);
+                    for (int t : times) addSlot(ps, doctorId, day, t);
+                }
+                ps.executeBatch();
+            }
+            claimExisting(doctorId, from, through);
+            saveHorizon(doctorId, through, hours, horizon == null);
+            knownHorizon.merge(doctorId, through, (a, b) -> a.isAfter(b) ? a : b);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // Çalışma saatleri değişince yalnızca farkı uygular: düşen saatlerin boş slotları silinir, yeni saatler eklenir.
+    // Dolu slotlara dokunulmaz; mevcut randevular yeni düzende de geçerli kalır.
+    public void regenerate(int doctorId, String newHours) {
+        try {
+            String[] horizon = readHorizon(doctorId);
+            if (horizon == null) return;
+            regenerate(doctorId, horizon[1], newHours, LocalDate.parse(horizon[0]));
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void regenerate(int doctorId, String oldHours, String newHours, LocalDate through) throws SQLException {
+        int[] before = workingHourStrategy.generate(oldHours);
+        int[] after = workingHourStrategy.generate(newHours);
+        int[] removed = Arrays.stream(before).filter(t -> !contains(after, t)).distinct().toArray();
+        int[] added = Arrays.stream(after).filter(t -> !contains(before, t)).distinct().toArray();
+        LocalDate today = LocalDate.now();
+
+        if (removed.length > 0) {
+            String in = String.join(",", Collections.nCopies(removed.length, "?"));
+            String sql = "DELETE FROM slots WHERE doctor_id=? AND date>=? AND appointment_id IS NULL AND time IN (" + in + ")";
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setInt(1, doctorId);
+                ps.setDate(2, Date.valueOf(today));
+                int i = 3;
+                for (int t : removed) ps.setTime(i++, SlotKey.sqlTime(t));
+                ps.executeUpdate();
+            }
+        }
+        if (added.length > 0) {
+            try (PreparedStatement ps = conn.prepareStatement(dialect.insertIgnore("slots", SLOT_COLUMNS, SLOT_COLUMNS))) {
+                for (LocalDate d = today; !d.isAfter(through); d = d.plusDays(1)) {
+                    Date day = Date.valueOf(d);
+                    for (int t : added) addSlot(ps, doctorId, day, t);
+                }
+                ps.executeBatch();
+            }
+        }
+        try (PreparedStatement ps = conn.prepareStatement("UPDATE slot_horizon SET working_hours=? WHERE doctor_id=?")) {
+            ps.setString(1, newHours);
+            ps.setInt(2, doctorId);
+            ps.executeUpdate();
+        }
+    }
+
+    // Envanterden önce alınmış AKTIF randevuların slotlarını sahiplenir; çalışma saati dışındakiler için satır açar
+    private void claimExisting(int doctorId, LocalDate from, LocalDate through) throws SQLException {
+        String sql = """
+            SELECT id,patient_id,date,%s FROM appointments
+            WHERE doctor_id=? AND date BETWEEN ? AND ? AND state_code=?
+        """.formatted(dialect.minuteOfDay("time"));
+        // [id, hasta, slot anahtarı]
+        List<int[]> active = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, doctorId);
+            ps.setDate(2, Date.valueOf(from));
+            ps.setDate(3, Date.valueOf(through));
+            ps.setInt(4, AppointmentState.AKTIF.getCode());
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    active.add(new int[]{rs.getInt(1), rs.getInt(2), SlotKey.of(rs.getDate(3).toLocalDate(), rs.getInt(4))});
+                }
+            }
+        }
+        if (active.isEmpty()) return;
+
+        try (PreparedStatement insert = conn.prepareStatement(dialect.insertIgnore("slots", SLOT_COLUMNS, SLOT_COLUMNS));
+             PreparedStatement claim = conn.prepareStatement("""
+                 UPDATE slots SET appointment_id=?, patient_id=?
+                 WHERE doctor_id=? AND date=? AND time=? AND appointment_id IS NULL
+             """)) {
+            for (int[] a : active) {
+                Date day = SlotKey.sqlDate(a[2]);
+                addSlot(insert, doctorId, day, SlotKey.minute(a[2]));
+                claim.setInt(1, a[0]);
+                claim.setInt(2, a[1]);
+                claim.setInt(3, doctorId);
+                claim.setDate(4, day);
+                claim.setTime(5, SlotKey.sqlTime(SlotKey.minute(a[2])));
+                claim.addBatch();
+            }
+            insert.executeBatch();
+            claim.executeBatch();
+        }
+    }
+
+    private void addSlot(PreparedStatement ps, int doctorId, Date day, int minute) throws SQLException {
+        ps.setInt(1, doctorId);
+        ps.setDate(2, day);
+        ps.setTime(3, SlotKey.sqlTime(minute));
+        ps.addBatch();
+    }
+
+    // (date, time) parametrelerini index ve index+1'e bağlar
+    private static void bindSlot(PreparedStatement ps, int index, int slot) throws SQLException {
+        ps.setDate(index, SlotKey.sqlDate(slot));
+        ps.setTime(index + 1, SlotKey.sqlTime(SlotKey.minute(slot)));
+    }
+
+    private static boolean beyondLimit(LocalDate date) {
+        return date.isAfter(LocalDate.now().plusDays(MAX_AHEAD_DAYS));
+    }
+
+    private static boolean contains(int[] minutes, int minute) {
+        for (int m : minutes) if (m == minute) return true;
+        return false;
+    }
+
+    public int purgeBefore(LocalDate date) {
+        try (PreparedStatement ps = conn.prepareStatement("DELETE FROM slots WHERE date < ?")) {
+            ps.setDate(1, Date.valueOf(date));
+            return ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public List<Integer> getDoctorIds() {
+        List<Integer> ids = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement("SELECT user_id FROM doctors");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) ids.add(rs.getInt(1));
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return ids;
+    }
+
+    private String workingHoursOf(int doctorId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT working_hours FROM doctors WHERE user_id=?")) {
+            ps.setInt(1, doctorId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    // [generated_through, working_hours] ya da null
+    private String[] readHorizon(int doctorId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT generated_through, working_hours FROM slot_horizon WHERE doctor_id=?")) {
+            ps.setInt(1, doctorId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? new String[]{rs.getDate(1).toLocalDate().toString(), rs.getString(2)} : null;
+            }
+        }
+    }
+
+    private void saveHorizon(int doctorId, LocalDate through, String hours, boolean insert) throws SQLException {
+        if (insert) {
+            try (PreparedStatement ps = conn.prepareStatement(
+                    dialect.insertIgnore("slot_horizon", "doctor_id,generated_through,working_hours", "doctor_id"))) {
+                ps.setInt(1, doctorId);
+                ps.setDate(2, Date.valueOf(through));
+                ps.setString(3, hours);
+                ps.executeUpdate();
+            }
+        }
+        try (PreparedStatement ps = conn.prepareStatement(
+                "UPDATE slot_horizon SET generated_through=? WHERE doctor_id=? AND generated_through<?")) {
+            ps.setDate(1, Date.valueOf(through));
+            ps.setInt(2, doctorId);
+            ps.setDate(3, Date.valueOf(through));
+            ps.executeUpdate();
+        }
+    }
+
+    private static boolean same(String a, String b) {
+        return (a == null ? "" : a.trim()).equals(b == null ? "" : b.trim());
+    }
+}
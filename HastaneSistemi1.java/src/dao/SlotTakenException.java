@@ -0,0 +1,12 @@
+package dao;
+
+/**
+ * Seçilen saat başka bir randevuya ait ya da başka bir hasta için geçici olarak ayrılmış.
+ * API bunu 409 olarak döner; aynı saat için tekrar denemek sonucu değiştirmez.
+ */
+public class SlotTakenException extends RuntimeException {
+
+    public SlotTakenException(String message) {
+        super(message);
+    }
+}
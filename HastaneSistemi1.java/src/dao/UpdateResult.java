@@ -0,0 +1,38 @@
+package dao;
+
+/**
+ * Sürüm kontrollü bir güncellemenin sonucu. Çakışmada satırın güncel hâli de döner,
+ * böylece arayüz ayrıca okuma yapmadan birleştirip tekrar deneyebilir.
+ */
+public class UpdateResult<T> {
+
+    public enum Status { APPLIED, CONFLICT, NOT_FOUND }
+
+    private final Status status;
+    private final T current;
+    private final int version;
+
+    private UpdateResult(Status status, T current, int version) {
+        this.status = status;
+        this.current = current;
+        this.version = version;
+    }
+
+    public static <T> UpdateResult<T> applied(T current, int version) {
+        return new UpdateResult<>(Status.APPLIED, current, version);
+    }
+
+    public static <T> UpdateResult<T> conflict(T current, int version) {
+        return new UpdateResult<>(Status.CONFLICT, current, version);
+    }
+
+    public static <T> UpdateResult<T> notFound() {
+        return new UpdateResult<>(Status.NOT_FOUND, null, -1);
+    }
+
+    public Status getStatus() { return status; }
+    public boolean isApplied() { return status == Status.APPLIED; }
+    public boolean isConflict() { return status == Status.CONFLICT; }
+    public T getCurrent() { return current; }
+    public int getVersion() { return version; }
+}
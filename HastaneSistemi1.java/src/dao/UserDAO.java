@@ -4,6 +4,7 @@ import db.DatabaseManager;
 import factory.UserFactory;
 import model.Doctor;
 import model.User;
+import reference.ReferenceData;
 
 import java.sql.*;
 import java.util.ArrayList;
@@ -11,7 +12,15 @@ import java.util.List;
 
 public class UserDAO {
 
-    private final Connection conn = DatabaseManager.getInstance().getConnection();
+    private final Connection conn;
+
+    public UserDAO() {
+        this(DatabaseManager.getInstance().getConnection());
+    }
+
+    public UserDAO(Connection conn) {
+        this.conn = conn;
+    }
 
     public User login(String username, String password) {
         String sql = "SELECT id,name,surname,username,role,tc FROM users WHERE username=? AND password=?";
@@ -48,16 +57,21 @@ public class UserDAO {
             String username,
             String password,
             String contactInfo
+    ) {
+        return insertPatient(name, surname, tc, username, password, contactInfo) > 0;
+    }
+
+    // Yeni hastanın kimliği; TC ya da kullanıcı adı alınmışsa -1
+    public int insertPatient(
+            String name,
+            String surname,
+            String tc,
+            String username,
+            String password,
+            String contactInfo
     ) {
         try {
-            String check = "SELECT COUNT(*) FROM users WHERE tc=? OR username=?";
-            try (PreparedStatement cps = conn.prepareStatement(check)) {
-                cps.setString(1, tc);
-                cps.setString(2, username);
-                ResultSet crs = cps.executeQuery();
-                crs.next();
-                if (crs.getInt(1) > 0) return false;
-            }
+            if (isTaken(tc, username)) return -1;
 
             String insertUser =
                     "INSERT INTO users(name,surname,tc,username,password,role,contact_info) " +
@@ -80,14 +94,45 @@ public class UserDAO {
                     pps.setInt(1, userId);
                     pps.executeUpdate();
                 }
+                return userId;
             }
-            return true;
 
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
     }
 
+    public boolean isTaken(String tc, String username) {
+        String check = "SELECT COUNT(*) FROM users WHERE tc=? OR username=?";
+        try (PreparedStatement cps = conn.prepareStatement(check)) {
+            cps.setString(1, tc);
+            cps.setString(2, username);
+            ResultSet crs = cps.executeQuery();
+            crs.next();
+            return crs.getInt(1) > 0;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // Parçalı kurulumda birincil parçada açılan hasta diğer parçalara aynı kimlikle kopyalanır
+    public void copyPatientTo(int userId, Connection target) throws SQLException {
+        String select = "SELECT id,name,surname,tc,username,password,role,contact_info FROM users WHERE id=?";
+        String insert = "INSERT INTO users(id,name,surname,tc,username,password,role,contact_info) VALUES(?,?,?,?,?,?,?,?)";
+        try (PreparedStatement ps = conn.prepareStatement(select)) {
+            ps.setInt(1, userId);
+            ResultSet rs = ps.executeQuery();
+            if (!rs.next()) return;
+            try (PreparedStatement ins = target.prepareStatement(insert);
+                 PreparedStatement pps = target.prepareStatement("INSERT INTO patients(user_id) VALUES(?)")) {
+                for (int i = 1; i <= 8; i++) ins.setObject(i, rs.getObject(i));
+                ins.executeUpdate();
+                pps.setInt(1, userId);
+                pps.executeUpdate();
+            }
+        }
+    }
+
     public Doctor getDoctorByUserId(int userId) throws SQLException {
         String sql =
                 "SELECT u.id,u.name,u.surname,u.username,u.tc," +
@@ -215,14 +260,58 @@ public class UserDAO {
     }
 
     public void updateDoctorWorkingHours(int doctorUserId, String hours) {
-        try (PreparedStatement ps =
-                     conn.prepareStatement("UPDATE doctors SET working_hours=? WHERE user_id=?")) {
+        try (PreparedStatement ps = conn.prepareStatement(
+                "UPDATE doctors SET working_hours=?, ref_updated_at=CURRENT_TIMESTAMP WHERE user_id=?")) {
             ps.setString(1, hours);
             ps.setInt(2, doctorUserId);
             ps.executeUpdate();
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
+        new SlotDAO(conn).regenerate(doctorUserId, hours);
+        ReferenceData.getInstance().invalidate();
+    }
+
+    // Başvuru verisi kopyasının sürümü için: [doktor sayısı, en yeni ref_updated_at (ms)]
+    public long[] getDoctorStamp() {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT COUNT(*), MAX(ref_updated_at) FROM doctors");
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            Timestamp max = rs.getTimestamp(2);
+            return new long[]{rs.getLong(1), max == null ? 0 : max.getTime()};
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // since null ise bütün doktorlar
+    public List<Doctor> getDoctorsUpdatedSince(Timestamp since) {
+        List<Doctor> list = new ArrayList<>();
+        String sql =
+                "SELECT u.id,u.name,u.surname,u.username,u.tc," +
+                        "d.branch,d.polyclinic,d.working_hours " +
+                        "FROM users u JOIN doctors d ON u.id=d.user_id" +
+                        (since == null ? "" : " WHERE d.ref_updated_at >= ?");
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            if (since != null) ps.setTimestamp(1, since);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(new Doctor(
+                            rs.getInt("id"),
+                            rs.getString("name"),
+                            rs.getString("surname"),
+                            rs.getString("username"),
+                            rs.getString("tc"),
+                            rs.getString("branch"),
+                            rs.getString("polyclinic"),
+                            rs.getString("working_hours")
+                    ));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return list;
     }
 
     public List<Doctor> getDoctorsByBranch(String branch) {
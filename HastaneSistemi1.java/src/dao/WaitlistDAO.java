@@ -0,0 +1,121 @@
+package dao;
+
+import db.DatabaseManager;
+import model.WaitlistEntry;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class WaitlistDAO {
+
+    private final Connection conn;
+
+    public WaitlistDAO() {
+        this(DatabaseManager.getInstance().getConnection());
+    }
+
+    public WaitlistDAO(Connection conn) {
+        this.conn = conn;
+    }
+
+    public WaitlistEntry register(int patientId, Integer doctorId, String branch,
+                                  LocalDate from, LocalDate to, LocalTime timeFrom, LocalTime timeTo) {
+        if (doctorId == null && (branch == null || branch.isBlank()))
+            throw new IllegalArgumentException("Doktor veya branş seçilmeli");
+        if (to.isBefore(from) || !timeFrom.isBefore(timeTo))
+            throw new IllegalArgumentException("Geçersiz tarih/saat aralığı");
+
+        String sql = """
+            INSERT INTO waitlist (patient_id,doctor_id,branch,date_from,date_to,time_from,time_to,status)
+            VALUES (?,?,?,?,?,?,?,'WAITING')
+        """;
+        try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            ps.setInt(1, patientId);
+            if (doctorId == null) ps.setNull(2, Types.INTEGER); else ps.setInt(2, doctorId);
+            ps.setString(3, doctorId == null ? branch : null);
+            ps.setDate(4, Date.valueOf(from));
+            ps.setDate(5, Date.valueOf(to));
+            ps.setTime(6, Time.valueOf(timeFrom));
+            ps.setTime(7, Time.valueOf(timeTo));
+            ps.executeUpdate();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                keys.next();
+                return new WaitlistEntry(keys.getInt(1), patientId, doctorId, doctorId == null ? branch : null,
+                        from, to, timeFrom, timeTo);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public List<WaitlistEntry> getWaiting(LocalDate today) {
+        List<WaitlistEntry> list = new ArrayList<>();
+        String sql = """
+            SELECT id,patient_id,doctor_id,branch,date_from,date_to,time_from,time_to
+            FROM waitlist WHERE status='WAITING' AND date_to >= ?
+            ORDER BY id
+        """;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setDate(1, Date.valueOf(today));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    // wasNull son okunan sütuna bakar; doctor_id'den hemen sonra sorulmalı
+                    int doctorId = rs.getInt(3);
+                    Integer doctor = rs.wasNull() ? null : doctorId;
+                    list.add(new WaitlistEntry(
+                            rs.getInt(1),
+                            rs.getInt(2),
+                            doctor,
+                            rs.getString(4),
+                            rs.getDate(5).toLocalDate(),
+                            rs.getDate(6).toLocalDate(),
+                            rs.getTime(7).toLocalTime(),
+                            rs.getTime(8).toLocalTime()));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return list;
+    }
+
+    // Birden fazla istemci aynı boşalan slotu görebilir; kaydı yalnızca biri alabilir
+    public boolean claim(int entryId) {
+        return setStatus(entryId, "WAITING", "CLAIMED", null);
+    }
+
+    public void release(int entryId) {
+        setStatus(entryId, "CLAIMED", "WAITING", null);
+    }
+
+    public void fulfil(int entryId, Integer appointmentId) {
+        setStatus(entryId, "CLAIMED", "DONE", appointmentId);
+    }
+
+    public void cancel(int entryId, int patientId) {
+        String sql = "UPDATE waitlist SET status='CANCELLED' WHERE id=? AND patient_id=? AND status='WAITING'";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, entryId);
+            ps.setInt(2, patientId);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private boolean setStatus(int entryId, String from, String to, Integer appointmentId) {
+        String sql = "UPDATE waitlist SET status=?, appointment_id=? WHERE id=? AND status=?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, to);
+            if (appointmentId == null) ps.setNull(2, Types.INTEGER); else ps.setInt(2, appointmentId);
+            ps.setInt(3, entryId);
+            ps.setString(4, from);
+            return ps.executeUpdate() > 0;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,447 @@
+package dataset;
+
+import db.ConnectionPool;
+import db.DatabaseManager;
+import db.ShardRouter;
+import slot.SlotKey;
+import state.AppointmentState;
+import util.TurkishText;
+import util.WorkingHoursUtil;
+
+import java.sql.*;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Yük ve performans denemeleri için sentetik hastane verisi üretir: hastaneler ve branşlar altında doktorlar
+ * (farklı çalışma saatleriyle), geçerli TC numaralı hastalar ve geçmişten ileriye randevular. Randevu yoğunluğu
+ * mevsime (kış yoğun, yaz sakin; solunum ve çocuk branşlarında fark daha belirgin), haftanın gününe ve doktorun
+ * popülerliğine göre değişir; geçmiş randevular TAMAMLANDI / GELMEDI / IPTAL, ilerikiler AKTIF / IPTAL dağılır.
+ * Hafta sonları ve sabit tarihli resmi tatiller boştur. Aynı doktor-saate ve aynı hastaya aynı günde ikinci randevu
+ * verilmez.
+ *
+ * Her kayıt tohumdan ve kaydın kendi sırasından türetildiği için paralel yazma sırası sonucu değiştirmez:
+ * aynı başlangıç veritabanına aynı tohum ve -Dgen.today ile aynı kayıtlar (kimlikleri dahil) yazılır.
+ * Kayıtlar havuzdaki bağlantılarla, parça başına tek transaction ve gen.batchSize'lık batch'lerle yazılır.
+ * Parçalı kurulumda doktorlar branşlarının veritabanına kendi kimlik aralığından, randevular doktorun veritabanına
+ * yazılır; hastalar her veritabanına aynı kimlikle yazılır.
+ *
+ * Kullanım: java dataset.HospitalGenerator [tohum=42] [hastane=3] [doktor=2000] [hasta=300000] [geçmiş gün=365] [ileri gün=60]
+ *   -Dgen.threads (varsayılan havuz boyutu) -Dgen.batchSize=1000 -Dgen.occupancy=0.7 -Dgen.today=yyyy-MM-dd
+ */
+public class HospitalGenerator {
+
+    private static final String[] BRANCHES = {
+            "Dahiliye", "Çocuk Sağlığı ve Hastalıkları", "Kadın Hastalıkları ve Doğum", "Genel Cerrahi",
+            "Ortopedi", "Kardiyoloji", "Göz Hastalıkları", "Kulak Burun Boğaz", "Göğüs Hastalıkları", "Nöroloji",
+            "Dermatoloji", "Üroloji", "Psikiyatri", "Fizik Tedavi", "Endokrinoloji", "Gastroenteroloji",
+            "Enfeksiyon Hastalıkları", "Beyin Cerrahisi"
+    };
+    private static final int[] BRANCH_WEIGHTS = {20, 12, 10, 8, 8, 7, 6, 6, 5, 5, 5, 4, 4, 4, 3, 3, 2, 2};
+    private static final Set<String> WINTER_BRANCHES =
+            Set.of("Çocuk Sağlığı ve Hastalıkları", "Kulak Burun Boğaz", "Göğüs Hastalıkları", "Enfeksiyon Hastalıkları");
+
+    private static final String[] HOURS = {
+            "09:00-12:00,13:00-17:00", "08:00-12:00,13:00-16:00", "08:00-12:00,13:00-18:00", "09:00-17:00",
+            "09:00-12:00", "13:00-17:00", "10:00-12:00,14:00-18:00", "08:00-11:00,14:00-17:00"
+    };
+    private static final int[] HOUR_WEIGHTS = {40, 20, 10, 8, 8, 6, 4, 4};
+
+    private static final String[] CITIES = {
+            "Ankara", "İstanbul", "İzmir", "Bursa", "Antalya", "Konya", "Kayseri", "Eskişehir", "Kırklareli",
+            "Trabzon", "Erzurum", "Gaziantep", "Diyarbakır", "Samsun", "Edirne"
+    };
+
+    // Ocak..Aralık ve Pazartesi..Cuma çarpanları
+    private static final double[] SEASON = {1.15, 1.15, 1.05, 1.0, 0.95, 0.85, 0.75, 0.7, 0.95, 1.05, 1.1, 1.15};
+    private static final double[] WEEKDAY = {1.1, 1.0, 1.0, 0.95, 0.85};
+    private static final Set<MonthDay> HOLIDAYS = Set.of(
+            MonthDay.of(1, 1), MonthDay.of(4, 23), MonthDay.of(5, 1), MonthDay.of(5, 19),
+            MonthDay.of(7, 15), MonthDay.of(8, 30), MonthDay.of(10, 29));
+
+    private static final AppointmentState[] STATES = {
+            AppointmentState.AKTIF, AppointmentState.TAMAMLANDI, AppointmentState.GELMEDI, AppointmentState.IPTAL
+    };
+    private static final int LEAVE_PERCENT = 3;
+    private static final double VISIT_SKEW = 2.0;
+
+    // Üretimin birimi; tekrarlanabilirlik için gen.batchSize'dan bağımsız sabittir
+    private static final int CHUNK = 5000;
+
+    private static final long SALT_DOCTORS = 1, SALT_PATIENTS = 2, SALT_DAYS = 3;
+
+    private final long seed;
+    private final int hospitals;
+    private final int doctorCount;
+    private final int patientCount;
+    private final LocalDate today = LocalDate.parse(System.getProperty("gen.today", LocalDate.now().toString()));
+    private final LocalDate from;
+    private final LocalDate to;
+    private final double occupancy = Double.parseDouble(System.getProperty("gen.occupancy", "0.7"));
+    private final int batchSize = Integer.getInteger("gen.batchSize", 1000);
+
+    private final ShardRouter router = DatabaseManager.getInstance().getRouter();
+    private final int threads = Integer.getInteger("gen.threads", router.primary().getPool().getMaxSize());
+    private final ExecutorService workers = Executors.newFixedThreadPool(threads);
+    private final long[] stateCounts = new long[STATES.length];
+
+    private Set<String> takenTc;
+    private Set<String> takenUsernames;
+    private int firstPatientId;
+    private long patientStride;
+    private DoctorPlan[] doctors;
+    // Parça başına sıradaki doktor / randevu kimliği
+    private int[] nextDoctorId;
+    private int[] nextAppointmentId;
+
+    public HospitalGenerator(long seed, int hospitals, int doctorCount, int patientCount, int pastDays, int aheadDays) {
+        this.seed = seed;
+        this.hospitals = hospitals;
+        this.doctorCount = doctorCount;
+        this.patientCount = patientCount;
+        this.from = today.minusDays(pastDays);
+        this.to = today.plusDays(aheadDays);
+    }
+
+    private record DoctorPlan(int id, int shard, String name, String surname, String branch, String polyclinic,
+                              String hours, int[] minutes, double popularity, boolean winter) { }
+
+    private interface Work {
+        void run(Connection c) throws SQLException;
+    }
+
+    public void run() throws Exception {
+        try {
+            readExisting();
+            planDoctors();
+
+            long t0 = System.nanoTime();
+            writeUsers();
+            report("Kullanıcı", patientCount + doctorCount, t0);
+
+            long t1 = System.nanoTime();
+            long appointments = writeAppointments();
+            report("Randevu", appointments, t1);
+            for (int i = 0; i < STATES.length; i++) System.out.printf("  %-10s %,d%n", STATES[i], stateCounts[i]);
+        } finally {
+            workers.shutdown();
+        }
+    }
+
+    // Kimlikler mevcut kayıtların ardından başlar; elle açılmış hesapların TC ve kullanıcı adlarıyla çakışılmaz
+    private void readExisting() throws SQLException {
+        int shards = router.size();
+        nextDoctorId = new int[shards];
+        nextAppointmentId = new int[shards];
+        takenTc = new HashSet<>();
+        takenUsernames = new HashSet<>();
+        for (int i = 0; i < shards; i++) {
+            int first = router.shard(i).firstId();
+            try (Statement st = router.shard(i).getConnection().createStatement()) {
+                if (i == 0) firstPatientId = maxId(st, "SELECT MAX(id) FROM users") + 1;
+                else nextDoctorId[i] = Math.max(first, maxId(st, "SELECT MAX(id) FROM users WHERE id >= " + first) + 1);
+                nextAppointmentId[i] = Math.max(first, Math.max(maxId(st, "SELECT MAX(id) FROM appointments"),
+                        maxId(st, "SELECT MAX(id) FROM appointments_archive")) + 1);
+                try (ResultSet rs = st.executeQuery("SELECT tc,username FROM users")) {
+                    while (rs.next()) {
+                        takenTc.add(rs.getString(1));
+                        takenUsernames.add(rs.getString(2));
+                    }
+                }
+            }
+        }
+        nextDoctorId[0] = firstPatientId + patientCount;
+        // Sık gelen hastalar kimlik aralığına dağılsın diye sıra numarası n ile aralarında asal bir adımla karıştırılır
+        patientStride = 7919;
+        while (gcd(patientStride, patientCount) != 1) patientStride += 2;
+    }
+
+    private static int maxId(Statement st, String sql) throws SQLException {
+        try (ResultSet rs = st.executeQuery(sql)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private void planDoctors() {
+        Random rnd = random(SALT_DOCTORS, 0);
+        String[] hospitalNames = new String[hospitals];
+        for (int h = 0; h < hospitals; h++) {
+            String city = CITIES[h % CITIES.length];
+            hospitalNames[h] = city + (h < CITIES.length ? "" : " " + (h / CITIES.length + 1)) + " Şehir Hastanesi";
+        }
+        doctors = new DoctorPlan[doctorCount];
+        for (int i = 0; i < doctorCount; i++) {
+            String branch = BRANCHES[weighted(rnd, BRANCH_WEIGHTS)];
+            String hours = HOURS[weighted(rnd, HOUR_WEIGHTS)];
+            String polyclinic = hospitalNames[rnd.nextInt(hospitals)] + " - Poliklinik " + (1 + rnd.nextInt(40));
+            int[] minutes = WorkingHoursUtil.generateHourlySlots(hours);
+            double popularity = 0.6 + rnd.nextDouble() * 0.6;
+            int shard = router.ofBranch(branch);
+            doctors[i] = new DoctorPlan(nextDoctorId[shard]++, shard, NamePool.firstName(rnd), NamePool.surname(rnd),
+                    branch, polyclinic, hours, minutes, popularity, WINTER_BRANCHES.contains(branch));
+        }
+    }
+
+    private void writeUsers() {
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        for (int shard = 0; shard < router.size(); shard++) {
+            int sh = shard;
+            for (int start = 0; start < patientCount; start += CHUNK) {
+                int s = start, e = Math.min(patientCount, start + CHUNK);
+                tasks.add(submit(sh, c -> writePatients(c, s, e)));
+            }
+            for (int start = 0; start < doctorCount; start += CHUNK) {
+                int s = start, e = Math.min(doctorCount, start + CHUNK);
+                tasks.add(submit(sh, c -> writeDoctors(c, sh, s, e)));
+            }
+        }
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0])).join();
+    }
+
+    private void writePatients(Connection c, int start, int end) throws SQLException {
+        Random rnd = random(SALT_PATIENTS, start);
+        try (PreparedStatement users = c.prepareStatement(insertUser());
+             PreparedStatement patients = c.prepareStatement("INSERT INTO patients(user_id) VALUES(?)")) {
+            for (int i = start; i < end; i++) {
+                int id = firstPatientId + i;
+                String phone = String.format("05%02d %03d %02d %02d", 30 + rnd.nextInt(26), rnd.nextInt(1000),
+                        rnd.nextInt(100), rnd.nextInt(100));
+                bindUser(users, id, NamePool.firstName(rnd), NamePool.surname(rnd), "hasta", "PATIENT", phone);
+                patients.setInt(1, id);
+                patients.addBatch();
+                if ((i - start + 1) % batchSize == 0) {
+                    users.executeBatch();
+                    patients.executeBatch();
+                }
+            }
+            users.executeBatch();
+            patients.executeBatch();
+        }
+    }
+
+    private void writeDoctors(Connection c, int shard, int start, int end) throws SQLException {
+        try (PreparedStatement users = c.prepareStatement(insertUser());
+             PreparedStatement ds = c.prepareStatement(
+                     "INSERT INTO doctors(user_id,branch,polyclinic,working_hours) VALUES(?,?,?,?)")) {
+            int n = 0;
+            for (int i = start; i < end; i++) {
+                DoctorPlan d = doctors[i];
+                if (d.shard() != shard) continue;
+                String mail = (TurkishText.normalize(d.name()) + "." + TurkishText.normalize(d.surname()))
+                        .replace(' ', '.') + d.id() + "@hastane.gov.tr";
+                bindUser(users, d.id(), d.name(), d.surname(), "doktor", "DOCTOR", mail);
+                ds.setInt(1, d.id());
+                ds.setString(2, d.branch());
+                ds.setString(3, d.polyclinic());
+                ds.setString(4, d.hours());
+                ds.addBatch();
+                if (++n % batchSize == 0) {
+                    users.executeBatch();
+                    ds.executeBatch();
+                }
+            }
+            users.executeBatch();
+            ds.executeBatch();
+        }
+    }
+
+    private static String insertUser() {
+        return "INSERT INTO users(id,name,surname,tc,username,password,role,contact_info) VALUES(?,?,?,?,?,?,?,?)";
+    }
+
+    private void bindUser(PreparedStatement ps, int id, String name, String surname, String prefix, String role,
+                          String contact) throws SQLException {
+        String username = prefix + id;
+        if (takenUsernames.contains(username)) username += "_s";
+        ps.setInt(1, id);
+        ps.setString(2, name);
+        ps.setString(3, surname);
+        ps.setString(4, tcFor(id));
+        ps.setString(5, username);
+        ps.setString(6, "1234");
+        ps.setString(7, role);
+        ps.setString(8, contact);
+        ps.addBatch();
+    }
+
+    // Kimlikten 900 milyonluk aralıkta birebir eşlenen ilk dokuz hane; üretilen TC'ler kendi aralarında çakışmaz
+    private String tcFor(int id) {
+        for (long k = id; ; k += 1_000_003) {
+            String tc = TcKimlikNo.of(100_000_000L + (k * 982_451_653L) % 900_000_000L);
+            if (!takenTc.contains(tc)) return tc;
+        }
+    }
+
+    // Günler pencereler hâlinde paralel planlanır, kimlikler gün sırasıyla verilir, sonra parça parça paralel yazılır
+    private long writeAppointments() {
+        List<LocalDate> days = new ArrayList<>();
+        for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+            if (d.getDayOfWeek().getValue() <= DayOfWeek.FRIDAY.getValue() && !HOLIDAYS.contains(MonthDay.from(d))) {
+                days.add(d);
+            }
+        }
+        int window = Math.max(8, threads * 2);
+        long total = 0;
+        for (int w = 0; w < days.size(); w += window) {
+            List<CompletableFuture<List<int[]>>> plans = new ArrayList<>();
+            for (LocalDate d : days.subList(w, Math.min(days.size(), w + window))) {
+                plans.add(CompletableFuture.supplyAsync(() -> planDay(d), workers));
+            }
+            List<CompletableFuture<Void>> writes = new ArrayList<>();
+            for (int i = 0; i < plans.size(); i++) {
+                LocalDate d = days.get(w + i);
+                List<int[]> rows = plans.get(i).join();
+                List<List<int[]>> byShard = new ArrayList<>();
+                for (int sh = 0; sh < router.size(); sh++) byShard.add(new ArrayList<>());
+                for (int[] r : rows) {
+                    stateCounts[r[3]]++;
+                    byShard.get(router.ofId(r[0])).add(r);
+                }
+                for (int sh = 0; sh < byShard.size(); sh++) {
+                    List<int[]> shardRows = byShard.get(sh);
+                    for (int s = 0; s < shardRows.size(); s += CHUNK) {
+                        List<int[]> part = shardRows.subList(s, Math.min(shardRows.size(), s + CHUNK));
+                        int firstId = nextAppointmentId[sh];
+                        nextAppointmentId[sh] += part.size();
+                        writes.add(submit(sh, c -> writeDay(c, d, part, firstId)));
+                    }
+                }
+                total += rows.size();
+            }
+            CompletableFuture.allOf(writes.toArray(new CompletableFuture<?>[0])).join();
+            System.out.printf("%s'e kadar %,d randevu%n", days.get(Math.min(days.size(), w + window) - 1), total);
+        }
+        return total;
+    }
+
+    // Satır: doktor, hasta, dakika, durum
+    private List<int[]> planDay(LocalDate date) {
+        Random rnd = random(SALT_DAYS, date.toEpochDay());
+        double season = SEASON[date.getMonthValue() - 1];
+        double weekday = WEEKDAY[date.getDayOfWeek().getValue() - 1];
+        boolean past = date.isBefore(today);
+        Set<Integer> seen = new HashSet<>();
+        List<int[]> rows = new ArrayList<>();
+        for (DoctorPlan d : doctors) {
+            if (rnd.nextInt(100) < LEAVE_PERCENT) continue;
+            double p = Math.min(0.98, occupancy * (d.winter() ? season * season : season) * weekday * d.popularity());
+            for (int minute : d.minutes()) {
+                if (rnd.nextDouble() >= p) continue;
+                int patient = pickPatient(rnd, seen);
+                if (patient < 0) continue;
+                rows.add(new int[]{d.id(), patient, minute, pickState(rnd, past)});
+            }
+        }
+        return rows;
+    }
+
+    // Hastaların bir kısmı sık gelir; o gün randevusu olan hasta birkaç denemede atlanamazsa saat boş kalır
+    private int pickPatient(Random rnd, Set<Integer> seen) {
+        for (int attempt = 0; attempt < 8; attempt++) {
+            long rank = (long) (patientCount * Math.pow(rnd.nextDouble(), VISIT_SKEW));
+            int id = firstPatientId + (int) (rank * patientStride % patientCount);
+            if (seen.add(id)) return id;
+        }
+        return -1;
+    }
+
+    private static int pickState(Random rnd, boolean past) {
+        int r = rnd.nextInt(100);
+        if (!past) return r < 93 ? 0 : 3;
+        return r < 80 ? 1 : r < 91 ? 2 : 3;
+    }
+
+    private void writeDay(Connection c, LocalDate date, List<int[]> rows, int firstId) throws SQLException {
+        java.sql.Date day = java.sql.Date.valueOf(date);
+        try (PreparedStatement ps = c.prepareStatement(
+                "INSERT INTO appointments(id,patient_id,doctor_id,date,time,state_code,version) VALUES(?,?,?,?,?,?,0)")) {
+            for (int i = 0; i < rows.size(); i++) {
+                int[] r = rows.get(i);
+                ps.setInt(1, firstId + i);
+                ps.setInt(2, r[1]);
+                ps.setInt(3, r[0]);
+                ps.setDate(4, day);
+                ps.setTime(5, SlotKey.sqlTime(r[2]));
+                ps.setInt(6, STATES[r[3]].getCode());
+                ps.addBatch();
+                if ((i + 1) % batchSize == 0) ps.executeBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private CompletableFuture<Void> submit(int shard, Work work) {
+        return CompletableFuture.runAsync(() -> {
+            ConnectionPool pool = router.shard(shard).getPool();
+            try {
+                Connection c = pool.borrow(30, TimeUnit.SECONDS);
+                try {
+                    c.setAutoCommit(false);
+                    try {
+                        work.run(c);
+                        c.commit();
+                    } catch (SQLException e) {
+                        c.rollback();
+                        throw e;
+                    } finally {
+                        c.setAutoCommit(true);
+                    }
+                } finally {
+                    pool.release(c);
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }, workers);
+    }
+
+    // Aynı tohumla aynı parça / gün hep aynı diziyi üretir; SplitMix64 ile komşu tohumlar ilişkisiz olur
+    private Random random(long salt, long index) {
+        long z = seed * 0x9E3779B97F4A7C15L + salt * 0xD1B54A32D192ED03L + index;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return new Random(z ^ (z >>> 31));
+    }
+
+    private static int weighted(Random rnd, int[] weights) {
+        int total = Arrays.stream(weights).sum();
+        int r = rnd.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            r -= weights[i];
+            if (r < 0) return i;
+        }
+        return weights.length - 1;
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    private static void report(String what, long rows, long startNanos) {
+        double sec = (System.nanoTime() - startNanos) / 1e9;
+        System.out.printf("%s: %,d satır, %.1f sn, %,.0f satır/sn%n", what, rows, sec, rows / sec);
+    }
+
+    public static void main(String[] args) throws Exception {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 42;
+        int hospitals = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int doctors = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+        int patients = args.length > 3 ? Integer.parseInt(args[3]) : 300_000;
+        int pastDays = args.length > 4 ? Integer.parseInt(args[4]) : 365;
+        int aheadDays = args.length > 5 ? Integer.parseInt(args[5]) : 60;
+
+        System.out.printf("Tohum %d: %d hastane, %,d doktor, %,d hasta, %d gün geriye / %d gün ileriye%n",
+                seed, hospitals, doctors, patients, pastDays, aheadDays);
+        new HospitalGenerator(seed, hospitals, doctors, patients, pastDays, aheadDays).run();
+        System.exit(0);
+    }
+}
@@ -0,0 +1,44 @@
+package dataset;
+
+import java.util.Random;
+
+// Sık görülen Türkçe ad ve soyadlar; seçim çağıranın Random'ıyla yapılır ki üretim tohumdan tekrarlanabilsin
+final class NamePool {
+
+    private static final String[] FEMALE = {
+            "Zeynep", "Elif", "Ayşe", "Fatma", "Emine", "Hatice", "Merve", "Büşra", "Esra", "Özlem",
+            "Gül", "Şule", "Derya", "Ebru", "Sevgi", "Yasemin", "Tuğba", "Kübra", "Gamze", "Çiğdem",
+            "Hülya", "Nur", "Sibel", "Dilek", "Melek", "İrem", "Selin", "Ecrin", "Defne", "Eylül",
+            "Nazlı", "Aslı", "Öykü", "Şeyma", "Gizem", "Songül", "Nurcan", "Hacer", "Zehra", "Meryem"
+    };
+    private static final String[] MALE = {
+            "Mehmet", "Mustafa", "Ahmet", "Ali", "Hüseyin", "Hasan", "İbrahim", "İsmail", "Osman", "Yusuf",
+            "Murat", "Ömer", "Ramazan", "Halil", "Süleyman", "Abdullah", "Mahmut", "Recep", "Emre", "Burak",
+            "Kemal", "Serkan", "Oğuz", "Çağrı", "Uğur", "Gökhan", "Tolga", "Barış", "Eren", "Kerem",
+            "Alp", "Arda", "Yiğit", "Efe", "Berk", "Doğan", "Şükrü", "Cengiz", "Erdem", "Tarık"
+    };
+    private static final String[] SURNAMES = {
+            "Yılmaz", "Kaya", "Demir", "Şahin", "Çelik", "Yıldız", "Yıldırım", "Öztürk", "Aydın", "Özdemir",
+            "Arslan", "Doğan", "Kılıç", "Aslan", "Çetin", "Kara", "Koç", "Kurt", "Özkan", "Şimşek",
+            "Polat", "Özer", "Korkmaz", "Çakır", "Erdoğan", "Yavuz", "Can", "Acar", "Güneş", "Aktaş",
+            "Güler", "Bulut", "Keskin", "Ünal", "Turan", "Gül", "Işık", "Tekin", "Uçar", "Karaca",
+            "Taşkın", "Şenel", "Erin", "Bozkurt", "Sarı", "Tunç", "Akın", "Duman", "Avcı", "Öz"
+    };
+
+    private NamePool() { }
+
+    // Her on kişiden biri çift adlıdır ("Ayşe Nur")
+    static String firstName(Random rnd) {
+        String[] pool = rnd.nextBoolean() ? FEMALE : MALE;
+        String name = pool[rnd.nextInt(pool.length)];
+        if (rnd.nextInt(10) == 0) {
+            String second = pool[rnd.nextInt(pool.length)];
+            if (!second.equals(name)) name += " " + second;
+        }
+        return name;
+    }
+
+    static String surname(Random rnd) {
+        return SURNAMES[rnd.nextInt(SURNAMES.length)];
+    }
+}
@@ -0,0 +1,33 @@
+package dataset;
+
+/**
+ * T.C. kimlik numarası: ilk hane sıfır olamaz, 10. hane (tek hanelerin toplamı * 7 - çift hanelerin toplamı) mod 10,
+ * 11. hane ilk on hanenin toplamı mod 10'dur.
+ */
+final class TcKimlikNo {
+
+    private TcKimlikNo() { }
+
+    // first9: 100000000-999999999 arası ilk dokuz hane
+    static String of(long first9) {
+        if (first9 < 100_000_000L || first9 > 999_999_999L) throw new IllegalArgumentException("9 hane olmalı: " + first9);
+        char[] d = new char[11];
+        String head = Long.toString(first9);
+        head.getChars(0, 9, d, 0);
+        int odd = 0, even = 0;
+        for (int i = 0; i < 9; i++) {
+            if (i % 2 == 0) odd += d[i] - '0'; else even += d[i] - '0';
+        }
+        int tenth = Math.floorMod(odd * 7 - even, 10);
+        int eleventh = (odd + even + tenth) % 10;
+        d[9] = (char) ('0' + tenth);
+        d[10] = (char) ('0' + eleventh);
+        return new String(d);
+    }
+
+    static boolean isValid(String tc) {
+        if (tc == null || tc.length() != 11 || tc.charAt(0) == '0') return false;
+        for (int i = 0; i < 11; i++) if (!Character.isDigit(tc.charAt(i))) return false;
+        return of(Long.parseLong(tc.substring(0, 9))).equals(tc);
+    }
+}
@@ -0,0 +1,104 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sabit üst sınırlı, tembel açılan JDBC bağlantı havuzu. Eşzamanlı istek sayısı havuz boyutuyla
+ * sınırlandığı için boş bağlantı beklemek yerine çağıran taraf fazlasını baştan reddedebilir.
+ */
+public class ConnectionPool {
+
+    public interface Factory {
+        Connection open() throws SQLException;
+    }
+
+    private final Factory factory;
+    private final int maxSize;
+    private final BlockingQueue<Connection> idle;
+    private final AtomicInteger opened = new AtomicInteger();
+
+    public ConnectionPool(Factory factory, int maxSize) {
+        this.factory = factory;
+        this.maxSize = maxSize;
+        this.idle = new ArrayBlockingQueue<>(maxSize);
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public Connection borrow(long timeout, TimeUnit unit) throws SQLException, InterruptedException {
+        Connection c = idle.poll();
+        if (c == null && opened.incrementAndGet() <= maxSize) {
+            try {
+                return factory.open();
+            } catch (SQLException e) {
+                opened.decrementAndGet();
+                throw e;
+            }
+        }
+        if (c == null) {
+            opened.decrementAndGet();
+            c = idle.poll(timeout, unit);
+            if (c == null) throw new SQLException("Bağlantı havuzu dolu");
+        }
+        if (!c.isValid(2)) {
+            discard(c);
+            return borrow(timeout, unit);
+        }
+        return c;
+    }
+
+    // Açılışta ilk isteklerin bağlantı kurma gecikmesini beklememesi için önceden n bağlantı açar
+    public void prefill(int n) throws SQLException {
+        while (idle.size() < n) {
+            if (opened.incrementAndGet() > maxSize) {
+                opened.decrementAndGet();
+                return;
+            }
+            Connection c;
+            try {
+                c = factory.open();
+            } catch (SQLException e) {
+                opened.decrementAndGet();
+                throw e;
+            }
+            if (!idle.offer(c)) discard(c);
+        }
+    }
+
+    public void release(Connection c) {
+        try {
+            if (c.isClosed()) {
+                opened.decrementAndGet();
+                return;
+            }
+            if (!c.getAutoCommit()) {
+                c.rollback();
+                c.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            discard(c);
+            return;
+        }
+        if (!idle.offer(c)) discard(c);
+    }
+
+    private void discard(Connection c) {
+        opened.decrementAndGet();
+        try {
+            c.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    public void close() {
+        Connection c;
+        while ((c = idle.poll()) != null) discard(c);
+    }
+}
@@ -4,15 +4,14 @@ import java.sql.*;
 
 public class DatabaseManager {
     private static DatabaseManager instance;
-    private final Connection conn;
-
-    private static final String URL = "jdbc:mysql://localhost:3306/hospital_randevu?useSSL=false&serverTimezone=UTC";
-    private static final String USER = "root";
-    private static final String PASS = "1234";
+    private final DbConfig config = DbConfig.getInstance();
+    private final ShardRouter router;
+    private final Shard primary;
 
     private DatabaseManager() {
         try {
-            conn = DriverManager.getConnection(URL, USER, PASS);
+            router = new ShardRouter(config);
+            primary = router.primary();
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
@@ -23,5 +22,17 @@ public class DatabaseManager {
         return instance;
     }
 
-    public Connection getConnection() { return conn; }
+    // Bağlantı, havuz ve openConnection birincil parçanındır; parçaya göre iş için getRouter
+    public Connection getConnection() { return primary.getConnection(); }
+
+    public ConnectionPool getPool() { return primary.getPool(); }
+
+    public ShardRouter getRouter() { return router; }
+
+    public Dialect getDialect() { return config.getDialect(); }
+
+    // Arka plan işleri (arşivleme vb.) arayüzün bağlantısını ve transaction'ını paylaşmasın diye
+    public Connection openConnection() throws SQLException {
+        return primary.openConnection();
+    }
 }
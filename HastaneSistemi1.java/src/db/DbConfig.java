@@ -0,0 +1,93 @@
+package db;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Veritabanı bağlantı ayarları. Önce çalışma klasöründeki hastane.properties (veya -Ddb.config ile
+ * verilen dosya) okunur, aynı adlı sistem özellikleri dosyadakileri ezer. Tanımlanmayan ayarlar eski
+ * MySQL kurulumuyla uyumlu varsayılanlara düşer.
+ *
+ * Tek bilgisayarlık kurulum için örnek:
+ *   db.url=jdbc:h2:./data/hastane;MODE=MySQL;DATABASE_TO_LOWER=TRUE
+ *
+ * Birden çok veritabanına bölünmüş (parçalı) kurulum için db.shards parça adlarını sırayla verir; ilk parça
+ * birincildir. Her parçanın url / user / password ayarı yoksa db.* değerine düşer, branches o parçada açılacak
+ * branşlardır (listede olmayan branşlar birincil parçaya gider). Tüm parçalar aynı veritabanı türünde olmalıdır:
+ *   db.shards=merkez,kuzey
+ *   db.shard.kuzey.url=jdbc:h2:./data/kuzey;MODE=MySQL;DATABASE_TO_LOWER=TRUE
+ *   db.shard.kuzey.branches=Kardiyoloji,Nöroloji
+ */
+public class DbConfig {
+
+    private static DbConfig instance;
+
+    private static final String DEFAULT_URL = "jdbc:mysql://localhost:3306/hospital_randevu?useSSL=false&serverTimezone=UTC";
+
+    private final Properties props = new Properties();
+    private final Dialect dialect;
+
+    private DbConfig() {
+        Path file = Path.of(System.getProperty("db.config", "hastane.properties"));
+        if (Files.isRegularFile(file)) {
+            try (Reader r = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                props.load(r);
+            } catch (IOException e) {
+                throw new RuntimeException("Ayar dosyası okunamadı: " + file, e);
+            }
+        }
+        for (String key : System.getProperties().stringPropertyNames()) {
+            if (key.startsWith("db.")) props.setProperty(key, System.getProperty(key));
+        }
+        String name = props.getProperty("db.dialect");
+        dialect = name == null ? Dialect.forUrl(getUrl()) : Dialect.forName(name);
+    }
+
+    public static synchronized DbConfig getInstance() {
+        if (instance == null) instance = new DbConfig();
+        return instance;
+    }
+
+    public String getUrl() { return props.getProperty("db.url", DEFAULT_URL); }
+
+    public String getUser() { return props.getProperty("db.user", "root"); }
+
+    public String getPassword() { return props.getProperty("db.password", "1234"); }
+
+    public int getPoolSize() { return Integer.parseInt(props.getProperty("db.poolSize", "16")); }
+
+    public Dialect getDialect() { return dialect; }
+
+    // db.shards tanımlı değilse db.url'den tek parça
+    public List<ShardSpec> getShards() {
+        List<ShardSpec> list = new ArrayList<>();
+        for (String name : split(props.getProperty("db.shards", ""))) {
+            String prefix = "db.shard." + name + ".";
+            list.add(new ShardSpec(name,
+                    props.getProperty(prefix + "url", list.isEmpty() ? getUrl() : null),
+                    props.getProperty(prefix + "user", getUser()),
+                    props.getProperty(prefix + "password", getPassword()),
+                    split(props.getProperty(prefix + "branches", ""))));
+            if (list.get(list.size() - 1).url() == null)
+                throw new IllegalArgumentException("Parçanın adresi tanımlı değil: " + prefix + "url");
+        }
+        if (list.isEmpty()) list.add(new ShardSpec("varsayilan", getUrl(), getUser(), getPassword(), List.of()));
+        return list;
+    }
+
+    private static List<String> split(String csv) {
+        List<String> out = new ArrayList<>();
+        for (String s : csv.split(",")) {
+            if (!s.isBlank()) out.add(s.trim());
+        }
+        return out;
+    }
+
+    public record ShardSpec(String name, String url, String user, String password, List<String> branches) { }
+}
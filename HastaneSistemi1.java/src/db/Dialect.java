@@ -0,0 +1,48 @@
+package db;
+
+import java.util.Collections;
+
+/**
+ * Veritabanına özgü SQL parçaları. DAO'lar zaman biçimlendirme ve satır akıtma gibi taşınabilir
+ * olmayan kısımları buradan alır; geri kalan SQL MySQL ve H2'de aynı çalışır.
+ */
+public interface Dialect {
+
+    String getName();
+
+    // TIME sütununu "HH:mm" metni olarak seçen ifade
+    String hhmm(String column);
+
+    // TIME sütununu gün içindeki dakika (slot.SlotKey.minute) olarak seçen ifade
+    String minuteOfDay(String column);
+
+    // İmlecin tüm sonucu belleğe almadan satır satır okunması için verilecek fetch size
+    int streamingFetchSize();
+
+    // Anahtarı zaten varsa satırı sessizce atlayan INSERT; yer tutucular columns sırasıyla verilir
+    String insertIgnore(String table, String columns, String keyColumns);
+
+    // AUTO_INCREMENT sayacını verilen değerden devam ettiren DDL
+    String restartIdentity(String table, String column, long next);
+
+    // NOT NULL sütunu boş bırakılabilir yapan DDL; MySQL tür tanımını yeniden ister
+    String dropNotNull(String table, String column, String type);
+
+    static String placeholders(String columns) {
+        return String.join(",", Collections.nCopies(columns.split(",").length, "?"));
+    }
+
+    static Dialect forName(String name) {
+        return switch (name.toLowerCase()) {
+            case "mysql" -> new MySqlDialect();
+            case "h2" -> new H2Dialect();
+            default -> throw new IllegalArgumentException("Desteklenmeyen veritabanı: " + name);
+        };
+    }
+
+    static Dialect forUrl(String url) {
+        if (url.startsWith("jdbc:h2:")) return new H2Dialect();
+        if (url.startsWith("jdbc:mysql:") || url.startsWith("jdbc:mariadb:")) return new MySqlDialect();
+        throw new IllegalArgumentException("URL'den veritabanı türü anlaşılamadı: " + url);
+    }
+}
@@ -0,0 +1,26 @@
+package db;
+
+public class H2Dialect implements Dialect {
+    public String getName() { return "h2"; }
+
+    public String hhmm(String column) { return "LEFT(CAST(" + column + " AS VARCHAR(8)),5)"; }
+
+    public String minuteOfDay(String column) { return "(HOUR(" + column + ")*60+MINUTE(" + column + "))"; }
+
+    // Gömülü H2 sonucu zaten parça parça okur; negatif değer kabul etmez
+    public int streamingFetchSize() { return 1000; }
+
+    // MySQL kipi INSERT IGNORE'u destekler: anahtar varsa mevcut satıra dokunmaz. MERGE ... WHEN NOT MATCHED
+    // iki oturum aynı anahtarı aynı anda eklerken anahtar çakışmasıyla düşüyordu.
+    public String insertIgnore(String table, String columns, String keyColumns) {
+        return "INSERT IGNORE INTO " + table + "(" + columns + ") VALUES (" + Dialect.placeholders(columns) + ")";
+    }
+
+    public String restartIdentity(String table, String column, long next) {
+        return "ALTER TABLE " + table + " ALTER COLUMN " + column + " RESTART WITH " + next;
+    }
+
+    public String dropNotNull(String table, String column, String type) {
+        return "ALTER TABLE " + table + " ALTER COLUMN " + column + " SET NULL";
+    }
+}
@@ -0,0 +1,24 @@
+package db;
+
+public class MySqlDialect implements Dialect {
+    public String getName() { return "mysql"; }
+
+    public String hhmm(String column) { return "TIME_FORMAT(" + column + ",'%H:%i')"; }
+
+    public String minuteOfDay(String column) { return "(TIME_TO_SEC(" + column + ") DIV 60)"; }
+
+    // MySQL sürücüsü yalnızca Integer.MIN_VALUE ile satırları tek tek akıtır, aksi hâlde tüm sonucu belleğe alır
+    public int streamingFetchSize() { return Integer.MIN_VALUE; }
+
+    public String insertIgnore(String table, String columns, String keyColumns) {
+        return "INSERT IGNORE INTO " + table + "(" + columns + ") VALUES (" + Dialect.placeholders(columns) + ")";
+    }
+
+    public String restartIdentity(String table, String column, long next) {
+        return "ALTER TABLE " + table + " AUTO_INCREMENT=" + next;
+    }
+
+    public String dropNotNull(String table, String column, String type) {
+        return "ALTER TABLE " + table + " MODIFY COLUMN " + column + " " + type + " NULL";
+    }
+}
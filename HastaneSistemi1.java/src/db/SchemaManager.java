@@ -0,0 +1,430 @@
+package db;
+
+import state.AppointmentState;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+public class SchemaManager {
+
+    static final String STATE_BACKFILL = "state_code_backfill";
+    static final String STATE_DROP = "state_column_drop";
+    static final String EXAM_MOVE = "exam_columns_move";
+    static final String EXAM_DROP = "exam_columns_drop";
+
+    private final Connection conn;
+
+    public SchemaManager(Connection conn) {
+        this.conn = conn;
+    }
+
+    public void migrate() {
+        try {
+            // Temel tablolar; MySQL kurulumlarında zaten vardır, gömülü veritabanında ilk açılışta oluşur
+            ensureTable("users", """
+                CREATE TABLE users (
+                    id INT AUTO_INCREMENT PRIMARY KEY,
+                    name VARCHAR(50) NOT NULL,
+                    surname VARCHAR(50) NOT NULL,
+                    tc CHAR(11) NOT NULL UNIQUE,
+                    username VARCHAR(50) NOT NULL UNIQUE,
+                    password VARCHAR(100) NOT NULL,
+                    role VARCHAR(10) NOT NULL,
+                    contact_info VARCHAR(150)
+                )
+            """);
+            ensureTable("patients", """
+                CREATE TABLE patients (
+                    user_id INT PRIMARY KEY
+                )
+            """);
+            ensureTable("doctors", """
+                CREATE TABLE doctors (
+                    user_id INT PRIMARY KEY,
+                    branch VARCHAR(100) NOT NULL,
+                    polyclinic VARCHAR(100),
+                    working_hours VARCHAR(200)
+                )
+            """);
+            // İstemcilerdeki başvuru verisi kopyası yalnızca bundan sonra değişen doktorları çeker
+            ensureColumn("doctors", "ref_updated_at", "TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP");
+            ensureIndex("doctors", "idx_doc_ref_updated", "ref_updated_at");
+            ensureTable("appointments", """
+                CREATE TABLE appointments (
+                    id INT AUTO_INCREMENT PRIMARY KEY,
+                    patient_id INT NOT NULL,
+                    doctor_id INT NOT NULL,
+                    date DATE NOT NULL,
+                    time TIME NOT NULL,
+                    state_code TINYINT NOT NULL DEFAULT 1,
+                    version INT NOT NULL DEFAULT 0
+                )
+            """);
+
+            ensureColumn("appointments", "version", "INT NOT NULL DEFAULT 0");
+            // Tek seferlik veri taşımaları burada kayıt altına alınır; uygulanmış adım tekrar çalışmaz
+            ensureTable("schema_steps", """
+                CREATE TABLE schema_steps (
+                    step VARCHAR(64) PRIMARY KEY,
+                    applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                )
+            """);
+            if (!isApplied(STATE_BACKFILL)) backfillStateCode();
+            ensureIndex("appointments", "idx_app_doctor_slot", "doctor_id,date,time,state_code");
+            ensureIndex("appointments", "idx_app_patient_day", "patient_id,date,state_code");
+            // Hatırlatma, arşivleme ve açık randevu taramaları durum koduyla başlar; satıra dönmeden biter
+            ensureIndex("appointments", "idx_app_state_date", "state_code,date,doctor_id,time,patient_id");
+
+            ensureTable("appointments_archive", """
+                CREATE TABLE appointments_archive (
+                    id INT PRIMARY KEY,
+                    patient_id INT NOT NULL,
+                    doctor_id INT NOT NULL,
+                    date DATE NOT NULL,
+                    time TIME NOT NULL,
+                    state_code TINYINT NOT NULL,
+                    version INT NOT NULL DEFAULT 0,
+                    archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                )
+            """);
+            ensureColumn("appointments_archive", "version", "INT NOT NULL DEFAULT 0");
+            ensureIndex("appointments_archive", "idx_arc_patient_day", "patient_id,date");
+            ensureIndex("appointments_archive", "idx_arc_doctor_day", "doctor_id,date");
+
+            ensureTable("appointment_changes", """
+                CREATE TABLE appointment_changes (
+                    revision BIGINT AUTO_INCREMENT PRIMARY KEY,
+                    appointment_id INT NOT NULL,
+                    op VARCHAR(16) NOT NULL,
+                    origin VARCHAR(36) NOT NULL,
+                    prev_date DATE,
+                    prev_time TIME,
+                    changed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                )
+            """);
+            ensureIndex("appointment_changes", "idx_chg_changed_at", "changed_at");
+
+            ensureTable("waitlist", """
+                CREATE TABLE waitlist (
+                    id INT AUTO_INCREMENT PRIMARY KEY,
+                    patient_id INT NOT NULL,
+                    doctor_id INT,
+                    branch VARCHAR(100),
+                    date_from DATE NOT NULL,
+                    date_to DATE NOT NULL,
+                    time_from TIME NOT NULL,
+                    time_to TIME NOT NULL,
+                    status VARCHAR(16) NOT NULL DEFAULT 'WAITING',
+                    appointment_id INT,
+                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                )
+            """);
+            ensureIndex("waitlist", "idx_wait_status_to", "status,date_to");
+
+            ensureTable("slots", """
+                CREATE TABLE slots (
+                    doctor_id INT NOT NULL,
+                    date DATE NOT NULL,
+                    time TIME NOT NULL,
+                    appointment_id INT,
+                    patient_id INT,
+                    held_by INT,
+                    held_until TIMESTAMP NULL,
+                    PRIMARY KEY (doctor_id, date, time)
+                )
+            """);
+            ensureIndex("slots", "idx_slot_appointment", "appointment_id");
+            ensureColumn("slots", "held_by", "INT");
+            ensureColumn("slots", "held_until", "TIMESTAMP NULL");
+            ensureIndex("slots", "idx_slot_held_by", "held_by");
+
+            ensureTable("slot_horizon", """
+                CREATE TABLE slot_horizon (
+                    doctor_id INT PRIMARY KEY,
+                    generated_through DATE NOT NULL,
+                    working_hours VARCHAR(200)
+                )
+            """);
+
+            // doctor_id doluysa doktor izni / yarım gün, branch doluysa branş kapanışı, ikisi de boşsa resmi tatil
+            ensureTable("schedule_exceptions", """
+                CREATE TABLE schedule_exceptions (
+                    id INT AUTO_INCREMENT PRIMARY KEY,
+                    doctor_id INT,
+                    branch VARCHAR(100),
+                    date_from DATE NOT NULL,
+                    date_to DATE NOT NULL,
+                    time_from TIME,
+                    time_to TIME,
+                    kind VARCHAR(16) NOT NULL,
+                    description VARCHAR(200)
+                )
+            """);
+            ensureIndex("schedule_exceptions", "idx_exc_date_to", "date_to");
+
+            // Uzun notlar note_z'de sıkıştırılmış durur, o durumda note boştur
+            ensureTable("appointment_exams", """
+                CREATE TABLE appointment_exams (
+                    appointment_id INT PRIMARY KEY,
+                    note TEXT,
+                    note_z BLOB,
+                    prescription TEXT,
+                    version INT NOT NULL DEFAULT 1
+                )
+            """);
+            if (!isApplied(EXAM_MOVE)) moveExamColumns();
+
+            // Reçete metninin katalogdaki ilaçlarla eşleşen satırları; metin appointment_exams'te kalır
+            ensureTable("prescription_lines", """
+                CREATE TABLE prescription_lines (
+                    appointment_id INT NOT NULL,
+                    line_no INT NOT NULL,
+                    drug_name VARCHAR(150) NOT NULL,
+                    active_ingredient VARCHAR(200),
+                    form VARCHAR(60),
+                    instructions VARCHAR(200),
+                    PRIMARY KEY (appointment_id, line_no)
+                )
+            """);
+            ensureIndex("prescription_lines", "idx_rx_ingredient", "active_ingredient");
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // Eski kurulumlarda appointments / arşivdeki note ve prescription bir kez yeni tabloya taşınıp boşaltılır; sütunlar
+    // yerinde kalır. Sürüm bir artırılır; eski sürümü tutan istemciler tek seferlik çakışma alıp güncel kaydı okur.
+    // Kopya, boşaltma ve adım kaydı aynı transaction'dadır; yarıda kalırsa sonraki açılışta baştan yapılır. Adım
+    // kaydından önceki sürümlerin taşıdığı satırlar yeniden kopyalanmaz.
+    private void moveExamColumns() throws SQLException {
+        inTransaction(() -> {
+            try (Statement st = conn.createStatement()) {
+                for (String table : new String[]{"appointments", "appointments_archive"}) {
+                    if (!columnExists(table, "note")) continue;
+                    st.executeUpdate("""
+                        INSERT INTO appointment_exams (appointment_id,note,prescription,version)
+                        SELECT t.id,t.note,t.prescription,t.version+1 FROM %s t
+                        WHERE (t.note IS NOT NULL OR t.prescription IS NOT NULL)
+                          AND NOT EXISTS (SELECT 1 FROM appointment_exams e WHERE e.appointment_id=t.id)
+                    """.formatted(table));
+                    st.executeUpdate("UPDATE " + table + " SET note=NULL, prescription=NULL "
+                            + "WHERE note IS NOT NULL OR prescription IS NOT NULL");
+                }
+            }
+            markApplied(EXAM_MOVE);
+        });
+    }
+
+    // Eski kurulumlarda metin olan state sütunu state_code'a kopyalanır; sütun yerinde kalır ama boş bırakılabilir
+    // olur, çünkü yeni istemciler ona yazmaz. Üzerindeki indeksler düşer, kodla yeniden kurulur. Kopya ve adım kaydı
+    // aynı transaction'dadır; yarıda kalırsa sonraki açılışta baştan yapılır.
+    private void backfillStateCode() throws SQLException {
+        Dialect dialect = DbConfig.getInstance().getDialect();
+        for (String table : new String[]{"appointments", "appointments_archive"}) {
+            if (!columnExists(table, "state")) continue;
+            ensureColumn(table, "state_code", "TINYINT NOT NULL DEFAULT 1");
+            try (Statement st = conn.createStatement()) {
+                for (String index : indexesOn(table, "state")) st.executeUpdate("DROP INDEX " + index + " ON " + table);
+                st.executeUpdate(dialect.dropNotNull(table, "state", "VARCHAR(20)"));
+            }
+        }
+        inTransaction(() -> {
+            try (Statement st = conn.createStatement()) {
+                for (String table : new String[]{"appointments", "appointments_archive"}) {
+                    if (!columnExists(table, "state")) continue;
+                    st.executeUpdate("UPDATE " + table + " SET state_code=" + AppointmentState.codeSql("state")
+                            + " WHERE state IS NOT NULL");
+                }
+            }
+            markApplied(STATE_BACKFILL);
+        });
+    }
+
+    /**
+     * Kopyası alınmış metin state sütununu kaldırır. Açılışta çalışmaz; bütün istemciler state_code'a geçtikten
+     * sonra {@link SchemaTool} ile bir kez elle çalıştırılır. Kopya adımı uygulanmamışsa hiçbir şey yapmaz.
+     *
+     * @return sütun bu çağrıda kaldırıldıysa true
+     */
+    public boolean dropLegacyStateColumn() {
+        try {
+            if (!isApplied(STATE_BACKFILL) || isApplied(STATE_DROP)) return false;
+            for (String table : new String[]{"appointments", "appointments_archive"}) {
+                if (!columnExists(table, "state")) continue;
+                try (Statement st = conn.createStatement()) {
+                    st.executeUpdate("ALTER TABLE " + table + " DROP COLUMN state");
+                }
+            }
+            inTransaction(() -> markApplied(STATE_DROP));
+            return true;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Muayene tablosuna taşınmış eski note ve prescription sütunlarını randevu ve arşiv tablolarından kaldırır.
+     * {@link #dropLegacyStateColumn()} gibi açılışta çalışmaz, {@link SchemaTool} ile elle çalıştırılır. Taşıma adımı
+     * uygulanmamışsa hiçbir şey yapmaz.
+     *
+     * @return sütunlar bu çağrıda kaldırıldıysa true
+     */
+    public boolean dropLegacyExamColumns() {
+        try {
+            if (!isApplied(EXAM_MOVE) || isApplied(EXAM_DROP)) return false;
+            for (String table : new String[]{"appointments", "appointments_archive"}) {
+                for (String column : new String[]{"note", "prescription"}) {
+                    if (!columnExists(table, column)) continue;
+                    try (Statement st = conn.createStatement()) {
+                        st.executeUpdate("ALTER TABLE " + table + " DROP COLUMN " + column);
+                    }
+                }
+            }
+            inTransaction(() -> markApplied(EXAM_DROP));
+            return true;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public List<String> appliedSteps() {
+        List<String> steps = new ArrayList<>();
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT step, applied_at FROM schema_steps ORDER BY applied_at, step")) {
+            while (rs.next()) steps.add(rs.getString(1) + "  " + rs.getTimestamp(2));
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return steps;
+    }
+
+    private boolean isApplied(String step) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT 1 FROM schema_steps WHERE step=?")) {
+            ps.setString(1, step);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    // Aynı anda açılan iki istemci adımı birlikte uygulayabilir; ikinci kayıt sessizce atlanır
+    private void markApplied(String step) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(
+                DbConfig.getInstance().getDialect().insertIgnore("schema_steps", "step", "step"))) {
+            ps.setString(1, step);
+            ps.executeUpdate();
+        }
+    }
+
+    private interface SqlWork {
+        void run() throws SQLException;
+    }
+
+    private void inTransaction(SqlWork work) throws SQLException {
+        conn.setAutoCommit(false);
+        try {
+            work.run();
+            conn.commit();
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    // Parçalı kurulumda parçanın kimlikleri kendi aralığından verilir. Tabloda (ve kimliği taşıyan diğer tablolarda)
+    // aralıktan hiç kimlik yoksa sayaç aralığın başına alınır; aralığa girmiş sayaca dokunulmaz.
+    public void reserveIdRange(String table, long first, String... sharing) {
+        try (Statement st = conn.createStatement()) {
+            for (String t : concat(table, sharing)) {
+                try (ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM " + t + " WHERE id >= " + first)) {
+                    rs.next();
+                    if (rs.getLong(1) > 0) return;
+                }
+            }
+            st.executeUpdate(DbConfig.getInstance().getDialect().restartIdentity(table, "id", first));
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String[] concat(String first, String[] rest) {
+        String[] all = new String[rest.length + 1];
+        all[0] = first;
+        System.arraycopy(rest, 0, all, 1, rest.length);
+        return all;
+    }
+
+    public void ensureTable(String table, String ddl) throws SQLException {
+        if (tableExists(table)) return;
+        try (Statement st = conn.createStatement()) {
+            st.executeUpdate(ddl);
+        }
+    }
+
+    public void ensureColumn(String table, String column, String definition) throws SQLException {
+        if (columnExists(table, column)) return;
+        try (Statement st = conn.createStatement()) {
+            st.executeUpdate("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+        }
+    }
+
+    public void ensureIndex(String table, String index, String columns) throws SQLException {
+        if (!tableExists(table) || indexExists(table, index)) return;
+        try (Statement st = conn.createStatement()) {
+            st.executeUpdate("CREATE INDEX " + index + " ON " + table + "(" + columns + ")");
+        }
+    }
+
+    private boolean tableExists(String table) throws SQLException {
+        DatabaseMetaData md = conn.getMetaData();
+        for (String name : new String[]{table, table.toUpperCase()}) {
+            // H2 kendi information_schema.users tablosunu da döndürür; şema ile sınırla
+            try (ResultSet rs = md.getTables(conn.getCatalog(), conn.getSchema(), name, new String[]{"TABLE", "BASE TABLE"})) {
+                if (rs.next()) return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean columnExists(String table, String column) throws SQLException {
+        DatabaseMetaData md = conn.getMetaData();
+        for (String[] tc : new String[][]{{table, column}, {table.toUpperCase(), column.toUpperCase()}}) {
+            try (ResultSet rs = md.getColumns(conn.getCatalog(), conn.getSchema(), tc[0], tc[1])) {
+                if (rs.next()) return true;
+            }
+        }
+        return false;
+    }
+
+    private Set<String> indexesOn(String table, String column) throws SQLException {
+        Set<String> found = new LinkedHashSet<>();
+        DatabaseMetaData md = conn.getMetaData();
+        for (String name : new String[]{table, table.toUpperCase()}) {
+            try (ResultSet rs = md.getIndexInfo(conn.getCatalog(), conn.getSchema(), name, false, true)) {
+                while (rs.next()) {
+                    if (column.equalsIgnoreCase(rs.getString("COLUMN_NAME")) && rs.getString("INDEX_NAME") != null) {
+                        found.add(rs.getString("INDEX_NAME"));
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private boolean indexExists(String table, String index) throws SQLException {
+        DatabaseMetaData md = conn.getMetaData();
+        for (String name : new String[]{table, table.toUpperCase()}) {
+            try (ResultSet rs = md.getIndexInfo(conn.getCatalog(), conn.getSchema(), name, false, true)) {
+                while (rs.next()) {
+                    if (index.equalsIgnoreCase(rs.getString("INDEX_NAME"))) return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,51 @@
+package db;
+
+/**
+ * Açılışta kendiliğinden yapılmayan şema adımları için komut satırı aracı. Uygulamanın açılışı yalnızca geri
+ * alınabilir adımları (tablo, sütun, indeks ekleme ve veri kopyalama) yapar; sütun kaldırma buradan elle çalıştırılır.
+ */
+public class SchemaTool {
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            usage();
+            return;
+        }
+        ShardRouter router = DatabaseManager.getInstance().getRouter();
+        switch (args[0]) {
+            case "list" -> {
+                for (Shard shard : router.shards()) {
+                    System.out.println(shard + ":");
+                    for (String step : new SchemaManager(shard.getConnection()).appliedSteps()) {
+                        System.out.println("  " + step);
+                    }
+                }
+            }
+            case "drop-state" -> {
+                for (Shard shard : router.shards()) {
+                    boolean dropped = new SchemaManager(shard.getConnection()).dropLegacyStateColumn();
+                    System.out.println(shard + ": " + (dropped ? "state sütunu kaldırıldı." : "yapılacak bir şey yok."));
+                }
+            }
+            case "drop-exam" -> {
+                for (Shard shard : router.shards()) {
+                    boolean dropped = new SchemaManager(shard.getConnection()).dropLegacyExamColumns();
+                    System.out.println(shard + ": "
+                            + (dropped ? "note ve prescription sütunları kaldırıldı." : "yapılacak bir şey yok."));
+                }
+            }
+            default -> usage();
+        }
+    }
+
+    private static void usage() {
+        System.err.println("""
+            Kullanım:
+              SchemaTool list
+              SchemaTool drop-state
+              SchemaTool drop-exam
+            drop-state eski metin state sütununu kaldırır; yalnızca bütün istemciler state_code'a geçtikten sonra çalıştırın.
+            drop-exam randevu ve arşivdeki eski note/prescription sütunlarını kaldırır; muayeneler appointment_exams'e
+            taşındıktan ve bütün istemciler güncellendikten sonra çalıştırın.""");
+    }
+}
@@ -0,0 +1,52 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+/**
+ * Parçalı kurulumdaki tek bir veritabanı: kendi paylaşılan bağlantısı, havuzu ve kimlik aralığı vardır.
+ * Açılışta şeması güncellenir; birincil dışındaki parçalarda kullanıcı ve randevu sayaçları parçanın aralığına alınır.
+ */
+public final class Shard {
+
+    private final int index;
+    private final DbConfig.ShardSpec spec;
+    private final Connection conn;
+    private final ConnectionPool pool;
+
+    Shard(int index, DbConfig.ShardSpec spec, int poolSize) throws SQLException {
+        this.index = index;
+        this.spec = spec;
+        this.pool = new ConnectionPool(this::openConnection, poolSize);
+        this.conn = openConnection();
+        SchemaManager schema = new SchemaManager(conn);
+        schema.migrate();
+        if (index > 0) {
+            schema.reserveIdRange("users", firstId());
+            schema.reserveIdRange("appointments", firstId(), "appointments_archive");
+        }
+    }
+
+    public int getIndex() { return index; }
+
+    public String getName() { return spec.name(); }
+
+    public Connection getConnection() { return conn; }
+
+    public ConnectionPool getPool() { return pool; }
+
+    // Bu parçada açılan doktor ve randevuların ilk kimliği
+    public int firstId() {
+        return index * ShardRouter.ID_SPAN;
+    }
+
+    public Connection openConnection() throws SQLException {
+        return DriverManager.getConnection(spec.url(), spec.user(), spec.password());
+    }
+
+    @Override
+    public String toString() {
+        return spec.name();
+    }
+}
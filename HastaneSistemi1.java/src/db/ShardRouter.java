@@ -0,0 +1,130 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Veriyi birden çok veritabanına (parçaya) dağıtan kurulumda hangi işin hangi parçaya gideceğine karar verir.
+ * Doktorlar branşlarının parçasında açılır; bir doktorun randevu, slot ve muayene kayıtları onunla aynı parçadadır.
+ * Doktor ve randevu kimlikleri parça başına ID_SPAN'lik aralıklardan verildiği için parça kimlikten hesaplanır,
+ * arama gerekmez. Hastalar (users / patients satırları) birincil parçada açılıp diğerlerine aynı kimlikle kopyalanır;
+ * böylece her parçadaki sorgular hasta adlarını kendi içinde birleştirebilir. Bekleme listesi, izin / tatil takvimi
+ * ve bunlara benzer paylaşılan tablolar birincil parçadadır.
+ *
+ * Tek parçalı kurulumda her iş doğrudan birincil parçada, çağıranın thread'inde çalışır.
+ */
+public final class ShardRouter {
+
+    public static final int ID_SPAN = 100_000_000;
+
+    public interface Work<T> {
+        T run(Connection c) throws SQLException;
+    }
+
+    private final List<Shard> shards;
+    private final Map<String, Integer> byBranch = new HashMap<>();
+    private final ExecutorService scatterPool = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "shard-scatter");
+        t.setDaemon(true);
+        return t;
+    });
+
+    ShardRouter(DbConfig config) throws SQLException {
+        List<DbConfig.ShardSpec> specs = config.getShards();
+        if (specs.size() > Integer.MAX_VALUE / ID_SPAN)
+            throw new IllegalArgumentException("En fazla " + Integer.MAX_VALUE / ID_SPAN + " parça tanımlanabilir");
+        List<Shard> list = new ArrayList<>();
+        for (DbConfig.ShardSpec spec : specs) {
+            Shard s = new Shard(list.size(), spec, config.getPoolSize());
+            for (String branch : spec.branches()) {
+                Integer prev = byBranch.putIfAbsent(branch, s.getIndex());
+                if (prev != null) throw new IllegalArgumentException("Branş iki parçaya atanmış: " + branch);
+            }
+            list.add(s);
+        }
+        shards = List.copyOf(list);
+    }
+
+    public int size() { return shards.size(); }
+
+    public Shard shard(int index) { return shards.get(index); }
+
+    public List<Shard> shards() { return shards; }
+
+    public Shard primary() { return shards.get(0); }
+
+    // Doktor, randevu ya da doktor kullanıcısı kimliğinin parçası; aralık dışı kimlikler birincildedir
+    public int ofId(int id) {
+        int s = id / ID_SPAN;
+        return s < shards.size() ? s : 0;
+    }
+
+    // Yeni açılacak doktorun parçası. Eski kayıtlarda doktor başka parçada olabilir; onları ofId bulur.
+    public int ofBranch(String branch) {
+        return byBranch.getOrDefault(branch, 0);
+    }
+
+    // İşi parçanın havuzundan ödünç alınan bağlantıyla çalıştırır
+    public <T> T on(int shard, Work<T> work) {
+        ConnectionPool pool = shards.get(shard).getPool();
+        try {
+            Connection c = pool.borrow(10, TimeUnit.SECONDS);
+            try {
+                return work.run(c);
+            } finally {
+                pool.release(c);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    // İşi her parçada paralel çalıştırır; sonuçlar parça sırasıyla döner. Bir parça hata verirse
+    // diğerleri beklenir, ilk hata (kural ihlali mesajıyla birlikte) aynen fırlatılır.
+    public <T> List<T> scatter(Work<T> work) {
+        return scatter(work, -1);
+    }
+
+    // except dışındaki parçalarda; çağıranın kendi parçasında zaten yaptığı denetimin diğerlerinde tekrarı için
+    public <T> List<T> scatterOthers(int except, Work<T> work) {
+        return scatter(work, except);
+    }
+
+    private <T> List<T> scatter(Work<T> work, int except) {
+        List<Integer> targets = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            if (i != except) targets.add(i);
+        }
+        // Tek hedef başka thread'e taşınmadan çalışır
+        if (targets.size() <= 1) {
+            List<T> out = new ArrayList<>(1);
+            for (int shard : targets) out.add(on(shard, work));
+            return out;
+        }
+        List<CompletableFuture<T>> parts = new ArrayList<>();
+        for (int shard : targets) parts.add(CompletableFuture.supplyAsync(() -> on(shard, work), scatterPool));
+        List<T> out = new ArrayList<>(parts.size());
+        RuntimeException failure = null;
+        for (CompletableFuture<T> f : parts) {
+            try {
+                out.add(f.join());
+            } catch (CompletionException e) {
+                if (failure == null) failure = e.getCause() instanceof RuntimeException re ? re : e;
+            }
+        }
+        if (failure != null) throw failure;
+        return out;
+    }
+}
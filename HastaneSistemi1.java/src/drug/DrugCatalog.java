@@ -0,0 +1,187 @@
+package drug;
+
+import model.Drug;
+import model.PrescriptionLine;
+import util.TurkishText;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * İlaç kataloğu (drugs.file, varsayılan ilaclar.csv; satır biçimi "Ad;Etken madde;Form") ve öneki arama
+ * dizini. Dizin iki sıralı dizidir: ilaçların normalize tam adları ve ad / etken maddedeki her kelime.
+ * Bir önek için ilk eşleşme ikili aramayla bulunur, sonuçlar oradan sırayla okunur; nesne ağacı yoktur.
+ */
+public final class DrugCatalog {
+
+    private static DrugCatalog instance;
+
+    private final Drug[] drugs;
+    private final String[] names;
+    private final int[] nameOwners;
+    private final String[] words;
+    private final int[] wordOwners;
+
+    private DrugCatalog(List<Drug> list) {
+        drugs = list.toArray(new Drug[0]);
+
+        List<Object[]> n = new ArrayList<>();
+        List<Object[]> w = new ArrayList<>();
+        for (int i = 0; i < drugs.length; i++) {
+            n.add(new Object[]{TurkishText.normalize(drugs[i].getName()), i});
+            String all = TurkishText.normalize(drugs[i].getName() + " " + drugs[i].getActiveIngredient());
+            for (String word : new LinkedHashSet<>(Arrays.asList(all.split(" ")))) {
+                if (word.length() > 1) w.add(new Object[]{word, i});
+            }
+        }
+        Comparator<Object[]> byKey = Comparator.comparing((Object[] o) -> (String) o[0]).thenComparing(o -> (Integer) o[1]);
+        n.sort(byKey);
+        w.sort(byKey);
+        names = new String[n.size()];
+        nameOwners = new int[n.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = (String) n.get(i)[0];
+            nameOwners[i] = (Integer) n.get(i)[1];
+        }
+        words = new String[w.size()];
+        wordOwners = new int[w.size()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = (String) w.get(i)[0];
+            wordOwners[i] = (Integer) w.get(i)[1];
+        }
+    }
+
+    public static synchronized DrugCatalog getInstance() {
+        if (instance == null) {
+            Path file = Path.of(System.getProperty("drugs.file", "ilaclar.csv"));
+            try {
+                instance = load(file);
+            } catch (IOException e) {
+                System.err.println("İlaç kataloğu okunamadı (" + file + "): " + e.getMessage());
+                instance = new DrugCatalog(List.of());
+            }
+        }
+        return instance;
+    }
+
+    public static DrugCatalog load(Path file) throws IOException {
+        List<Drug> list = new ArrayList<>();
+        try (BufferedReader r = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) continue;
+                String[] p = line.split(";", 3);
+                if (p.length < 3 || p[0].isBlank()) continue;
+                list.add(new Drug(p[0].trim(), p[1].trim(), p[2].trim()));
+            }
+        }
+        return new DrugCatalog(list);
+    }
+
+    public int size() {
+        return drugs.length;
+    }
+
+    // Önce adı yazılanla başlayan ilaçlar, sonra adında / etken maddesinde o önekle başlayan kelime geçenler
+    public List<Drug> suggest(String text, int limit) {
+        String prefix = TurkishText.normalize(text);
+        List<Drug> out = new ArrayList<>(limit);
+        if (prefix.isEmpty()) return out;
+        BitSet seen = new BitSet(drugs.length);
+        collect(names, nameOwners, prefix, limit, seen, out);
+        if (out.size() < limit && prefix.indexOf(' ') < 0) collect(words, wordOwners, prefix, limit, seen, out);
+        return out;
+    }
+
+    private void collect(String[] keys, int[] owners, String prefix, int limit, BitSet seen, List<Drug> out) {
+        for (int i = lowerBound(keys, prefix); i < keys.length && out.size() < limit && keys[i].startsWith(prefix); i++) {
+            int d = owners[i];
+            if (seen.get(d)) continue;
+            seen.set(d);
+            out.add(drugs[d]);
+        }
+    }
+
+    // Satırın başındaki en uzun ilaç adı; yoksa null
+    public Drug match(String line) {
+        String norm = TurkishText.normalize(line);
+        String candidate = norm;
+        while (!candidate.isEmpty()) {
+            int i = lowerBound(names, candidate);
+            if (i < names.length && names[i].equals(candidate)) return drugs[nameOwners[i]];
+            int cut = candidate.lastIndexOf(' ');
+            if (cut < 0) break;
+            candidate = candidate.substring(0, cut);
+        }
+        return null;
+    }
+
+    // Reçete metninin katalogdaki bir ilaçla başlayan satırları; ilacın adından sonrası kullanım talimatıdır
+    public List<PrescriptionLine> parse(String prescription) {
+        List<PrescriptionLine> lines = new ArrayList<>();
+        if (prescription == null) return lines;
+        int no = 0;
+        for (String raw : prescription.split("\\R")) {
+            String line = raw.trim();
+            if (line.isEmpty()) continue;
+            no++;
+            Drug d = match(line);
+            if (d == null) continue;
+            lines.add(new PrescriptionLine(no, d.getName(), d.getActiveIngredient(), d.getForm(),
+                    instructions(line, d)));
+        }
+        return lines;
+    }
+
+    // Normalize ad kelime sayısı kadar özgün kelimeyi atlar; kalanın başındaki form adı da düşülür
+    private static String instructions(String line, Drug d) {
+        String rest = line;
+        int skip = TurkishText.normalize(d.getName()).split(" ").length;
+        for (int i = 0; i < skip; i++) {
+            rest = rest.replaceFirst("^[^\\p{L}\\p{N}]*[\\p{L}\\p{N}]+", "");
+        }
+        rest = rest.replaceFirst("^[^\\p{L}\\p{N}]+", "");
+        String form = TurkishText.normalize(d.getForm());
+        if (!form.isEmpty() && TurkishText.normalize(rest).startsWith(form + " ")) {
+            for (int i = 0; i < form.split(" ").length; i++) {
+                rest = rest.replaceFirst("^[^\\p{L}\\p{N}]*[\\p{L}\\p{N}]+", "");
+            }
+        }
+        rest = rest.trim();
+        return rest.length() > 200 ? rest.substring(0, 200) : rest;
+    }
+
+    private static int lowerBound(String[] keys, String key) {
+        int lo = 0, hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid].compareTo(key) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // Katalog boyutunu ve her ilacın adının tüm önekleri için ortalama öneri süresini yazar
+    public static void main(String[] args) throws IOException {
+        DrugCatalog c = args.length > 0 ? load(Path.of(args[0])) : getInstance();
+        List<String> prefixes = new ArrayList<>();
+        for (Drug d : c.drugs) {
+            for (int i = 1; i <= d.getName().length(); i++) prefixes.add(d.getName().substring(0, i));
+        }
+        for (String p : prefixes) c.suggest(p, 8);
+        long start = System.nanoTime();
+        for (String p : prefixes) c.suggest(p, 8);
+        long avg = prefixes.isEmpty() ? 0 : (System.nanoTime() - start) / prefixes.size();
+        System.out.printf("%d ilaç, %d ad + %d kelime anahtarı, %d önek, ortalama %.1f µs / tuş%n",
+                c.drugs.length, c.names.length, c.words.length, prefixes.size(), avg / 1000.0);
+    }
+}
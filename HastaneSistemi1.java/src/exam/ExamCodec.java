@@ -0,0 +1,58 @@
+package exam;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Uzun muayene notlarını veritabanına sıkıştırılmış yazar. exam.compressThreshold (bayt, varsayılan 2048)
+ * altındaki veya sıkışınca küçülmeyen notlar düz metin kalır.
+ */
+public final class ExamCodec {
+
+    private static final int THRESHOLD = Integer.getInteger("exam.compressThreshold", 2048);
+
+    private ExamCodec() { }
+
+    // Sıkıştırmaya değmiyorsa null
+    public static byte[] compress(String text) {
+        if (text == null) return null;
+        byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+        if (raw.length < THRESHOLD) return null;
+
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2);
+            byte[] buf = new byte[4096];
+            while (!deflater.finished()) out.write(buf, 0, deflater.deflate(buf));
+            return out.size() < raw.length ? out.toByteArray() : null;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    public static String decompress(byte[] data) {
+        if (data == null) return null;
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 3);
+            byte[] buf = new byte[4096];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buf);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                    throw new IllegalStateException("Muayene notu bozuk");
+                out.write(buf, 0, n);
+            }
+            return out.toString(StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Muayene notu bozuk", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package exam;
+
+import model.ExamRecord;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Doktor panelinin muayene kayıtları için küçük LRU önbellek (exam.cacheSize, varsayılan 64). Seçilen
+ * satırın komşuları önceden yüklendiği için listede satır satır gezinmek veritabanına gitmez.
+ * Başka oturumda kaydedilen muayene EXAM_SAVED olayıyla önbellekten düşürülür.
+ */
+public class ExamStore {
+
+    private final int capacity = Integer.getInteger("exam.cacheSize", 64);
+    private final Set<Integer> loading = new HashSet<>();
+    private final Map<Integer, ExamRecord> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, ExamRecord> eldest) {
+            return size() > capacity;
+        }
+    };
+
+    public synchronized ExamRecord get(int appointmentId) {
+        return cache.get(appointmentId);
+    }
+
+    public synchronized void put(ExamRecord exam) {
+        if (exam != null) cache.put(exam.getAppointmentId(), exam);
+    }
+
+    // Yükleme sürerken düşürülen kayıt eski olabileceği için eklenmez
+    public synchronized void putAll(Collection<Integer> requested, Map<Integer, ExamRecord> loaded) {
+        for (Integer id : requested) {
+            ExamRecord exam = loaded.get(id);
+            if (loading.remove(id) && exam != null) cache.put(id, exam);
+        }
+    }
+
+    public synchronized void evict(int appointmentId) {
+        cache.remove(appointmentId);
+        loading.remove(appointmentId);
+    }
+
+    public synchronized void clear() {
+        cache.clear();
+    }
+
+    // Önbellekte olmayan ve yüklenmekte olmayan id'leri döndürür, onları yükleniyor olarak işaretler
+    public synchronized List<Integer> claimMissing(Collection<Integer> ids) {
+        List<Integer> missing = new ArrayList<>();
+        for (Integer id : ids) {
+            if (!cache.containsKey(id) && loading.add(id)) missing.add(id);
+        }
+        return missing;
+    }
+
+    public synchronized void abandon(Collection<Integer> ids) {
+        loading.removeAll(ids);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,276 @@
+package export;
+
+import archive.AppointmentArchiver;
+import db.DatabaseManager;
+import db.DbConfig;
+import db.Shard;
+import exam.ExamCodec;
+import state.AppointmentState;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.zip.GZIPOutputStream;
+
+public class AppointmentExporter {
+
+    public enum Format { CSV, JSONL }
+
+    public interface ProgressListener {
+        void onProgress(long rows, long bytes);
+    }
+
+    private static final String[] COLUMNS = {
+            "id", "date", "time", "state", "patient_tc", "patient", "doctor", "branch", "note", "prescription"
+    };
+    private static final int NOTE = 8;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int PROGRESS_EVERY = 10_000;
+
+    private final Format format;
+    private final boolean gzip;
+    private final ProgressListener listener;
+
+    public AppointmentExporter(Format format, boolean gzip, ProgressListener listener) {
+        this.format = format;
+        this.gzip = gzip;
+        this.listener = listener == null ? (r, b) -> { } : listener;
+    }
+
+    // Parçalı kurulumda her parça kendi bağlantısından tarih / saat sırasıyla akıtılır; satırlar bellekte
+    // toplanmadan sırayla birleştirilir
+    public long export(LocalDate from, LocalDate to, Path target) {
+        List<Connection> conns = new ArrayList<>();
+        try (FileChannel file = FileChannel.open(target,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+
+            PriorityQueue<Cursor> cursors = new PriorityQueue<>(
+                    Comparator.<Cursor, String>comparing(c -> c.row[1]).thenComparing(c -> c.row[2]));
+            for (Shard shard : DatabaseManager.getInstance().getRouter().shards()) {
+                Connection conn = shard.openConnection();
+                conns.add(conn);
+                Cursor c = new Cursor(open(conn, from, to));
+                if (c.next()) cursors.add(c);
+            }
+
+            WritableByteChannel out = gzip
+                    ? Channels.newChannel(new GZIPOutputStream(Channels.newOutputStream(file), BUFFER_SIZE))
+                    : file;
+
+            try (ChannelWriter w = new ChannelWriter(out)) {
+                if (format == Format.CSV) writeCsvRow(w, COLUMNS);
+
+                long rows = 0;
+                Cursor c;
+                while ((c = cursors.poll()) != null) {
+                    if (format == Format.CSV) writeCsvRow(w, c.row);
+                    else writeJsonRow(w, c.row);
+                    if (++rows % PROGRESS_EVERY == 0) listener.onProgress(rows, w.bytesWritten());
+                    if (c.next()) cursors.add(c);
+                }
+                w.flush();
+                listener.onProgress(rows, w.bytesWritten());
+                return rows;
+            }
+        } catch (SQLException | IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            // Bağlantı kapanınca deyim ve imleçler de kapanır
+            for (Connection conn : conns) {
+                try {
+                    conn.close();
+                } catch (SQLException ignored) {
+                }
+            }
+        }
+    }
+
+    private static ResultSet open(Connection conn, LocalDate from, LocalDate to) throws SQLException {
+        boolean withArchive = AppointmentArchiver.reachesArchive(conn, from);
+        String sql = exportSql("appointments");
+        if (withArchive) sql += " UNION ALL " + exportSql("appointments_archive");
+        sql += " ORDER BY 2, 3";
+
+        PreparedStatement ps = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        ps.setFetchSize(DbConfig.getInstance().getDialect().streamingFetchSize());
+        for (int i = 0; i < (withArchive ? 2 : 1); i++) {
+            ps.setDate(i * 2 + 1, Date.valueOf(from));
+            ps.setDate(i * 2 + 2, Date.valueOf(to));
+        }
+        return ps.executeQuery();
+    }
+
+    // Bir parçanın akışındaki sıradaki satır
+    private static final class Cursor {
+        final ResultSet rs;
+        final String[] row = new String[COLUMNS.length];
+
+        Cursor(ResultSet rs) {
+            this.rs = rs;
+        }
+
+        boolean next() throws SQLException {
+            if (!rs.next()) return false;
+            for (int i = 0; i < row.length; i++) row[i] = rs.getString(i + 1);
+            byte[] z = rs.getBytes(COLUMNS.length + 1);
+            if (z != null) row[NOTE] = ExamCodec.decompress(z);
+            return true;
+        }
+    }
+
+    private static String exportSql(String table) {
+        return """
+            SELECT a.id, a.date, %s, %s,
+                   p.tc, CONCAT(p.name,' ',p.surname),
+                   CONCAT(u.name,' ',u.surname), d.branch,
+                   e.note, e.prescription, e.note_z
+            FROM %s a
+            JOIN users p ON a.patient_id=p.id
+            JOIN users u ON a.doctor_id=u.id
+            JOIN doctors d ON u.id=d.user_id
+            LEFT JOIN appointment_exams e ON e.appointment_id=a.id
+            WHERE a.date BETWEEN ? AND ?
+        """.formatted(DbConfig.getInstance().getDialect().hhmm("a.time"), AppointmentState.nameSql("a.state_code"), table);
+    }
+
+    private static void writeCsvRow(ChannelWriter w, String[] row) throws IOException {
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) w.write(',');
+            String v = row[i];
+            if (v == null) continue;
+            boolean quote = v.indexOf(',') >= 0 || v.indexOf('"') >= 0 || v.indexOf('\n') >= 0 || v.indexOf('\r') >= 0;
+            if (!quote) {
+                w.write(v);
+                continue;
+            }
+            w.write('"');
+            for (int c = 0; c < v.length(); c++) {
+                char ch = v.charAt(c);
+                if (ch == '"') w.write('"');
+                w.write(ch);
+            }
+            w.write('"');
+        }
+        w.write('\n');
+    }
+
+    private static void writeJsonRow(ChannelWriter w, String[] row) throws IOException {
+        w.write('{');
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) w.write(',');
+            w.write('"');
+            w.write(COLUMNS[i]);
+            w.write("\":");
+            String v = row[i];
+            if (v == null) {
+                w.write("null");
+                continue;
+            }
+            w.write('"');
+            for (int c = 0; c < v.length(); c++) {
+                char ch = v.charAt(c);
+                switch (ch) {
+                    case '"' -> w.write("\\\"");
+                    case '\\' -> w.write("\\\\");
+                    case '\n' -> w.write("\\n");
+                    case '\r' -> w.write("\\r");
+                    case '\t' -> w.write("\\t");
+                    default -> {
+                        if (ch < 0x20) w.write(String.format("\\u%04x", (int) ch));
+                        else w.write(ch);
+                    }
+                }
+            }
+            w.write('"');
+        }
+        w.write("}\n");
+    }
+
+    // Karakterleri sabit boyutlu bir tampon üzerinden doğrudan kanala kodlar; satır sayısından bağımsız bellek kullanır
+    private static class ChannelWriter implements AutoCloseable {
+        private final WritableByteChannel channel;
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE / 4);
+        private final ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private long written;
+
+        ChannelWriter(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        void write(char c) throws IOException {
+            if (!chars.hasRemaining()) drainChars(false);
+            chars.put(c);
+        }
+
+        void write(String s) throws IOException {
+            for (int i = 0; i < s.length(); i++) write(s.charAt(i));
+        }
+
+        long bytesWritten() {
+            return written + bytes.position();
+        }
+
+        private void drainChars(boolean endOfInput) throws IOException {
+            chars.flip();
+            while (true) {
+                CoderResult r = encoder.encode(chars, bytes, endOfInput);
+                if (r.isOverflow()) {
+                    drainBytes();
+                    continue;
+                }
+                if (r.isError()) r.throwException();
+                break;
+            }
+            chars.compact();
+        }
+
+        private void drainBytes() throws IOException {
+            bytes.flip();
+            while (bytes.hasRemaining()) written += channel.write(bytes);
+            bytes.clear();
+        }
+
+        void flush() throws IOException {
+            drainChars(true);
+            while (encoder.flush(bytes).isOverflow()) drainBytes();
+            drainBytes();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.err.println("Kullanım: AppointmentExporter <baslangic> <bitis> <dosya> [csv|jsonl] [gzip]");
+            return;
+        }
+        LocalDate from = LocalDate.parse(args[0]);
+        LocalDate to = LocalDate.parse(args[1]);
+        Path target = Path.of(args[2]);
+        Format format = args.length > 3 && "jsonl".equalsIgnoreCase(args[3]) ? Format.JSONL : Format.CSV;
+        boolean gzip = args.length > 4 && "gzip".equalsIgnoreCase(args[4]);
+
+        long rows = new AppointmentExporter(format, gzip,
+                (r, b) -> System.out.printf("%,d satır, %,d bayt%n", r, b)
+        ).export(from, to, target);
+        System.out.println("Dışa aktarım tamamlandı: " + rows + " satır -> " + target);
+    }
+}
@@ -0,0 +1,62 @@
+package history;
+
+/**
+ * TinyLFU kabul filtresi için count-min sketch: her anahtar dört satırda birer sayaca düşer, tahmin en
+ * küçüğüdür. Sayaçlar 15'te durur; örnek sayısı genişliğin 10 katına ulaşınca hepsi yarıya iner ki eski
+ * popülerlik zamanla unutulsun.
+ */
+final class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final int MAX = 15;
+    private static final int[] SEEDS = {0x97cb3127, 0x1b873593, 0xcc9e2d51, 0x85ebca6b};
+
+    private final int width;
+    private final byte[] table;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int expectedKeys) {
+        width = Integer.highestOneBit(Math.max(64, expectedKeys - 1) << 1);
+        table = new byte[DEPTH * width];
+        sampleSize = 10 * width;
+    }
+
+    int frequency(int key) {
+        int h = spread(key);
+        int min = MAX;
+        for (int row = 0; row < DEPTH; row++) min = Math.min(min, table[index(h, row)]);
+        return min;
+    }
+
+    void increment(int key) {
+        int h = spread(key);
+        boolean added = false;
+        for (int row = 0; row < DEPTH; row++) {
+            int i = index(h, row);
+            if (table[i] < MAX) {
+                table[i]++;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) reset();
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) table[i] >>= 1;
+        additions /= 2;
+    }
+
+    private int index(int hash, int row) {
+        int h = (hash + SEEDS[row]) * 0x9E3779B9;
+        h ^= h >>> 16;
+        return row * width + (h & (width - 1));
+    }
+
+    private static int spread(int x) {
+        x ^= x >>> 16;
+        x *= 0x45d9f3b;
+        x ^= x >>> 16;
+        return x;
+    }
+}
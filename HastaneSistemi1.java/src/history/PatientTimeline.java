@@ -0,0 +1,76 @@
+package history;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Bir hastanın tüm randevu geçmişi (AppointmentDAO.getByPatient satırları), tarih ve saate göre artan
+ * sıralı. Her satırın günü ayrı bir dizide tutulur; bir tarih aralığı iki ikili aramayla bulunan dilimdir.
+ * Satırlar paylaşılır, değiştirilmemelidir.
+ */
+public final class PatientTimeline {
+
+    private static final int DATE = 3;
+    private static final int TIME = 4;
+
+    private final int patientId;
+    private final String[][] rows;
+    private final long[] days;
+    private final long weight;
+    private final long loadedAt = System.currentTimeMillis();
+
+    private PatientTimeline(int patientId, String[][] rows) {
+        this.patientId = patientId;
+        this.rows = rows;
+        this.days = new long[rows.length];
+        long w = 64;
+        for (int i = 0; i < rows.length; i++) {
+            days[i] = LocalDate.parse(rows[i][DATE]).toEpochDay();
+            w += 24 + 8L * rows[i].length;
+            for (String s : rows[i]) if (s != null) w += 48 + s.length();
+        }
+        this.weight = w;
+    }
+
+    public static PatientTimeline of(int patientId, List<String[]> rows) {
+        String[][] sorted = rows.toArray(new String[0][]);
+        Arrays.sort(sorted, Comparator.comparing((String[] r) -> r[DATE]).thenComparing(r -> r[TIME]));
+        return new PatientTimeline(patientId, sorted);
+    }
+
+    public int getPatientId() {
+        return patientId;
+    }
+
+    public int size() {
+        return rows.length;
+    }
+
+    // Yaklaşık bellek kullanımı (bayt); önbellek bütçesi bununla hesaplanır
+    public long weight() {
+        return weight;
+    }
+
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+
+    // İki uç dahil; getByPatientBetween ile aynı sırada
+    public List<String[]> between(LocalDate from, LocalDate to) {
+        int lo = lowerBound(from.toEpochDay());
+        int hi = lowerBound(to.toEpochDay() + 1);
+        return lo >= hi ? List.of() : Arrays.asList(rows).subList(lo, hi);
+    }
+
+    private int lowerBound(long day) {
+        int lo = 0, hi = days.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (days[mid] < day) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,171 @@
+package history;
+
+import observer.AppointmentEvent;
+import observer.AppointmentObserver;
+import observer.AppointmentSubject;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Doktorun hasta aramasında bakılan hastaların tüm randevu geçmişi. Tarih aralığı değiştikçe veritabanına
+ * gidilmez, önbellekteki sıralı geçmişten dilim alınır. Bütçe satır sayısıyla değil yaklaşık bayt olarak
+ * tutulur (history.cacheKb, varsayılan 4096): uzun geçmişli hasta daha çok yer kaplar.
+ *
+ * Bütçe dolunca LRU sırasındaki en eski kayıtlar çıkarılır, ancak yeni hasta ancak çıkaracağı her kayıttan
+ * daha sık istenmişse (TinyLFU) eklenir; tek seferlik aramalar sık bakılan hastaları önbellekten atamaz.
+ * Hastanın herhangi bir randevusu yerelde ya da ChangeFeed üzerinden değişince yalnızca o hasta düşürülür.
+ * ChangeFeed çalışmıyorsa diye kayıtlar history.ttlSeconds (varsayılan 300) sonra yeniden yüklenir.
+ */
+public final class PatientTimelineCache implements AppointmentObserver, PatientTimelineCacheMBean {
+
+    private static PatientTimelineCache instance;
+
+    private final long maxWeight = Long.getLong("history.cacheKb", 4096) * 1024;
+    private final long ttlMs = Long.getLong("history.ttlSeconds", 300) * 1000;
+    private final FrequencySketch sketch = new FrequencySketch((int) Math.min(1 << 16, maxWeight / 2048));
+    private final LinkedHashMap<Integer, PatientTimeline> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<Integer, Long> loading = new HashMap<>();
+
+    private long weight;
+    private long loadSeq;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long rejected;
+    private long invalidations;
+
+    private PatientTimelineCache() { }
+
+    public static synchronized PatientTimelineCache getInstance() {
+        if (instance == null) {
+            instance = new PatientTimelineCache();
+            AppointmentSubject.getInstance().addObserver(instance);
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(instance,
+                        new ObjectName("hastane:type=PatientTimelineCache"));
+            } catch (JMException e) {
+                System.err.println("Hasta geçmişi önbelleği JMX'e kaydedilemedi: " + e.getMessage());
+            }
+        }
+        return instance;
+    }
+
+    // Önbellekte yoksa loader ile hastanın tüm geçmişi yüklenir (yükleme kilit dışında yapılır)
+    public PatientTimeline get(int patientId, IntFunction<List<String[]>> loader) {
+        long token;
+        synchronized (this) {
+            sketch.increment(patientId);
+            PatientTimeline t = entries.get(patientId);
+            if (t != null && System.currentTimeMillis() - t.getLoadedAt() < ttlMs) {
+                hits++;
+                return t;
+            }
+            if (t != null) remove(patientId);
+            misses++;
+            token = ++loadSeq;
+            loading.put(patientId, token);
+        }
+        PatientTimeline loaded;
+        try {
+            loaded = PatientTimeline.of(patientId, loader.apply(patientId));
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                loading.remove(patientId, token);
+            }
+            throw e;
+        }
+        synchronized (this) {
+            // Yükleme sürerken hastanın bir randevusu değiştiyse sonuç eski olabilir, önbelleğe konmaz
+            if (loading.remove(patientId, token)) admit(loaded);
+        }
+        return loaded;
+    }
+
+    private void admit(PatientTimeline t) {
+        if (t.weight() > maxWeight) {
+            rejected++;
+            return;
+        }
+        remove(t.getPatientId());
+        int freq = sketch.frequency(t.getPatientId());
+        List<Integer> victims = new ArrayList<>();
+        long freed = 0;
+        Iterator<Map.Entry<Integer, PatientTimeline>> it = entries.entrySet().iterator();
+        while (weight - freed + t.weight() > maxWeight && it.hasNext()) {
+            Map.Entry<Integer, PatientTimeline> e = it.next();
+            if (sketch.frequency(e.getKey()) >= freq) {
+                rejected++;
+                return;
+            }
+            victims.add(e.getKey());
+            freed += e.getValue().weight();
+        }
+        for (Integer id : victims) {
+            remove(id);
+            evictions++;
+        }
+        entries.put(t.getPatientId(), t);
+        weight += t.weight();
+    }
+
+    private void remove(int patientId) {
+        PatientTimeline old = entries.remove(patientId);
+        if (old != null) weight -= old.weight();
+    }
+
+    public synchronized void invalidate(int patientId) {
+        if (entries.containsKey(patientId) || loading.containsKey(patientId)) invalidations++;
+        remove(patientId);
+        loading.remove(patientId);
+    }
+
+    @Override
+    public void onAppointmentChanged() {
+        clear();
+    }
+
+    // Muayene kaydı geçmiş satırlarını değiştirmez
+    @Override
+    public void onAppointmentChanged(AppointmentEvent event) {
+        if (event.getType() == AppointmentEvent.Type.EXAM_SAVED) return;
+        invalidate(event.getPatientId());
+    }
+
+    @Override
+    public synchronized void clear() {
+        entries.clear();
+        loading.clear();
+        weight = 0;
+    }
+
+    @Override public synchronized long getHitCount() { return hits; }
+    @Override public synchronized long getMissCount() { return misses; }
+    @Override public synchronized long getEvictionCount() { return evictions; }
+    @Override public synchronized long getRejectedCount() { return rejected; }
+    @Override public synchronized long getInvalidationCount() { return invalidations; }
+    @Override public synchronized int getEntryCount() { return entries.size(); }
+    @Override public synchronized long getWeightBytes() { return weight; }
+    @Override public long getMaxWeightBytes() { return maxWeight; }
+
+    @Override
+    public synchronized double getHitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%d kayıt, %d / %d KB, isabet %%%.1f (%d / %d), %d çıkarılan, %d reddedilen, %d geçersiz",
+                entries.size(), weight / 1024, maxWeight / 1024, getHitRatio() * 100, hits, hits + misses,
+                evictions, rejected, invalidations);
+    }
+}
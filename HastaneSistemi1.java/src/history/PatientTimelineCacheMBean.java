@@ -0,0 +1,15 @@
+package history;
+
+// JMX'te hastane:type=PatientTimelineCache adıyla görünür (jconsole / VisualVM)
+public interface PatientTimelineCacheMBean {
+    long getHitCount();
+    long getMissCount();
+    double getHitRatio();
+    long getEvictionCount();
+    long getRejectedCount();
+    long getInvalidationCount();
+    int getEntryCount();
+    long getWeightBytes();
+    long getMaxWeightBytes();
+    void clear();
+}
@@ -0,0 +1,283 @@
+package journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Randevu yazımlarının yerel diskte tutulan, yalnızca sona eklenen kaydı.
+ * Kayıt düzeni: [uzunluk][zaman][randevu id][işlem][önce][sonra][crc32].
+ * Eklemeler tek bir yazıcı thread'inde toplanır ve her parti için tek bir force() yapılır. Dolan segment kapatılıp
+ * yenisi açılır; kapatılan segmentler değiştirilmez. Dizinde etkin segment dahil en yeni journal.retainSegments
+ * (varsayılan 64) segment tutulur, daha eskileri journal.archiveDir verildiyse oraya taşınır, verilmediyse silinir;
+ * 0 sınırsız saklar. replay dizinde kalan segmentleri okur.
+ */
+public class AppointmentJournal {
+
+    private static final AppointmentJournal instance = new AppointmentJournal();
+    public static AppointmentJournal getInstance() { return instance; }
+
+    private static final int MAX_VALUE_BYTES = 16 * 1024;
+    private static final int MAX_BATCH = 512;
+    private static final int HEADER_BYTES = 4;
+    private static final int TRAILER_BYTES = 4;
+
+    private final boolean enabled = Boolean.parseBoolean(System.getProperty("journal.enabled", "true"));
+    private final Path dir = Path.of(System.getProperty("journal.dir", "journal"));
+    private final int segmentBytes = Integer.getInteger("journal.segmentBytes", 16 * 1024 * 1024);
+    private final int retainSegments = Integer.getInteger("journal.retainSegments", 64);
+    private final String archiveDir = System.getProperty("journal.archiveDir");
+
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+
+    private Path activePath;
+    private FileChannel activeChannel;
+    private MappedByteBuffer active;
+    private long nextSegment;
+    private Thread writer;
+    private volatile boolean running;
+
+    private AppointmentJournal() {
+        if (!enabled) return;
+        try {
+            Files.createDirectories(dir);
+            List<Path> segments = listSegments();
+            if (segments.isEmpty()) {
+                openSegment(0);
+            } else {
+                Path last = segments.get(segments.size() - 1);
+                nextSegment = segmentNumber(last);
+                openSegment(nextSegment);
+                active.position(scanEnd(active));
+            }
+            retain();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        running = true;
+        writer = new Thread(this::writeLoop, "appointment-journal");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close));
+    }
+
+    public CompletableFuture<Void> append(int appointmentId, JournalRecord.Op op, String before, String after) {
+        if (!enabled || !running) return CompletableFuture.completedFuture(null);
+        Pending p = new Pending(new JournalRecord(System.currentTimeMillis(), appointmentId, op, before, after));
+        queue.add(p);
+        return p.done;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>(MAX_BATCH);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+
+                for (Pending p : batch) write(encode(p.record));
+                active.force();
+                for (Pending p : batch) p.done.complete(null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                // Hata her eklemenin future'ına iletilir; raporlamak ekleyene kalır
+                for (Pending p : batch) p.done.completeExceptionally(e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(ByteBuffer record) throws IOException {
+        if (active.remaining() < record.remaining() + HEADER_BYTES) roll();
+        active.put(record);
+    }
+
+    private void roll() throws IOException {
+        if (active.remaining() >= HEADER_BYTES) active.putInt(0);
+        active.force();
+        activeChannel.close();
+        openSegment(nextSegment + 1);
+        retain();
+    }
+
+    // Saklama sınırını aşan en eski kapalı segmentler arşive taşınır ya da silinir. Başaramazsa (ör. Windows'ta
+    // replay'in eşlemesi dosyayı tutuyorsa) eklemeler etkilenmez; bir sonraki segment değişiminde yeniden denenir.
+    private void retain() {
+        if (retainSegments <= 0) return;
+        try {
+            List<Path> segments = listSegments();
+            for (Path p : segments.subList(0, Math.max(0, segments.size() - retainSegments))) {
+                if (p.equals(activePath)) break;
+                if (archiveDir == null) {
+                    Files.deleteIfExists(p);
+                } else {
+                    Path target = Files.createDirectories(Path.of(archiveDir));
+                    Files.move(p, target.resolve(p.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Eski günlük segmentleri kaldırılamadı: " + e.getMessage());
+        }
+    }
+
+    private void openSegment(long number) throws IOException {
+        nextSegment = number;
+        activePath = dir.resolve(String.format("segment-%010d.jnl", number));
+        activeChannel = FileChannel.open(activePath,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        active = activeChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+    }
+
+    private static ByteBuffer encode(JournalRecord r) {
+        byte[] before = bytes(r.getBefore());
+        byte[] after = bytes(r.getAfter());
+        int bodyLen = 8 + 4 + 1 + 2 + len(before) + 2 + len(after);
+
+        ByteBuffer b = ByteBuffer.allocate(HEADER_BYTES + bodyLen + TRAILER_BYTES);
+        b.putInt(bodyLen);
+        b.putLong(r.getTimestamp());
+        b.putInt(r.getAppointmentId());
+        b.put((byte) r.getOp().ordinal());
+        putValue(b, before);
+        putValue(b, after);
+
+        CRC32 crc = new CRC32();
+        crc.update(b.array(), HEADER_BYTES, bodyLen);
+        b.putInt((int) crc.getValue());
+        return b.flip();
+    }
+
+    // Geçerli bir kayıt değilse (sona gelindi, yarım yazım) null döner
+    private static JournalRecord decode(ByteBuffer b) {
+        if (b.remaining() < HEADER_BYTES) return null;
+        int start = b.position();
+        int bodyLen = b.getInt();
+        if (bodyLen <= 0 || b.remaining() < bodyLen + TRAILER_BYTES) {
+            b.position(start);
+            return null;
+        }
+        byte[] body = new byte[bodyLen];
+        b.get(body);
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        if ((int) crc.getValue() != b.getInt()) {
+            b.position(start);
+            return null;
+        }
+
+        ByteBuffer in = ByteBuffer.wrap(body);
+        long ts = in.getLong();
+        int id = in.getInt();
+        JournalRecord.Op op = JournalRecord.Op.values()[in.get()];
+        return new JournalRecord(ts, id, op, getValue(in), getValue(in));
+    }
+
+    // Sınırı aşan değer bir karakterin ortasından bölünmesin diye UTF-8 devam baytlarından (10xxxxxx) geri çekilerek kesilir
+    private static byte[] bytes(String s) {
+        if (s == null) return null;
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        if (b.length <= MAX_VALUE_BYTES) return b;
+        int cut = MAX_VALUE_BYTES;
+        while (cut > 0 && (b[cut] & 0xC0) == 0x80) cut--;
+        return Arrays.copyOf(b, cut);
+    }
+
+    private static int len(byte[] b) {
+        return b == null ? 0 : b.length;
+    }
+
+    private static void putValue(ByteBuffer b, byte[] v) {
+        b.putShort((short) (v == null ? -1 : v.length));
+        if (v != null) b.put(v);
+    }
+
+    private static String getValue(ByteBuffer b) {
+        int n = b.getShort();
+        if (n < 0) return null;
+        byte[] v = new byte[n];
+        b.get(v);
+        return new String(v, StandardCharsets.UTF_8);
+    }
+
+    private static int scanEnd(ByteBuffer segment) {
+        ByteBuffer b = segment.duplicate();
+        b.position(0);
+        while (decode(b) != null) { }
+        return b.position();
+    }
+
+    public void replay(Consumer<JournalRecord> consumer) {
+        if (!enabled) return;
+        try {
+            for (Path p : listSegments()) {
+                try (FileChannel ch = FileChannel.open(p, StandardOpenOption.READ)) {
+                    ByteBuffer b = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+                    JournalRecord r;
+                    while ((r = decode(b)) != null) consumer.accept(r);
+                } catch (NoSuchFileException e) {
+                    // Liste alındıktan sonra saklama sınırı nedeniyle kaldırıldı
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private List<Path> listSegments() throws IOException {
+        if (!Files.isDirectory(dir)) return new ArrayList<>();
+        try (Stream<Path> s = Files.list(dir)) {
+            return s.filter(p -> p.getFileName().toString().matches("segment-\\d+\\.jnl"))
+                    .sorted()
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    private static long segmentNumber(Path p) {
+        String n = p.getFileName().toString();
+        return Long.parseLong(n.substring("segment-".length(), n.length() - ".jnl".length()));
+    }
+
+    public void close() {
+        if (!running) return;
+        running = false;
+        try {
+            writer.join(2000);
+            active.force();
+            activeChannel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.err.println("Randevu günlüğü kapatılamadı: " + e.getMessage());
+        }
+    }
+
+    private static class Pending {
+        final JournalRecord record;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Pending(JournalRecord record) {
+            this.record = record;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package journal;
+
+public class JournalRecord {
+
+    public enum Op { CREATE, CANCEL, RESCHEDULE, STATE, EXAM }
+
+    private final long timestamp;
+    private final int appointmentId;
+    private final Op op;
+    private final String before;
+    private final String after;
+
+    public JournalRecord(long timestamp, int appointmentId, Op op, String before, String after) {
+        this.timestamp = timestamp;
+        this.appointmentId = appointmentId;
+        this.op = op;
+        this.before = before;
+        this.after = after;
+    }
+
+    public long getTimestamp() { return timestamp; }
+    public int getAppointmentId() { return appointmentId; }
+    public Op getOp() { return op; }
+    public String getBefore() { return before; }
+    public String getAfter() { return after; }
+
+    @Override
+    public String toString() {
+        return timestamp + " #" + appointmentId + " " + op + " [" + before + "] -> [" + after + "]";
+    }
+}
@@ -1,13 +1,52 @@
 package main;
 
+import archive.AppointmentArchiver;
 import db.DatabaseManager;
+import drug.DrugCatalog;
+import observer.ChangeFeed;
+import reminder.OutboxFileSink;
+import reference.ReferenceData;
+import reminder.ReminderService;
+import slot.SlotHorizonJob;
 import ui.LoginScreen;
+import util.StartupMetrics;
+import waitlist.WaitlistService;
+import watchdog.EdtWatchdog;
 
 import javax.swing.*;
+import java.nio.file.Path;
 
 public class HastaneSistemi {
     public static void main(String[] args) {
-        DatabaseManager.getInstance();
-        SwingUtilities.invokeLater(() -> new LoginScreen().setVisible(true));
+        EdtWatchdog.install();
+        // Giriş penceresi veritabanını beklemez; bağlantı, şema kontrolü ve servisler arka planda hazırlanır
+        SwingUtilities.invokeLater(LoginScreen::new);
+
+        Thread warmup = new Thread(HastaneSistemi::warmUp, "startup-warmup");
+        warmup.setDaemon(true);
+        warmup.start();
+    }
+
+    private static void warmUp() {
+        // Branş / doktor rehberi yerel kopyadan; veritabanı gelmeden hazır olur
+        ReferenceData.getInstance();
+        StartupMetrics.mark("reference-snapshot");
+        try {
+            DatabaseManager db = DatabaseManager.getInstance();
+            db.getPool().prefill(Integer.getInteger("startup.warmConnections", 2));
+            StartupMetrics.mark(StartupMetrics.DB_READY);
+
+            new AppointmentArchiver().start();
+            new SlotHorizonJob().start();
+            ChangeFeed.getInstance().start();
+            WaitlistService.getInstance().start();
+            ReferenceData.getInstance().start();
+            ReminderService.getInstance().start(new OutboxFileSink(Path.of(System.getProperty("reminders.outbox", "outbox"))));
+            StartupMetrics.mark("services-started");
+            DrugCatalog.getInstance();
+        } catch (Exception e) {
+            // Giriş denemesi bağlantıyı yeniden dener ve hatayı kullanıcıya gösterir
+            System.err.println("Veritabanı hazırlanamadı: " + e.getMessage());
+        }
     }
 }
@@ -0,0 +1,39 @@
+package model;
+
+import slot.SlotKey;
+import state.AppointmentState;
+
+import java.time.LocalDate;
+
+public class Appointment {
+    private final int id;
+    private final int patientId;
+    private final int doctorId;
+    private final int slot;
+    private final AppointmentState state;
+    private final int version;
+
+    public Appointment(int id, int patientId, int doctorId, int slot, AppointmentState state, int version) {
+        this.id = id;
+        this.patientId = patientId;
+        this.doctorId = doctorId;
+        this.slot = slot;
+        this.state = state;
+        this.version = version;
+    }
+
+    public int getId() { return id; }
+    public int getPatientId() { return patientId; }
+    public int getDoctorId() { return doctorId; }
+    // SlotKey anahtarı; tarih ve saat bundan türetilir
+    public int getSlot() { return slot; }
+    public LocalDate getDate() { return SlotKey.date(slot); }
+    public String getTime() { return SlotKey.formatTime(slot); }
+    public AppointmentState getState() { return state; }
+    public int getVersion() { return version; }
+
+    @Override
+    public String toString() {
+        return SlotKey.toString(slot) + " " + state;
+    }
+}
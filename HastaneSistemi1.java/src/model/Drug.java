@@ -0,0 +1,22 @@
+package model;
+
+public class Drug {
+    private final String name;
+    private final String activeIngredient;
+    private final String form;
+
+    public Drug(String name, String activeIngredient, String form) {
+        this.name = name;
+        this.activeIngredient = activeIngredient;
+        this.form = form;
+    }
+
+    public String getName() { return name; }
+    public String getActiveIngredient() { return activeIngredient; }
+    public String getForm() { return form; }
+
+    @Override
+    public String toString() {
+        return name + " - " + form + " (" + activeIngredient + ")";
+    }
+}
@@ -0,0 +1,20 @@
+package model;
+
+public class ExamRecord {
+    private final int appointmentId;
+    private final String note;
+    private final String prescription;
+    private final int version;
+
+    public ExamRecord(int appointmentId, String note, String prescription, int version) {
+        this.appointmentId = appointmentId;
+        this.note = note;
+        this.prescription = prescription;
+        this.version = version;
+    }
+
+    public int getAppointmentId() { return appointmentId; }
+    public String getNote() { return note == null ? "" : note; }
+    public String getPrescription() { return prescription == null ? "" : prescription; }
+    public int getVersion() { return version; }
+}
@@ -0,0 +1,23 @@
+package model;
+
+public class PrescriptionLine {
+    private final int lineNo;
+    private final String drugName;
+    private final String activeIngredient;
+    private final String form;
+    private final String instructions;
+
+    public PrescriptionLine(int lineNo, String drugName, String activeIngredient, String form, String instructions) {
+        this.lineNo = lineNo;
+        this.drugName = drugName;
+        this.activeIngredient = activeIngredient;
+        this.form = form;
+        this.instructions = instructions;
+    }
+
+    public int getLineNo() { return lineNo; }
+    public String getDrugName() { return drugName; }
+    public String getActiveIngredient() { return activeIngredient; }
+    public String getForm() { return form; }
+    public String getInstructions() { return instructions; }
+}
@@ -0,0 +1,67 @@
+package model;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Takvim istisnası: doktor izni / yarım gün (doctorId dolu), branş kapanışı (branch dolu) ya da
+ * hastane geneli resmi tatil (ikisi de boş). Saatler boşsa istisna günlerin tamamını kapsar.
+ */
+public class ScheduleException {
+
+    public enum Kind { IZIN, YARIM_GUN, RESMI_TATIL, BRANS_KAPALI }
+
+    private final int id;
+    private final Integer doctorId;
+    private final String branch;
+    private final LocalDate dateFrom;
+    private final LocalDate dateTo;
+    private final LocalTime timeFrom;
+    private final LocalTime timeTo;
+    private final Kind kind;
+    private final String description;
+
+    public ScheduleException(int id, Integer doctorId, String branch, LocalDate dateFrom, LocalDate dateTo,
+                             LocalTime timeFrom, LocalTime timeTo, Kind kind, String description) {
+        this.id = id;
+        this.doctorId = doctorId;
+        this.branch = branch;
+        this.dateFrom = dateFrom;
+        this.dateTo = dateTo;
+        this.timeFrom = timeFrom;
+        this.timeTo = timeTo;
+        this.kind = kind;
+        this.description = description;
+    }
+
+    public int getId() { return id; }
+    public Integer getDoctorId() { return doctorId; }
+    public String getBranch() { return branch; }
+    public LocalDate getDateFrom() { return dateFrom; }
+    public LocalDate getDateTo() { return dateTo; }
+    public LocalTime getTimeFrom() { return timeFrom; }
+    public LocalTime getTimeTo() { return timeTo; }
+    public Kind getKind() { return kind; }
+    public String getDescription() { return description; }
+
+    public boolean isFullDay() {
+        return timeFrom == null;
+    }
+
+    public String getKindLabel() {
+        return switch (kind) {
+            case IZIN -> "Doktor izinli";
+            case YARIM_GUN -> "Yarım gün";
+            case RESMI_TATIL -> "Resmi tatil";
+            case BRANS_KAPALI -> "Branş kapalı";
+        };
+    }
+
+    @Override
+    public String toString() {
+        String range = dateFrom.equals(dateTo) ? dateFrom.toString() : dateFrom + " - " + dateTo;
+        if (!isFullDay()) range += " " + timeFrom + "-" + timeTo;
+        String text = getKindLabel() + " (" + range + ")";
+        return description == null || description.isBlank() ? text : text + ": " + description;
+    }
+}
@@ -0,0 +1,47 @@
+package model;
+
+import slot.SlotKey;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+public class WaitlistEntry {
+    private final int id;
+    private final int patientId;
+    private final Integer doctorId;
+    private final String branch;
+    private final LocalDate dateFrom;
+    private final LocalDate dateTo;
+    private final LocalTime timeFrom;
+    private final LocalTime timeTo;
+    private final int minuteFrom;
+    private final int minuteTo;
+
+    public WaitlistEntry(int id, int patientId, Integer doctorId, String branch,
+                         LocalDate dateFrom, LocalDate dateTo, LocalTime timeFrom, LocalTime timeTo) {
+        this.id = id;
+        this.patientId = patientId;
+        this.doctorId = doctorId;
+        this.branch = branch;
+        this.dateFrom = dateFrom;
+        this.dateTo = dateTo;
+        this.timeFrom = timeFrom;
+        this.timeTo = timeTo;
+        this.minuteFrom = SlotKey.minuteOf(timeFrom);
+        this.minuteTo = SlotKey.minuteOf(timeTo);
+    }
+
+    public int getId() { return id; }
+    public int getPatientId() { return patientId; }
+    public Integer getDoctorId() { return doctorId; }
+    public String getBranch() { return branch; }
+    public LocalDate getDateFrom() { return dateFrom; }
+    public LocalDate getDateTo() { return dateTo; }
+    public LocalTime getTimeFrom() { return timeFrom; }
+    public LocalTime getTimeTo() { return timeTo; }
+
+    // minuteOfDay: 0-1439
+    public boolean accepts(int minuteOfDay) {
+        return minuteOfDay >= minuteFrom && minuteOfDay < minuteTo;
+    }
+}
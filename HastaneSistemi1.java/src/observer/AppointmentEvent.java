@@ -0,0 +1,65 @@
+package observer;
+
+import slot.SlotKey;
+import state.AppointmentState;
+
+import java.time.LocalDate;
+
+public class AppointmentEvent {
+
+    public enum Type { CREATED, CANCELLED, RESCHEDULED, STATE_CHANGED, EXAM_SAVED }
+
+    public static final int NO_SLOT = -1;
+
+    private final Type type;
+    private final int appointmentId;
+    private final int patientId;
+    private final int doctorId;
+    private final int slot;
+    private final AppointmentState state;
+    private final int previousSlot;
+    private final long revision;
+    private final boolean remote;
+
+    public AppointmentEvent(Type type, int appointmentId, int patientId, int doctorId,
+                            int slot, AppointmentState state, int previousSlot,
+                            long revision, boolean remote) {
+        this.type = type;
+        this.appointmentId = appointmentId;
+        this.patientId = patientId;
+        this.doctorId = doctorId;
+        this.slot = slot;
+        this.state = state;
+        this.previousSlot = previousSlot;
+        this.revision = revision;
+        this.remote = remote;
+    }
+
+    public Type getType() { return type; }
+    public int getAppointmentId() { return appointmentId; }
+    public int getPatientId() { return patientId; }
+    public int getDoctorId() { return doctorId; }
+    public int getSlot() { return slot; }
+    public LocalDate getDate() { return SlotKey.date(slot); }
+    public AppointmentState getState() { return state; }
+    // Taşımada eski slot; yoksa NO_SLOT
+    public int getPreviousSlot() { return previousSlot; }
+    public long getRevision() { return revision; }
+    public boolean isRemote() { return remote; }
+
+    // Randevunun boşalttığı slot: iptalde kendi saati, taşımada eski saati
+    public boolean freesSlot() {
+        return type == Type.CANCELLED
+                || type == Type.RESCHEDULED
+                || (type == Type.STATE_CHANGED && state == AppointmentState.IPTAL);
+    }
+
+    public int freedSlot() {
+        return type == Type.RESCHEDULED ? previousSlot : slot;
+    }
+
+    @Override
+    public String toString() {
+        return type + " #" + appointmentId + " r" + revision + (remote ? " (uzak)" : "");
+    }
+}
@@ -1,5 +1,9 @@
 package observer;
 
 public interface AppointmentObserver {
-    void onAppointmentChanged();
+    void onAppointmentChanged(AppointmentEvent event);
+
+    // Olay ayrıntısı gerekmeyen yenileme; AppointmentSubject çağırmaz, gözlemci kendisi kullanmıyorsa bir şey yapmaz
+    default void onAppointmentChanged() {
+    }
 }
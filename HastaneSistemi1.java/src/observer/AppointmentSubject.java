@@ -1,18 +1,23 @@
 package observer;
 
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class AppointmentSubject {
     private static final AppointmentSubject instance = new AppointmentSubject();
     public static AppointmentSubject getInstance() { return instance; }
 
-    private final List<AppointmentObserver> observers = new ArrayList<>();
+    private final List<AppointmentObserver> observers = new CopyOnWriteArrayList<>();
 
     public void addObserver(AppointmentObserver o) {
         observers.add(o);
     }
 
-    public void notifyObservers() {
-        observers.forEach(AppointmentObserver::onAppointmentChanged);
+    public void removeObserver(AppointmentObserver o) {
+        observers.remove(o);
+    }
+
+    public void notifyObservers(AppointmentEvent event) {
+        observers.forEach(o -> o.onAppointmentChanged(event));
     }
 }
@@ -0,0 +1,197 @@
+package observer;
+
+import db.DatabaseManager;
+import db.DbConfig;
+import db.Dialect;
+import db.Shard;
+import model.Appointment;
+import slot.SlotKey;
+import state.AppointmentState;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aynı veritabanına bağlı farklı makinelerdeki istemcilerin birbirinin değişikliklerini görmesini sağlar.
+ * Her randevu yazımı appointment_changes tablosuna artan bir revizyonla kaydedilir; poller yalnızca
+ * son görülen revizyondan sonraki satırları çeker ve bunları yerel AppointmentEvent olarak yayınlar.
+ * Parçalı kurulumda değişiklik randevunun parçasına yazılır; poller her parçayı kendi bağlantısı ve son
+ * revizyonuyla ayrı izler.
+ */
+public class ChangeFeed {
+
+    private static final ChangeFeed instance = new ChangeFeed();
+    public static ChangeFeed getInstance() { return instance; }
+
+    // Eşzamanlı transaction'lar auto-increment değerlerini sırasız commit edebilir; geride kalanları
+    // kaçırmamak için her sorgu son revizyonun biraz gerisinden başlar ve tekrarlar elenir
+    private static final int LOOKBACK = 100;
+    private static final int MAX_ROWS = 500;
+    private static final int RECENT_CAPACITY = 2000;
+
+    private final String origin = UUID.randomUUID().toString();
+    private final Dialect dialect = DbConfig.getInstance().getDialect();
+    private final long pollMs = Long.getLong("feed.pollMs", 2000L);
+    private final int retentionHours = Integer.getInteger("feed.retentionHours", 24);
+
+    private ScheduledExecutorService scheduler;
+    private Source[] sources;
+
+    private ChangeFeed() { }
+
+    public String getOrigin() { return origin; }
+
+    public long record(Connection conn, AppointmentEvent.Type type, int appointmentId, Appointment previous)
+            throws SQLException {
+        String sql = """
+            INSERT INTO appointment_changes (appointment_id, op, origin, prev_date, prev_time)
+            VALUES (?,?,?,?,?)
+        """;
+        try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            ps.setInt(1, appointmentId);
+            ps.setString(2, type.name());
+            ps.setString(3, origin);
+            ps.setDate(4, previous == null ? null : SlotKey.sqlDate(previous.getSlot()));
+            ps.setTime(5, previous == null ? null : SlotKey.sqlTime(SlotKey.minute(previous.getSlot())));
+            ps.executeUpdate();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                return keys.next() ? keys.getLong(1) : -1;
+            }
+        }
+    }
+
+    public synchronized void start() {
+        if (scheduler != null) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "change-feed-poller");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::pollSafely, pollMs, pollMs, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler == null) return;
+        scheduler.shutdownNow();
+        scheduler = null;
+        if (sources != null) {
+            for (Source src : sources) src.closeQuietly();
+        }
+    }
+
+    private void pollSafely() {
+        if (sources == null) {
+            List<Shard> shards = DatabaseManager.getInstance().getRouter().shards();
+            sources = new Source[shards.size()];
+            for (int i = 0; i < sources.length; i++) sources[i] = new Source(shards.get(i));
+        }
+        for (Source src : sources) {
+            try {
+                src.poll();
+            } catch (SQLException e) {
+                System.err.println("Değişiklik akışı okunamadı (" + src.shard + "): " + e.getMessage());
+                src.closeQuietly();
+            }
+        }
+    }
+
+    // Bir parçanın değişiklik tablosunu izleyen bağlantı ve durum; yalnızca poller thread'inden kullanılır
+    private final class Source {
+        final Shard shard;
+        final Set<Long> recent = Collections.newSetFromMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+                return size() > RECENT_CAPACITY;
+            }
+        });
+        Connection pollConn;
+        long lastSeen = -1;
+        long lastPurge;
+
+        Source(Shard shard) {
+            this.shard = shard;
+        }
+
+        void poll() throws SQLException {
+            if (pollConn == null || pollConn.isClosed()) pollConn = shard.openConnection();
+
+            if (lastSeen < 0) {
+                try (Statement st = pollConn.createStatement();
+                     ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(revision),0) FROM appointment_changes")) {
+                    rs.next();
+                    lastSeen = rs.getLong(1);
+                }
+                return;
+            }
+
+            String sql = """
+                SELECT c.revision, c.op, c.appointment_id, c.origin, c.prev_date, %s,
+                       a.patient_id, a.doctor_id, a.date, %s, a.state_code
+                FROM appointment_changes c
+                LEFT JOIN appointments a ON a.id=c.appointment_id
+                WHERE c.revision > ?
+                ORDER BY c.revision
+                LIMIT ?
+            """.formatted(dialect.minuteOfDay("c.prev_time"), dialect.minuteOfDay("a.time"));
+            List<AppointmentEvent> events = new ArrayList<>();
+            try (PreparedStatement ps = pollConn.prepareStatement(sql)) {
+                ps.setLong(1, Math.max(0, lastSeen - LOOKBACK));
+                ps.setInt(2, MAX_ROWS);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        long revision = rs.getLong(1);
+                        lastSeen = Math.max(lastSeen, revision);
+                        if (!recent.add(revision)) continue;
+                        if (origin.equals(rs.getString(4))) continue;
+                        if (rs.getObject(7) == null) continue;
+
+                        Date prevDate = rs.getDate(5);
+                        events.add(new AppointmentEvent(
+                                AppointmentEvent.Type.valueOf(rs.getString(2)),
+                                rs.getInt(3),
+                                rs.getInt(7),
+                                rs.getInt(8),
+                                SlotKey.of(rs.getDate(9).toLocalDate(), rs.getInt(10)),
+                                AppointmentState.ofCode(rs.getInt(11)),
+                                prevDate == null ? AppointmentEvent.NO_SLOT : SlotKey.of(prevDate.toLocalDate(), rs.getInt(6)),
+                                revision,
+                                true));
+                    }
+                }
+            }
+
+            AppointmentSubject subject = AppointmentSubject.getInstance();
+            for (AppointmentEvent e : events) subject.notifyObservers(e);
+
+            purgeIfDue();
+        }
+
+        private void purgeIfDue() throws SQLException {
+            long now = System.currentTimeMillis();
+            if (now - lastPurge < TimeUnit.HOURS.toMillis(1)) return;
+            lastPurge = now;
+            try (PreparedStatement ps = pollConn.prepareStatement(
+                    "DELETE FROM appointment_changes WHERE changed_at < ?")) {
+                ps.setTimestamp(1, new Timestamp(now - TimeUnit.HOURS.toMillis(retentionHours)));
+                ps.executeUpdate();
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                if (pollConn != null) pollConn.close();
+            } catch (SQLException ignored) {
+            }
+            pollConn = null;
+        }
+    }
+}
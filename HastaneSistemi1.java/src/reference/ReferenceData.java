@@ -0,0 +1,253 @@
+package reference;
+
+import dao.ShardedUserDAO;
+import db.ConnectionPool;
+import db.DatabaseManager;
+import db.DbConfig;
+import model.Doctor;
+import strategy.HourlyWorkingHourStrategy;
+import strategy.WorkingHourStrategy;
+import util.TurkishText;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.text.Collator;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Branş listesi, doktor rehberi ve derlenmiş çalışma saatleri. Açılışta veritabanına gitmeden yerel kopyadan
+ * (reference.file, varsayılan reference.snap) yüklenir; ardından arka planda yalnızca kopyanın sürümünden beri
+ * değişen doktorlar (doctors.ref_updated_at) çekilip birleştirilir ve kopya yeniden yazılır. Birleşmiş rehberdeki
+ * doktor sayısı veritabanındakiyle tutmazsa (silinen doktor) rehber baştan yüklenir.
+ * Yenileme reference.refreshMinutes (varsayılan 10) dakikada bir tekrarlanır. Parçalı kurulumda sayım ve delta
+ * bütün parçalardan toplanır.
+ */
+public final class ReferenceData {
+
+    private static ReferenceData instance;
+
+    // Geç commit edilen güncellemeler kaçmasın diye delta sorgusu sürümün biraz gerisinden başlar
+    private static final long LOOKBACK_MS = TimeUnit.MINUTES.toMillis(5);
+    private static final Collator TR = Collator.getInstance(TurkishText.TR);
+
+    private final Path file = Path.of(System.getProperty("reference.file", "reference.snap"));
+    private final long refreshMinutes = Long.getLong("reference.refreshMinutes", 10L);
+    private final int source = sourceOf(DbConfig.getInstance());
+    private final WorkingHourStrategy strategy = new HourlyWorkingHourStrategy();
+
+    private volatile View view;
+    private ScheduledExecutorService worker;
+
+    private ReferenceData() { }
+
+    public static synchronized ReferenceData getInstance() {
+        if (instance == null) {
+            instance = new ReferenceData();
+            instance.loadSnapshot();
+        }
+        return instance;
+    }
+
+    public synchronized void start() {
+        if (worker != null) return;
+        worker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "reference-data");
+            t.setDaemon(true);
+            return t;
+        });
+        worker.scheduleWithFixedDelay(this::refreshQuietly, 0, refreshMinutes, TimeUnit.MINUTES);
+    }
+
+    public synchronized void stop() {
+        if (worker == null) return;
+        worker.shutdownNow();
+        worker = null;
+    }
+
+    // Bu istemcide yapılan değişiklik bir sonraki turu beklemeden çekilir
+    public synchronized void invalidate() {
+        if (worker != null) worker.execute(this::refreshQuietly);
+    }
+
+    public boolean isLoaded() {
+        return view != null;
+    }
+
+    public long getVersion() {
+        View v = view;
+        return v == null ? -1 : v.version;
+    }
+
+    public List<String> getAllBranches() {
+        return current().branches;
+    }
+
+    public List<Doctor> getDoctorsByBranch(String branch) {
+        return Collections.unmodifiableList(current().byBranch.getOrDefault(branch, List.of()));
+    }
+
+    public Doctor getDoctor(int doctorId) {
+        View v = current();
+        Integer i = v.index.get(doctorId);
+        return i == null ? null : v.doctors.get(i);
+    }
+
+    // Slot başlangıçları, dakika cinsinden (SlotKey.minute); doktor yoksa ya da saat tanımsızsa boş
+    public int[] getSchedule(int doctorId) {
+        View v = current();
+        Integer i = v.index.get(doctorId);
+        return i == null ? new int[0] : v.schedules.get(i).clone();
+    }
+
+    // Ad, soyad ya da branşında aranan metin geçen doktorlar; büyük/küçük harf ve Türkçe karakter ayrımı yok
+    public List<Doctor> searchDoctors(String q) {
+        View v = current();
+        String key = TurkishText.normalize(q);
+        List<Doctor> out = new ArrayList<>();
+        for (int i = 0; i < v.doctors.size(); i++) {
+            if (v.searchKeys[i].contains(key)) out.add(v.doctors.get(i));
+        }
+        return out;
+    }
+
+    // Kopya yoksa (ilk açılış) çağıran thread tam yüklemeyi bekler
+    private View current() {
+        View v = view;
+        if (v != null) return v;
+        try {
+            refresh();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return view;
+    }
+
+    // Kopya bu veritabanlarına aittir; parça eklenip çıkarılınca eski kopya kullanılmaz
+    private static int sourceOf(DbConfig config) {
+        List<String> urls = new ArrayList<>();
+        for (DbConfig.ShardSpec s : config.getShards()) urls.add(s.url());
+        return String.join(",", urls).hashCode();
+    }
+
+    private void loadSnapshot() {
+        try {
+            ReferenceSnapshot s = ReferenceSnapshot.read(file, source);
+            if (s != null) view = new View(s.version, s.doctors, s.schedules, s.branches);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Başvuru verisi kopyası okunamadı (" + file + "): " + e.getMessage());
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("Başvuru verisi güncellenemedi: " + e.getMessage());
+        }
+    }
+
+    synchronized void refresh() throws SQLException {
+        ConnectionPool pool = DatabaseManager.getInstance().getPool();
+        Connection c;
+        try {
+            c = pool.borrow(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        View next;
+        try {
+            ShardedUserDAO dao = new ShardedUserDAO(0, c);
+            long[] stamp = dao.getDoctorStamp();
+            View old = view;
+            if (old == null) {
+                next = compile(stamp[1], dao.getDoctorsUpdatedSince(null));
+            } else {
+                List<Doctor> changed = dao.getDoctorsUpdatedSince(new Timestamp(old.version - LOOKBACK_MS));
+                next = merge(old, Math.max(old.version, stamp[1]), changed);
+                if (next != null && next.doctors.size() != stamp[0]) {
+                    next = compile(stamp[1], dao.getDoctorsUpdatedSince(null));
+                }
+            }
+        } finally {
+            pool.release(c);
+        }
+        if (next == null) return;
+        view = next;
+        try {
+            new ReferenceSnapshot(next.version, next.doctors, next.schedules, next.branches).write(file, source);
+        } catch (IOException e) {
+            System.err.println("Başvuru verisi kopyası yazılamadı (" + file + "): " + e.getMessage());
+        }
+    }
+
+    // null: değişen bir şey yok
+    private View merge(View old, long version, List<Doctor> changed) {
+        Map<Integer, Doctor> byId = new LinkedHashMap<>();
+        for (Doctor d : old.doctors) byId.put(d.getId(), d);
+        boolean dirty = version != old.version;
+        for (Doctor d : changed) {
+            Doctor prev = byId.put(d.getId(), d);
+            if (prev == null || !same(prev, d)) dirty = true;
+        }
+        return dirty ? compile(version, new ArrayList<>(byId.values())) : null;
+    }
+
+    private View compile(long version, List<Doctor> doctors) {
+        List<Doctor> sorted = new ArrayList<>(doctors);
+        sorted.sort(Comparator.comparing(Doctor::getName, TR).thenComparing(Doctor::getSurname, TR));
+        List<int[]> schedules = new ArrayList<>(sorted.size());
+        for (Doctor d : sorted) {
+            int[] minutes;
+            try {
+                minutes = strategy.generate(d.getWorkingHours());
+            } catch (RuntimeException e) {
+                minutes = new int[0];
+            }
+            schedules.add(minutes);
+        }
+        TreeSet<String> branches = new TreeSet<>(TR);
+        for (Doctor d : sorted) branches.add(d.getBranch());
+        return new View(version, sorted, schedules, new ArrayList<>(branches));
+    }
+
+    private static boolean same(Doctor a, Doctor b) {
+        return Objects.equals(a.getName(), b.getName()) && Objects.equals(a.getSurname(), b.getSurname())
+                && Objects.equals(a.getUsername(), b.getUsername()) && Objects.equals(a.getTc(), b.getTc())
+                && Objects.equals(a.getBranch(), b.getBranch()) && Objects.equals(a.getClinic(), b.getClinic())
+                && Objects.equals(a.getWorkingHours(), b.getWorkingHours());
+    }
+
+    // Değişmez; yenileme yeni bir View kurup tek atamayla yayınlar
+    private static final class View {
+        final long version;
+        final List<Doctor> doctors;
+        final List<int[]> schedules;
+        final List<String> branches;
+        final Map<Integer, Integer> index = new HashMap<>();
+        final Map<String, List<Doctor>> byBranch = new HashMap<>();
+        final String[] searchKeys;
+
+        View(long version, List<Doctor> doctors, List<int[]> schedules, List<String> branches) {
+            this.version = version;
+            this.doctors = List.copyOf(doctors);
+            this.schedules = List.copyOf(schedules);
+            this.branches = List.copyOf(branches);
+            searchKeys = new String[doctors.size()];
+            for (int i = 0; i < doctors.size(); i++) {
+                Doctor d = doctors.get(i);
+                index.put(d.getId(), i);
+                byBranch.computeIfAbsent(d.getBranch(), b -> new ArrayList<>()).add(d);
+                // Alanlar arasına normalize edilmiş metinde geçemeyecek bir ayraç konur; arama alan sınırını aşmaz
+                searchKeys[i] = TurkishText.normalize(d.getName()) + '\u0000' + TurkishText.normalize(d.getSurname())
+                        + '\u0000' + TurkishText.normalize(d.getBranch());
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package reference;
+
+import model.Doctor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Başvuru verisinin diskteki ikili kopyası. Düzen:
+ * [magic][biçim][kaynak][sürüm][doktor sayısı]{id, ad, soyad, kullanıcı adı, tc, branş, poliklinik,
+ * çalışma saatleri, slot sayısı, slot dakikaları}[branş sayısı]{branş}[crc32].
+ * Metinler [uzunluk (short, -1 null)][UTF-8] olarak yazılır. Okuma dosyayı salt okunur eşler; crc tutmayan,
+ * başka veritabanına ait ya da eski biçimli dosya yok sayılır.
+ */
+final class ReferenceSnapshot {
+
+    private static final int MAGIC = 0x48524653; // "HRFS"
+    private static final int FORMAT = 1;
+
+    final long version;
+    final List<Doctor> doctors;
+    final List<int[]> schedules;
+    final List<String> branches;
+
+    ReferenceSnapshot(long version, List<Doctor> doctors, List<int[]> schedules, List<String> branches) {
+        this.version = version;
+        this.doctors = doctors;
+        this.schedules = schedules;
+        this.branches = branches;
+    }
+
+    // null: dosya yok ya da kullanılamaz
+    static ReferenceSnapshot read(Path file, int source) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < 28 || size > Integer.MAX_VALUE) return null;
+            MappedByteBuffer b = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            CRC32 crc = new CRC32();
+            crc.update(b.slice(0, (int) size - 4));
+            if ((int) crc.getValue() != b.getInt((int) size - 4)) return null;
+            if (b.getInt() != MAGIC || b.getInt() != FORMAT || b.getInt() != source) return null;
+
+            long version = b.getLong();
+            int n = b.getInt();
+            List<Doctor> doctors = new ArrayList<>(n);
+            List<int[]> schedules = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                doctors.add(new Doctor(b.getInt(), string(b), string(b), string(b), string(b),
+                        string(b), string(b), string(b)));
+                int[] minutes = new int[b.get() & 0xFF];
+                for (int j = 0; j < minutes.length; j++) minutes[j] = b.getShort();
+                schedules.add(minutes);
+            }
+            int m = b.getInt();
+            List<String> branches = new ArrayList<>(m);
+            for (int i = 0; i < m; i++) branches.add(string(b));
+            return new ReferenceSnapshot(version, doctors, schedules, branches);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    // Önce geçici dosyaya yazılır, sonra yerine taşınır; yarım kalan yazım eski kopyayı bozmaz
+    void write(Path file, int source) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(estimate());
+        b.putInt(MAGIC).putInt(FORMAT).putInt(source).putLong(version).putInt(doctors.size());
+        for (int i = 0; i < doctors.size(); i++) {
+            Doctor d = doctors.get(i);
+            b.putInt(d.getId());
+            putString(b, d.getName());
+            putString(b, d.getSurname());
+            putString(b, d.getUsername());
+            putString(b, d.getTc());
+            putString(b, d.getBranch());
+            putString(b, d.getClinic());
+            putString(b, d.getWorkingHours());
+            int[] minutes = schedules.get(i);
+            b.put((byte) minutes.length);
+            for (int minute : minutes) b.putShort((short) minute);
+        }
+        b.putInt(branches.size());
+        for (String branch : branches) putString(b, branch);
+        CRC32 crc = new CRC32();
+        crc.update(b.array(), 0, b.position());
+        b.putInt((int) crc.getValue());
+        b.flip();
+
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                while (b.hasRemaining()) ch.write(b);
+                ch.force(true);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private int estimate() {
+        int size = 28 + 4;
+        for (int i = 0; i < doctors.size(); i++) {
+            Doctor d = doctors.get(i);
+            size += 4 + 1 + 2 * schedules.get(i).length;
+            size += len(d.getName()) + len(d.getSurname()) + len(d.getUsername()) + len(d.getTc())
+                    + len(d.getBranch()) + len(d.getClinic()) + len(d.getWorkingHours());
+        }
+        for (String branch : branches) size += len(branch);
+        return size;
+    }
+
+    private static int len(String s) {
+        return 2 + (s == null ? 0 : s.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    private static void putString(ByteBuffer b, String s) {
+        if (s == null) {
+            b.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        b.putShort((short) bytes.length);
+        b.put(bytes);
+    }
+
+    private static String string(ByteBuffer b) {
+        int n = b.getShort();
+        if (n < 0) return null;
+        byte[] bytes = new byte[n];
+        b.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,36 @@
+package reminder;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Gerçek SMS/e-posta entegrasyonu yerine hatırlatmaları günlük bir outbox dosyasına yazar
+public class OutboxFileSink implements ReminderSink {
+
+    private final Path dir;
+
+    public OutboxFileSink(Path dir) {
+        this.dir = dir;
+    }
+
+    @Override
+    public void deliver(List<Reminder> batch) throws IOException {
+        Files.createDirectories(dir);
+        Path file = dir.resolve("reminders-" + LocalDate.now() + ".txt");
+        try (BufferedWriter w = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (Reminder r : batch) {
+                w.write(LocalDateTime.now() + "\t" + r.getKind() + "\t#" + r.getAppointmentId()
+                        + "\thasta=" + r.getPatientId() + "\t" + (r.getContact() == null ? "" : r.getContact())
+                        + "\t" + r.getDate() + " " + r.getTime());
+                w.newLine();
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package reminder;
+
+import slot.SlotKey;
+
+import java.time.LocalDate;
+
+public class Reminder {
+
+    public enum Kind { BEFORE_24H, BEFORE_2H }
+
+    private final int appointmentId;
+    private final int patientId;
+    private final int doctorId;
+    private final int slot;
+    private final Kind kind;
+    private String contact;
+    private int attempts;
+
+    public Reminder(int appointmentId, int patientId, int doctorId, int slot, Kind kind) {
+        this.appointmentId = appointmentId;
+        this.patientId = patientId;
+        this.doctorId = doctorId;
+        this.slot = slot;
+        this.kind = kind;
+    }
+
+    public int getAppointmentId() { return appointmentId; }
+    public int getPatientId() { return patientId; }
+    public int getDoctorId() { return doctorId; }
+    public int getSlot() { return slot; }
+    public LocalDate getDate() { return SlotKey.date(slot); }
+    public String getTime() { return SlotKey.formatTime(slot); }
+    public Kind getKind() { return kind; }
+    public String getContact() { return contact; }
+    void setContact(String contact) { this.contact = contact; }
+    int getAttempts() { return attempts; }
+    void incrementAttempts() { attempts++; }
+}
@@ -0,0 +1,184 @@
+package reminder;
+
+import dao.ShardedAppointmentDAO;
+import dao.UserDAO;
+import db.DatabaseManager;
+import model.Appointment;
+import observer.AppointmentEvent;
+import observer.AppointmentObserver;
+import observer.AppointmentSubject;
+import slot.SlotKey;
+import state.AppointmentState;
+import timer.HierarchicalTimingWheel;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AKTIF randevular için 24 saat ve 2 saat önce hatırlatma gönderir. Zamanlayıcılar tek bir
+ * hiyerarşik zaman çarkında tutulur; randevu değişince ilgili zamanlayıcılar iptal edilip yeniden kurulur.
+ * Aynı hatırlatmanın birden çok istemciden gitmemesi için yalnızca -Dreminders.enabled=true verilen
+ * düğümde çalışır.
+ */
+public class ReminderService implements AppointmentObserver {
+
+    private static final ReminderService instance = new ReminderService();
+    public static ReminderService getInstance() { return instance; }
+
+    private final boolean enabled = Boolean.getBoolean("reminders.enabled");
+    private final int batchSize = Integer.getInteger("reminders.batchSize", 100);
+    private final long flushMs = Long.getLong("reminders.flushMs", 1000L);
+    private final int maxAttempts = Integer.getInteger("reminders.maxAttempts", 5);
+
+    private final Map<Integer, HierarchicalTimingWheel.Timeout[]> timers = new ConcurrentHashMap<>();
+    private final BlockingQueue<Reminder> outbox = new LinkedBlockingQueue<>();
+
+    private HierarchicalTimingWheel wheel;
+    private ReminderSink sink;
+    private Thread dispatcher;
+    private Connection conn;
+
+    private ReminderService() { }
+
+    public synchronized void start(ReminderSink sink) {
+        if (!enabled || wheel != null) return;
+        this.sink = sink;
+        wheel = new HierarchicalTimingWheel(1000, "reminder-wheel");
+        dispatcher = new Thread(this::dispatchLoop, "reminder-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+
+        AppointmentSubject.getInstance().addObserver(this);
+        try (Connection c = DatabaseManager.getInstance().openConnection()) {
+            for (Appointment a : new ShardedAppointmentDAO(0, c).getActiveFrom(LocalDate.now())) {
+                schedule(a.getId(), a.getPatientId(), a.getDoctorId(), a.getSlot());
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public synchronized void stop() {
+        if (wheel == null) return;
+        AppointmentSubject.getInstance().removeObserver(this);
+        wheel.stop();
+        dispatcher.interrupt();
+        wheel = null;
+        timers.clear();
+    }
+
+    public int pendingTimers() {
+        return wheel == null ? 0 : wheel.pending();
+    }
+
+    @Override
+    public void onAppointmentChanged(AppointmentEvent e) {
+        if (wheel == null) return;
+        switch (e.getType()) {
+            case CREATED, RESCHEDULED -> {
+                if (e.getState() == AppointmentState.AKTIF)
+                    schedule(e.getAppointmentId(), e.getPatientId(), e.getDoctorId(), e.getSlot());
+            }
+            case CANCELLED -> cancel(e.getAppointmentId());
+            case STATE_CHANGED -> {
+                if (e.getState() != AppointmentState.AKTIF) cancel(e.getAppointmentId());
+            }
+            default -> { }
+        }
+    }
+
+    private void schedule(int appointmentId, int patientId, int doctorId, int slot) {
+        cancel(appointmentId);
+        long at = SlotKey.date(slot).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                + TimeUnit.MINUTES.toMillis(SlotKey.minute(slot));
+        long now = System.currentTimeMillis();
+
+        HierarchicalTimingWheel.Timeout[] pair = new HierarchicalTimingWheel.Timeout[2];
+        Reminder.Kind[] kinds = Reminder.Kind.values();
+        long[] offsets = {TimeUnit.HOURS.toMillis(24), TimeUnit.HOURS.toMillis(2)};
+        for (int i = 0; i < 2; i++) {
+            long fireAt = at - offsets[i];
+            if (fireAt <= now) continue;
+            Reminder r = new Reminder(appointmentId, patientId, doctorId, slot, kinds[i]);
+            boolean last = i == 1;
+            pair[i] = wheel.schedule(fireAt, () -> {
+                outbox.add(r);
+                if (last) timers.remove(appointmentId, pair);
+            });
+        }
+        if (pair[0] != null || pair[1] != null) timers.put(appointmentId, pair);
+    }
+
+    private void cancel(int appointmentId) {
+        HierarchicalTimingWheel.Timeout[] pair = timers.remove(appointmentId);
+        if (pair == null) return;
+        for (HierarchicalTimingWheel.Timeout t : pair) {
+            if (t != null) t.cancel();
+        }
+    }
+
+    private void dispatchLoop() {
+        List<Reminder> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Reminder first = outbox.poll(flushMs, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                // Kısa bir bekleme ile aynı saniyede düşen hatırlatmaları tek partide topla
+                Thread.sleep(Math.min(flushMs, 200));
+                outbox.drainTo(batch, batchSize - 1);
+                deliver(batch);
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void deliver(List<Reminder> batch) {
+        try {
+            UserDAO users = new UserDAO(connection());
+            for (Reminder r : batch) {
+                if (r.getContact() == null) r.setContact(users.getContactInfo(r.getPatientId()));
+            }
+            sink.deliver(batch);
+        } catch (IOException | SQLException | RuntimeException e) {
+            if (e instanceof SQLException) closeQuietly();
+            for (Reminder r : batch) retry(r, e);
+        }
+    }
+
+    private void retry(Reminder r, Exception cause) {
+        r.incrementAttempts();
+        if (r.getAttempts() >= maxAttempts) {
+            System.err.println("Hatırlatma gönderilemedi (#" + r.getAppointmentId() + "): " + cause.getMessage());
+            return;
+        }
+        long backoff = TimeUnit.SECONDS.toMillis(1L << r.getAttempts());
+        wheel.scheduleAfter(backoff, TimeUnit.MILLISECONDS, () -> outbox.add(r));
+    }
+
+    private Connection connection() throws SQLException {
+        if (conn == null || conn.isClosed()) conn = DatabaseManager.getInstance().openConnection();
+        return conn;
+    }
+
+    private void closeQuietly() {
+        try {
+            if (conn != null) conn.close();
+        } catch (SQLException ignored) {
+        }
+        conn = null;
+    }
+}
@@ -0,0 +1,9 @@
+package reminder;
+
+import java.io.IOException;
+import java.util.List;
+
+// SMS / e-posta sağlayıcıları bu arayüzü uygular; bir parti tamamen teslim edilemezse IOException fırlatılır
+public interface ReminderSink {
+    void deliver(List<Reminder> batch) throws IOException;
+}
@@ -0,0 +1,122 @@
+package slot;
+
+import dao.SlotDAO;
+import db.DatabaseManager;
+import db.ShardRouter;
+import timer.HierarchicalTimingWheel;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Hastanın seçtiği saati randevuyu onaylayana kadar (slots.holdSeconds, varsayılan 120) başkalarına kapatır.
+ * Tutmanın kendisi slots satırındadır; süresi geçen tutma sorgularda zaten boş sayılır. Bu JVM'de açılan
+ * tutmaların süresi tek bir zaman çarkıyla izlenir: süre dolunca satır temizlenir ve ekrana haber verilir.
+ */
+public final class SlotHoldService {
+
+    public record Hold(int patientId, int doctorId, int slot, long expiresAt) {
+        public boolean isFor(int doctorId, int slot) {
+            return this.doctorId == doctorId && this.slot == slot;
+        }
+    }
+
+    private static SlotHoldService instance;
+
+    private final long ttlMs = TimeUnit.SECONDS.toMillis(Long.getLong("slots.holdSeconds", 120L));
+    private final HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(1000, "slot-hold-wheel");
+    private final Map<Integer, Active> active = new ConcurrentHashMap<>();
+
+    private SlotHoldService() { }
+
+    public static synchronized SlotHoldService getInstance() {
+        if (instance == null) instance = new SlotHoldService();
+        return instance;
+    }
+
+    public long getTtlMs() {
+        return ttlMs;
+    }
+
+    // null: saat bu arada alınmış ya da başka hastaca tutuluyor. Hastanın önceki tutması bırakılır.
+    // c birincil parçanın bağlantısıdır; doktor başka parçadaysa o parçanın havuzu kullanılır.
+    public Hold hold(Connection c, int patientId, int doctorId, int slot, Consumer<Hold> onExpire)
+            throws SQLException {
+        long until = System.currentTimeMillis() + ttlMs;
+        boolean held = onDoctorShard(c, doctorId, dc -> new SlotDAO(dc).hold(doctorId, slot, patientId, until));
+        // SlotDAO.hold önceki tutmayı yalnızca kendi parçasında bırakır
+        Hold previous = current(patientId);
+        if (previous != null && router().ofId(previous.doctorId()) != router().ofId(doctorId)) {
+            onDoctorShard(c, previous.doctorId(), pc -> {
+                new SlotDAO(pc).releaseHolds(patientId);
+                return null;
+            });
+        }
+        forget(patientId);
+        if (!held) return null;
+
+        Active a = new Active(new Hold(patientId, doctorId, slot, until));
+        active.put(patientId, a);
+        a.timeout = wheel.schedule(until, () -> expire(a, onExpire));
+        return a.hold;
+    }
+
+    // Randevu alındı: satırdaki tutma claim ile zaten temizlendi, yalnızca zamanlayıcı düşer
+    public void forget(int patientId) {
+        Active a = active.remove(patientId);
+        if (a != null && a.timeout != null) a.timeout.cancel();
+    }
+
+    // Hasta başka gün / doktora geçti ya da paneli kapattı
+    public void release(Connection c, int patientId) throws SQLException {
+        Hold h = current(patientId);
+        forget(patientId);
+        // Tutma yoksa birincil parçaya bakılır (ofId(0) birincildir)
+        onDoctorShard(c, h == null ? 0 : h.doctorId(), dc -> {
+            new SlotDAO(dc).releaseHolds(patientId);
+            return null;
+        });
+    }
+
+    public Hold current(int patientId) {
+        Active a = active.get(patientId);
+        return a == null ? null : a.hold;
+    }
+
+    // Çark thread'inde çalışır; bu JVM'deki tutma sayısı oturum başına bir olduğu için satır burada temizlenir
+    private void expire(Active a, Consumer<Hold> onExpire) {
+        Hold h = a.hold;
+        if (!active.remove(h.patientId(), a)) return;
+        try {
+            router().on(router().ofId(h.doctorId()), c -> {
+                new SlotDAO(c).expireHold(h.doctorId(), h.slot(), h.patientId());
+                return null;
+            });
+        } catch (RuntimeException e) {
+            System.err.println("Süresi dolan tutma temizlenemedi: " + e.getMessage());
+        }
+        if (onExpire != null) onExpire.accept(h);
+    }
+
+    private static ShardRouter router() {
+        return DatabaseManager.getInstance().getRouter();
+    }
+
+    private static <T> T onDoctorShard(Connection c, int doctorId, ShardRouter.Work<T> work) throws SQLException {
+        int shard = router().ofId(doctorId);
+        return shard == 0 ? work.run(c) : router().on(shard, work);
+    }
+
+    private static final class Active {
+        final Hold hold;
+        HierarchicalTimingWheel.Timeout timeout;
+
+        Active(Hold hold) {
+            this.hold = hold;
+        }
+    }
+}
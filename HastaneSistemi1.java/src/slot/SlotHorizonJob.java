@@ -0,0 +1,58 @@
+package slot;
+
+import dao.SlotDAO;
+import db.DatabaseManager;
+import db.Shard;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Slot envanterini her doktor için bugünden slots.horizonDays gün sonrasına kadar üretilmiş tutar ve
+ * geçmiş günlerin slotlarını siler. Ufkun ötesindeki tarihler yine de ilk sorgulandıklarında üretilir.
+ * Parçalı kurulumda her parça sırayla, kendi doktorlarıyla işlenir.
+ */
+public class SlotHorizonJob implements Runnable {
+
+    private final int horizonDays = Integer.getInteger("slots.horizonDays", 60);
+    private final long intervalHours = Long.getLong("slots.refreshHours", 6L);
+
+    private ScheduledExecutorService scheduler;
+
+    public synchronized void start() {
+        if (scheduler != null) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "slot-horizon");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this, 0, intervalHours, TimeUnit.HOURS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler == null) return;
+        scheduler.shutdownNow();
+        scheduler = null;
+    }
+
+    @Override
+    public void run() {
+        LocalDate today = LocalDate.now();
+        for (Shard shard : DatabaseManager.getInstance().getRouter().shards()) {
+            try (Connection conn = shard.openConnection()) {
+                SlotDAO slots = new SlotDAO(conn);
+                for (int doctorId : slots.getDoctorIds()) {
+                    slots.extendHorizon(doctorId, today.plusDays(horizonDays));
+                }
+                slots.purgeBefore(today);
+            } catch (SQLException | RuntimeException e) {
+                System.err.println("Slot envanteri güncellenemedi (" + shard + "): " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package slot;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Bir randevu saatinin tek int'e sıkıştırılmış hâli: epoch günü * 1440 + gün içindeki dakika. Anahtarlar tarih ve
+ * saate göre sıralanır, doğrudan hash'lenir; gün ve dakika bölme / kalanla geri alınır. Günün yalnızca saati
+ * gereken yerlerde (çalışma saatleri, bekleme aralığı) dakika (0-1439) tek başına kullanılır.
+ * "HH:mm" metni yalnızca ekranda ve API'de üretilir / çözülür.
+ */
+public final class SlotKey {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    // JDBC'ye bağlanan Time nesneleri; her sorguda yeniden üretilmez. Sürücüler parametreyi değiştirmez.
+    private static final Time[] SQL_TIMES = new Time[MINUTES_PER_DAY];
+    static {
+        for (int m = 0; m < MINUTES_PER_DAY; m++) SQL_TIMES[m] = Time.valueOf(LocalTime.of(m / 60, m % 60));
+    }
+
+    private SlotKey() { }
+
+    public static int of(long epochDay, int minuteOfDay) {
+        return Math.toIntExact(epochDay * MINUTES_PER_DAY + minuteOfDay);
+    }
+
+    public static int of(LocalDate date, int minuteOfDay) {
+        return of(date.toEpochDay(), minuteOfDay);
+    }
+
+    public static int of(LocalDate date, String hhmm) {
+        return of(date.toEpochDay(), parseMinute(hhmm));
+    }
+
+    public static long epochDay(int key) {
+        return Math.floorDiv(key, MINUTES_PER_DAY);
+    }
+
+    public static int minute(int key) {
+        return Math.floorMod(key, MINUTES_PER_DAY);
+    }
+
+    public static LocalDate date(int key) {
+        return LocalDate.ofEpochDay(epochDay(key));
+    }
+
+    public static Date sqlDate(int key) {
+        return Date.valueOf(date(key));
+    }
+
+    public static Time sqlTime(int minuteOfDay) {
+        return SQL_TIMES[minuteOfDay];
+    }
+
+    public static int minuteOf(LocalTime t) {
+        return t.getHour() * 60 + t.getMinute();
+    }
+
+    // "9:00", "09:00" ve "09:00:00" kabul edilir
+    public static int parseMinute(String hhmm) {
+        if (hhmm == null) throw new IllegalArgumentException("Saat boş");
+        String s = hhmm.trim();
+        int colon = s.indexOf(':');
+        if (colon < 1 || colon > 2 || s.length() < colon + 3) throw new IllegalArgumentException("Geçersiz saat: " + hhmm);
+        int h = digits(s, 0, colon), m = digits(s, colon + 1, colon + 3);
+        if (h < 0 || h > 23 || m < 0 || m > 59) throw new IllegalArgumentException("Geçersiz saat: " + hhmm);
+        return h * 60 + m;
+    }
+
+    public static String formatMinute(int minuteOfDay) {
+        int h = minuteOfDay / 60, m = minuteOfDay % 60;
+        return new String(new char[]{(char) ('0' + h / 10), (char) ('0' + h % 10), ':',
+                (char) ('0' + m / 10), (char) ('0' + m % 10)});
+    }
+
+    public static String formatTime(int key) {
+        return formatMinute(minute(key));
+    }
+
+    public static String toString(int key) {
+        return date(key) + " " + formatTime(key);
+    }
+
+    private static int digits(String s, int from, int to) {
+        int v = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            v = v * 10 + (c - '0');
+        }
+        return v;
+    }
+}
@@ -1,5 +1,5 @@
 package state;
 
-public class AktifState extends AppointmentState {
-    public String getStateName() { return "AKTIF"; }
+public final class AktifState extends AppointmentState {
+    AktifState() { super(1, "AKTIF"); }
 }
@@ -1,5 +1,75 @@
 package state;
 
+/**
+ * Randevu durumları. Her durumun tek örneği vardır; veritabanında adı yerine küçük bir kod (state_code) saklanır.
+ * Hangi durumdan hangisine geçilebileceği TRANSITIONS tablosundadır: AKTIF randevu tamamlanır, gelinmedi
+ * işaretlenir ya da iptal edilir; TAMAMLANDI ile GELMEDI birbirine düzeltilebilir; iptal edilen randevu geri açılmaz.
+ */
 public abstract class AppointmentState {
-    public abstract String getStateName();
+
+    public static final AppointmentState AKTIF = new AktifState();
+    public static final AppointmentState TAMAMLANDI = new TamamlandiState();
+    public static final AppointmentState GELMEDI = new GelmediState();
+    public static final AppointmentState IPTAL = new IptalState();
+
+    // Kod sırasıyla; kodlar 1'den başlar ki 0 / NULL bir duruma denk gelmesin
+    private static final AppointmentState[] BY_CODE = {null, AKTIF, TAMAMLANDI, GELMEDI, IPTAL};
+
+    // Satır mevcut, sütun yeni durumun kodu
+    private static final boolean[][] TRANSITIONS = {
+            {},
+            {false, false, true, true, true},
+            {false, false, false, true, false},
+            {false, false, true, false, false},
+            {false, false, false, false, false},
+    };
+
+    private final int code;
+    private final String name;
+
+    AppointmentState(int code, String name) {
+        this.code = code;
+        this.name = name;
+    }
+
+    public int getCode() { return code; }
+
+    public String getStateName() { return name; }
+
+    public boolean isActive() { return this == AKTIF; }
+
+    public boolean canTransitionTo(AppointmentState next) {
+        return TRANSITIONS[code][next.code];
+    }
+
+    public static AppointmentState ofCode(int code) {
+        if (code <= 0 || code >= BY_CODE.length) throw new IllegalArgumentException("Geçersiz durum kodu: " + code);
+        return BY_CODE[code];
+    }
+
+    public static AppointmentState ofName(String name) {
+        for (int i = 1; i < BY_CODE.length; i++) {
+            if (BY_CODE[i].name.equalsIgnoreCase(name)) return BY_CODE[i];
+        }
+        throw new IllegalArgumentException("Geçersiz durum: " + name);
+    }
+
+    // Sorgularda kodu tablo ve dışa aktarım için ada çeviren ifade
+    public static String nameSql(String column) {
+        StringBuilder sb = new StringBuilder("CASE ").append(column);
+        for (int i = 1; i < BY_CODE.length; i++) sb.append(" WHEN ").append(i).append(" THEN '").append(BY_CODE[i].name).append('\'');
+        return sb.append(" END").toString();
+    }
+
+    // Eski metin sütununu koda çeviren ifade; tanınmayan değer iptal sayılır ki slot tutmasın
+    public static String codeSql(String column) {
+        StringBuilder sb = new StringBuilder("CASE UPPER(").append(column).append(')');
+        for (int i = 1; i < BY_CODE.length; i++) sb.append(" WHEN '").append(BY_CODE[i].name).append("' THEN ").append(i);
+        return sb.append(" ELSE ").append(IPTAL.code).append(" END").toString();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
 }
@@ -1,5 +1,5 @@
 package state;
 
-public class GelmediState extends AppointmentState {
-    public String getStateName() { return "GELMEDI"; }
+public final class GelmediState extends AppointmentState {
+    GelmediState() { super(3, "GELMEDI"); }
 }
@@ -1,5 +1,5 @@
 package state;
 
-public class IptalState extends AppointmentState {
-    public String getStateName() { return "IPTAL"; }
+public final class IptalState extends AppointmentState {
+    IptalState() { super(4, "IPTAL"); }
 }
@@ -1,5 +1,5 @@
 package state;
 
-public class TamamlandiState extends AppointmentState {
-    public String getStateName() { return "TAMAMLANDI"; }
+public final class TamamlandiState extends AppointmentState {
+    TamamlandiState() { super(2, "TAMAMLANDI"); }
 }
@@ -1,10 +1,9 @@
 package strategy;
 
 import util.WorkingHoursUtil;
-import java.util.List;
 
 public class HourlyWorkingHourStrategy implements WorkingHourStrategy {
-    public List<String> generate(String workingHours) {
+    public int[] generate(String workingHours) {
         return WorkingHoursUtil.generateHourlySlots(workingHours);
     }
 }
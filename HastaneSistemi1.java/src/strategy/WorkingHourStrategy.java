@@ -1,7 +1,6 @@
 package strategy;
 
-import java.util.List;
-
 public interface WorkingHourStrategy {
-    List<String> generate(String workingHours);
+    // Gün içindeki slot başlangıçları, dakika cinsinden (slot.SlotKey.minute)
+    int[] generate(String workingHours);
 }
@@ -0,0 +1,196 @@
+package timer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Çok sayıda zamanlayıcıyı tek thread ve sabit sayıda kova ile yöneten hiyerarşik zaman çarkı.
+ * Her seviye bir alttakinin tam turunu kapsar; üst seviyedeki kayıtlar zamanı yaklaştıkça alt
+ * seviyelere indirilir. Ekleme ve iptal O(1), bekleyen kayıt başına yalnızca bir düğüm tutulur.
+ */
+public class HierarchicalTimingWheel {
+
+    private static final int BITS = 6;
+    private static final int WHEEL_SIZE = 1 << BITS;
+    private static final int MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 5;
+
+    private final long tickMs;
+    private final long startMs;
+    private final Bucket[][] wheels = new Bucket[LEVELS][WHEEL_SIZE];
+    private final Bucket overflow = new Bucket();
+    private final Thread driver;
+
+    private long currentTick;
+    private int pending;
+    private volatile boolean running = true;
+
+    public HierarchicalTimingWheel(long tickMs, String name) {
+        this.tickMs = tickMs;
+        this.startMs = System.currentTimeMillis();
+        for (Bucket[] wheel : wheels) {
+            for (int i = 0; i < WHEEL_SIZE; i++) wheel[i] = new Bucket();
+        }
+        driver = new Thread(this::run, name);
+        driver.setDaemon(true);
+        driver.start();
+    }
+
+    public Timeout schedule(long deadlineMs, Runnable task) {
+        Timeout t = new Timeout(this, Math.max(0, (deadlineMs - startMs + tickMs - 1) / tickMs), task);
+        boolean due;
+        synchronized (this) {
+            due = !place(t);
+            if (!due) pending++;
+        }
+        if (due) runTask(t);
+        return t;
+    }
+
+    public Timeout scheduleAfter(long delay, TimeUnit unit, Runnable task) {
+        return schedule(System.currentTimeMillis() + unit.toMillis(delay), task);
+    }
+
+    public synchronized int pending() {
+        return pending;
+    }
+
+    public void stop() {
+        running = false;
+        driver.interrupt();
+    }
+
+    // Süresi dolmuşsa false döner, çağıran görevi hemen çalıştırır
+    private boolean place(Timeout t) {
+        if (t.tick <= currentTick) return false;
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = BITS * (level + 1);
+            if ((t.tick >>> shift) == (currentTick >>> shift)) {
+                wheels[level][(int) ((t.tick >>> (BITS * level)) & MASK)].add(t);
+                return true;
+            }
+        }
+        overflow.add(t);
+        return true;
+    }
+
+    private void run() {
+        List<Timeout> due = new ArrayList<>();
+        while (running) {
+            try {
+                long target = (System.currentTimeMillis() - startMs) / tickMs;
+                synchronized (this) {
+                    while (currentTick < target) advance(due);
+                }
+                for (Timeout t : due) runTask(t);
+                due.clear();
+                Thread.sleep(tickMs);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void advance(List<Timeout> due) {
+        currentTick++;
+        if ((currentTick & ((1L << (BITS * LEVELS)) - 1)) == 0) cascade(overflow, due);
+        for (int level = LEVELS - 1; level >= 1; level--) {
+            if ((currentTick & ((1L << (BITS * level)) - 1)) == 0) {
+                cascade(wheels[level][(int) ((currentTick >>> (BITS * level)) & MASK)], due);
+            }
+        }
+        Bucket now = wheels[0][(int) (currentTick & MASK)];
+        for (Timeout t = now.drain(); t != null; ) {
+            Timeout next = t.next;
+            t.next = null;
+            pending--;
+            due.add(t);
+            t = next;
+        }
+    }
+
+    private void cascade(Bucket bucket, List<Timeout> due) {
+        for (Timeout t = bucket.drain(); t != null; ) {
+            Timeout next = t.next;
+            t.next = null;
+            if (!place(t)) {
+                pending--;
+                due.add(t);
+            }
+            t = next;
+        }
+    }
+
+    private static void runTask(Timeout t) {
+        if (t.cancelled) return;
+        try {
+            t.task.run();
+        } catch (RuntimeException e) {
+            System.err.println("Zamanlanmış görev başarısız: " + e.getMessage());
+        }
+    }
+
+    private synchronized void remove(Timeout t) {
+        if (t.bucket == null) return;
+        t.bucket.remove(t);
+        pending--;
+    }
+
+    public static class Timeout {
+        private final HierarchicalTimingWheel wheel;
+        private final long tick;
+        private final Runnable task;
+        private Bucket bucket;
+        private Timeout prev;
+        private Timeout next;
+        private volatile boolean cancelled;
+
+        private Timeout(HierarchicalTimingWheel wheel, long tick, Runnable task) {
+            this.wheel = wheel;
+            this.tick = tick;
+            this.task = task;
+        }
+
+        public void cancel() {
+            cancelled = true;
+            wheel.remove(this);
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private static class Bucket {
+        private Timeout head;
+
+        void add(Timeout t) {
+            t.bucket = this;
+            t.prev = null;
+            t.next = head;
+            if (head != null) head.prev = t;
+            head = t;
+        }
+
+        void remove(Timeout t) {
+            if (t.prev != null) t.prev.next = t.next;
+            else head = t.next;
+            if (t.next != null) t.next.prev = t.prev;
+            t.prev = null;
+            t.next = null;
+            t.bucket = null;
+        }
+
+        // Listeyi boşaltır ve başını döner; düğümler next ile gezilir
+        Timeout drain() {
+            Timeout h = head;
+            head = null;
+            for (Timeout t = h; t != null; t = t.next) {
+                t.bucket = null;
+                t.prev = null;
+            }
+            return h;
+        }
+    }
+}
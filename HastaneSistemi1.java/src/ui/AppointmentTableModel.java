@@ -0,0 +1,84 @@
+package ui;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * İlk sütunu randevu id'si olan satırları tutar. merge() yeni sonucu id üzerinden mevcut satırlarla
+ * karşılaştırır ve yalnızca değişen, eklenen veya silinen satırlar için olay üretir; böylece seçim ve
+ * kaydırma konumu yenilemeden etkilenmez.
+ */
+public class AppointmentTableModel extends AbstractTableModel {
+
+    private final String[] columns;
+    private final List<String[]> rows = new ArrayList<>();
+
+    public AppointmentTableModel(String[] columns) {
+        this.columns = columns;
+    }
+
+    @Override
+    public int getRowCount() { return rows.size(); }
+
+    @Override
+    public int getColumnCount() { return columns.length; }
+
+    @Override
+    public String getColumnName(int column) { return columns[column]; }
+
+    @Override
+    public Object getValueAt(int row, int column) { return rows.get(row)[column]; }
+
+    public String[] getRow(int row) { return rows.get(row); }
+
+    public void clear() {
+        int n = rows.size();
+        if (n == 0) return;
+        rows.clear();
+        fireTableRowsDeleted(0, n - 1);
+    }
+
+    public void merge(List<String[]> fresh) {
+        Set<String> freshIds = new HashSet<>();
+        for (String[] r : fresh) freshIds.add(r[0]);
+
+        for (int i = rows.size() - 1; i >= 0; i--) {
+            int end = i;
+            while (i >= 0 && !freshIds.contains(rows.get(i)[0])) i--;
+            if (i < end) {
+                rows.subList(i + 1, end + 1).clear();
+                fireTableRowsDeleted(i + 1, end);
+            }
+        }
+
+        for (int i = 0; i < fresh.size(); i++) {
+            String[] next = fresh.get(i);
+            if (i < rows.size() && rows.get(i)[0].equals(next[0])) {
+                if (!Arrays.equals(rows.get(i), next)) {
+                    rows.set(i, next);
+                    fireTableRowsUpdated(i, i);
+                }
+                continue;
+            }
+
+            int moved = indexOf(next[0], i + 1);
+            if (moved >= 0) {
+                rows.remove(moved);
+                fireTableRowsDeleted(moved, moved);
+            }
+            rows.add(i, next);
+            fireTableRowsInserted(i, i);
+        }
+    }
+
+    private int indexOf(String id, int from) {
+        for (int i = from; i < rows.size(); i++) {
+            if (rows.get(i)[0].equals(id)) return i;
+        }
+        return -1;
+    }
+}
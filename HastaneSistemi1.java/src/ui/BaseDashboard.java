@@ -1,7 +1,79 @@
 package ui;
 
+import db.ConnectionPool;
+import db.DatabaseManager;
+import util.Ui;
+
+import javax.swing.JButton;
 import javax.swing.JFrame;
+import javax.swing.JPasswordField;
+import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public abstract class BaseDashboard extends JFrame {
+
+    // Panel açılışındaki birbirinden bağımsız sorgular bu thread'lerde, havuzdan ayrı bağlantılarla paralel çalışır
+    private static final ExecutorService LOADERS = Executors.newFixedThreadPool(4, r -> {
+        Thread t = new Thread(r, "dashboard-loader");
+        t.setDaemon(true);
+        return t;
+    });
+
+    protected final long openedAt = System.currentTimeMillis();
+
+    protected interface DbTask<T> {
+        T run(Connection c) throws SQLException;
+    }
+
     protected abstract void loadData();
+
+    // Değişiklik akışı olayları arka plan thread'inden gelebilir; Swing bileşenlerine yalnızca EDT dokunur
+    protected void loadDataOnEdt() {
+        if (SwingUtilities.isEventDispatchThread()) loadData();
+        else SwingUtilities.invokeLater(this::loadData);
+    }
+
+    protected <T> CompletableFuture<T> loadAsync(DbTask<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            ConnectionPool pool = DatabaseManager.getInstance().getPool();
+            try {
+                Connection c = pool.borrow(10, TimeUnit.SECONDS);
+                try {
+                    return task.run(c);
+                } finally {
+                    pool.release(c);
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }, LOADERS);
+    }
+
+    // Profil ([iletişim, şifre]) yüklenene kadar alanlar ve kaydet düğmesi kapalı kalır; olay thread'i beklemez
+    protected void fillProfileWhenLoaded(CompletableFuture<String[]> profile,
+                                         JTextField contact, JPasswordField password, JButton save) {
+        contact.setEnabled(false);
+        password.setEnabled(false);
+        save.setEnabled(false);
+        profile.whenComplete((current, ex) -> SwingUtilities.invokeLater(() -> {
+            if (ex != null) {
+                Ui.err(this, "Profil yüklenemedi: " + ex.getMessage());
+                return;
+            }
+            contact.setText(current[0] == null ? "" : current[0]);
+            password.setText(current[1] == null ? "" : current[1]);
+            contact.setEnabled(true);
+            password.setEnabled(true);
+            save.setEnabled(true);
+        }));
+    }
 }
@@ -1,14 +1,28 @@
 package ui;
 
-import dao.AppointmentDAO;
-import dao.UserDAO;
+import calendar.ExceptionCalendar;
+import dao.ScheduleExceptionDAO;
+import dao.ShardedAppointmentDAO;
+import dao.ShardedUserDAO;
+import dao.UpdateResult;
+import drug.DrugCatalog;
+import db.DatabaseManager;
+import db.ShardRouter;
+import exam.ExamStore;
+import history.PatientTimelineCache;
+import model.Appointment;
 import model.Doctor;
+import model.ExamRecord;
+import model.PrescriptionLine;
+import model.ScheduleException;
+import observer.AppointmentEvent;
 import observer.AppointmentObserver;
 import observer.AppointmentSubject;
-import state.*;
+import state.AppointmentState;
 import strategy.HourlyWorkingHourStrategy;
 import strategy.WorkingHourStrategy;
 import template.AbstractViewTemplate;
+import util.StartupMetrics;
 import util.Ui;
 import util.WorkingHoursUtil;
 
@@ -16,19 +30,32 @@ import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
 public class DoctorDashboard extends BaseDashboard implements AppointmentObserver {
+    private static final int PREFETCH_ROWS = 3;
+
     private final Doctor doctor;
-    private final UserDAO userDAO = new UserDAO();
-    private final AppointmentDAO appointmentDAO = new AppointmentDAO();
+    private final ShardedUserDAO userDAO = new ShardedUserDAO();
+    private final ShardedAppointmentDAO appointmentDAO = new ShardedAppointmentDAO();
     private final WorkingHourStrategy workingHourStrategy = new HourlyWorkingHourStrategy();
 
-    private final DefaultTableModel appModel = new DefaultTableModel(new String[]{"ID","Hasta TC","Hasta","Tarih","Saat","Durum"}, 0);
+    private final AppointmentTableModel appModel = new AppointmentTableModel(new String[]{"ID","Hasta TC","Hasta","Tarih","Saat","Durum"});
     private final JTable appTable = new JTable(appModel);
+    private final JLabel lblExceptions = new JLabel(" ");
+
+    private LocalDate listFrom = LocalDate.now();
+    private LocalDate listTo = LocalDate.now();
 
     private JTextArea txtNote;
     private JTextArea txtPrescription;
+    private ExamRecord loadedExam;
+    private final ExamStore examStore = new ExamStore();
+    private CompletableFuture<String[]> profile;
 
     public DoctorDashboard(Doctor d) {
         this.doctor = d;
@@ -39,16 +66,18 @@ public class DoctorDashboard extends BaseDashboard implements AppointmentObserve
         setDefaultCloseOperation(EXIT_ON_CLOSE);
         setLayout(new BorderLayout());
 
-        JTabbedPane tabs = new JTabbedPane();
-        tabs.add("Randevular", buildAppointmentsTab());
+        // Muayene sekmesi randevu seçimine bağlı olduğu için hemen kurulur; diğerleri ilk açıldığında
+        LazyTabbedPane tabs = new LazyTabbedPane();
+        tabs.addLazyTab("Randevular", this::buildAppointmentsTab);
         tabs.add("Muayene / Reçete", buildExamTab());
-        tabs.add("Hasta Ara", buildPatientSearchTab());
-        tabs.add("Ayarlar", buildSettingsTab());
+        tabs.addLazyTab("Hasta Ara", this::buildPatientSearchTab);
+        tabs.addLazyTab("İzinler", this::buildLeaveTab);
+        tabs.addLazyTab("Ayarlar", this::buildSettingsTab);
 
         add(tabs, BorderLayout.CENTER);
 
         JButton logout = new JButton("Çıkış");
-        logout.addActionListener(e -> { new LoginScreen().setVisible(true); dispose(); });
+        logout.addActionListener(e -> { new LoginScreen(); dispose(); });
         add(logout, BorderLayout.SOUTH);
 
         AppointmentSubject.getInstance().addObserver(this);
@@ -56,7 +85,7 @@ public class DoctorDashboard extends BaseDashboard implements AppointmentObserve
         new AbstractViewTemplate() {
             @Override
             protected void loadData() {
-                loadDoctorAppointments(LocalDate.now(), LocalDate.now());
+                loadInitialData();
             }
 
             @Override
@@ -98,6 +127,7 @@ public class DoctorDashboard extends BaseDashboard implements AppointmentObserve
         bottom.add(btnNoShow);
         bottom.add(btnCancel);
         bottom.add(btnReload);
+        bottom.add(lblExceptions);
 
         root.add(bottom, BorderLayout.SOUTH);
 
@@ -119,11 +149,11 @@ public class DoctorDashboard extends BaseDashboard implements AppointmentObserve
             }
         });
 
-        btnReload.addActionListener(e -> loadDoctorAppointments(LocalDate.now(), LocalDate.now()));
+        btnReload.addActionListener(e -> loadDoctorAppointments(listFrom, listTo));
 
-        btnDone.addActionListener(e -> updateSelectedState(new TamamlandiState()));
-        btnNoShow.addActionListener(e -> updateSelectedState(new GelmediState()));
-        btnCancel.addActionListener(e -> updateSelectedState(new IptalState()));
+        btnDone.addActionListener(e -> updateSelectedState(AppointmentState.TAMAMLANDI));
+        btnNoShow.addActionListener(e -> updateSelectedState(AppointmentState.GELMEDI));
+        btnCancel.addActionListener(e -> updateSelectedState(AppointmentState.IPTAL));
 
         appTable.getSelectionModel().addListSelectionListener(e -> {
             if (!e.getValueIsAdjusting()) fillExamFieldsFromSelected();
@@ -132,9 +162,45 @@ public class DoctorDashboard extends BaseDashboard implements AppointmentObserve
         return root;
     }
 
+    // Günün randevuları ile ayarlar sekmesindeki profil bilgisi paralel yüklenir
+    private void loadInitialData() {
+        int id = doctor.getId();
+        LocalDate today = LocalDate.now();
+        CompletableFuture<List<String[]>> appointments =
+                loadAsync(c -> new ShardedAppointmentDAO(0, c).getByDoctorBetween(id, today, today));
+        profile = loadAsync(c -> {
+            ShardedUserDAO dao = new ShardedUserDAO(0, c);
+            return new String[]{dao.getContactInfo(id), dao.getPassword(id)};
+        });
+
+        appointments.whenComplete((rows, ex) -> SwingUtilities.invokeLater(() -> {
+            if (ex != null) {
+                Ui.err(this, "Randevular yüklenemedi: " + ex.getMessage());
+                return;
+            }
+            listFrom = today;
+            listTo = today;
+            appModel.merge(rows);
+            showExceptions(today, today);
+            prefetchExams(0);
+            StartupMetrics.screenReady(getClass().getSimpleName(), openedAt);
+        }));
+    }
+
     private void loadDoctorAppointments(LocalDate from, LocalDate to) {
-        appModel.setRowCount(0);
-        for (String[] r : appointmentDAO.getByDoctorBetween(doctor.getId(), from, to)) appModel.addRow(r);
+        if (!from.equals(listFrom) || !to.equals(listTo)) appModel.clear();
+        listFrom = from;
+        listTo = to;
+        appModel.merge(appointmentDAO.getByDoctorBetween(doctor.getId(), from, to));
+        showExceptions(from, to);
+        prefetchExams(Math.max(appTable.getSelectedRow(), 0));
+    }
+
+    // Listelenen aralıktaki izin / tatiller tablonun altında özetlenir
+    private void showExceptions(LocalDate from, LocalDate to) {
+        List<ScheduleException> list = ExceptionCalendar.getInstance().between(doctor.getId(), from, to);
+        lblExceptions.setText(list.isEmpty() ? " "
+                : list.stream().map(ScheduleException::toString).collect(Collectors.joining(" | ")));
     }
 
     private Integer getSelectedAppointmentId() {
@@ -144,10 +210,38 @@ public class DoctorDashboard extends BaseDashboard implements AppointmentObserve
     }
 
     private void updateSelectedState(AppointmentState newState) {
-        Integer id = getSelectedAppointmentId();
-        if (id == null) { Ui.err(this, "Bir randevu seç."); return; }
-        appointmentDAO.updateStateByDoctor(id, doctor.getId(), newState);
-        Ui.info(this, "Durum güncellendi: " + newState.getStateName());
+        int row = appTable.getSelectedRow();
+        if (row < 0) { Ui.err(this, "Bir randevu seç."); return; }
+        int id = Integer.parseInt(appModel.getRow(row)[0]);
+        int version = Integer.parseInt(appModel.getRow(row)[7]);
+        AppointmentState current = AppointmentState.ofName(appModel.getRow(row)[5]);
+        if (!current.canTransitionTo(newState)) {
+            Ui.err(this, current + " durumundaki randevu " + newState + " yapılamaz.");
+            return;
+        }
+
+        while (true) {
+            UpdateResult<Appointment> r;
+            try {
+                r = appointmentDAO.updateStateByDoctor(id, doctor.getId(), newState, version);
+            } catch (RuntimeException ex) {
+                Ui.err(this, ex.getMessage());
+                loadData();
+                return;
+            }
+            if (r.isApplied()) {
+                Ui.info(this, "Durum güncellendi: " + newState.getStateName());
+                return;
+            }
+            if (!r.isConflict()) { Ui.err(this, "Randevu bulunamadı."); return; }
+
+            int ok = JOptionPane.showConfirmDialog(this,
+                    "Randevu başka bir oturumda değiştirildi (şu an: " + r.getCurrent().getState() + ").\n"
+                            + "Yine de " + newState.getStateName() + " olarak güncellensin mi?",
+                    "Çakışma", JOptionPane.YES_NO_OPTION);
+            if (ok != JOptionPane.YES_OPTION) { loadData(); return; }
+            version = r.getVersion();
+        }
     }
 
     private JPanel buildExamTab() {
@@ -160,12 +254,13 @@ public class DoctorDashboard extends BaseDashboard implements AppointmentObserve
         JPanel center = new JPanel(new GridLayout(1,2,10,10));
         txtNote = new JTextArea();
         txtPrescription = new JTextArea();
+        PrescriptionAutocomplete.install(txtPrescription);
         center.add(new JScrollPane(txtNote));
         center.add(new JScrollPane(txtPrescription));
 
         JPanel labels = new JPanel(new GridLayout(1,2,10,10));
         labels.add(new JLabel("Muayene Notu"));
-        labels.add(new JLabel("Reçete"));
+        labels.add(new JLabel("Reçete (her satıra bir ilaç; yazmaya başlayınca öneri gelir)"));
 
         JPanel mid = new JPanel(new BorderLayout());
         mid.add(labels, BorderLayout.NORTH);
@@ -180,19 +275,116 @@ public class DoctorDashboard extends BaseDashboard implements AppointmentObserve
         return root;
     }
 
+    // Önbellekte olmayan muayene arka planda okunur; bu sırada alanlar yazmaya kapalıdır, kayıt geldiğinde seçim
+    // değişmemişse gösterilir
     private void fillExamFieldsFromSelected() {
         Integer id = getSelectedAppointmentId();
         if (id == null) return;
-        String[] np = appointmentDAO.getExam(id, doctor.getId());
-        txtNote.setText(np[0] == null ? "" : np[0]);
-        txtPrescription.setText(np[1] == null ? "" : np[1]);
+        ExamRecord cached = examStore.get(id);
+        if (cached != null) {
+            showExam(cached);
+        } else {
+            loadedExam = null;
+            txtNote.setText("");
+            txtPrescription.setText("");
+            setExamEditable(false);
+            int doctorId = doctor.getId();
+            loadAsync(c -> new ShardedAppointmentDAO(0, c).findExam(id, doctorId))
+                    .whenComplete((exam, ex) -> SwingUtilities.invokeLater(() -> {
+                        if (!id.equals(getSelectedAppointmentId())) return;
+                        if (ex != null) {
+                            setExamEditable(true);
+                            Ui.err(this, "Muayene kaydı yüklenemedi: " + ex.getMessage());
+                            return;
+                        }
+                        showExam(exam);
+                    }));
+        }
+        prefetchExams(appTable.getSelectedRow());
     }
 
+    // Seçilen satırın çevresindeki randevuların muayeneleri tek sorguyla arka planda önbelleğe alınır
+    private void prefetchExams(int row) {
+        int from = Math.max(0, row - PREFETCH_ROWS);
+        int to = Math.min(appModel.getRowCount(), row + PREFETCH_ROWS + 1);
+        List<Integer> ids = new ArrayList<>();
+        for (int i = from; i < to; i++) ids.add(Integer.parseInt(appModel.getRow(i)[0]));
+        List<Integer> missing = examStore.claimMissing(ids);
+        if (missing.isEmpty()) return;
+
+        int doctorId = doctor.getId();
+        loadAsync(c -> new ShardedAppointmentDAO(0, c).findExams(missing, doctorId)).whenComplete((found, ex) -> {
+            if (ex != null) examStore.abandon(missing);
+            else examStore.putAll(missing, found);
+        });
+    }
+
+    private void showExam(ExamRecord exam) {
+        loadedExam = exam;
+        examStore.put(exam);
+        txtNote.setText(exam == null ? "" : exam.getNote());
+        txtPrescription.setText(exam == null ? "" : exam.getPrescription());
+        setExamEditable(true);
+    }
+
+    private void setExamEditable(boolean editable) {
+        txtNote.setEditable(editable);
+        txtPrescription.setEditable(editable);
+    }
+
+    // Yazılanlar kayıttan önce okunur ve hekim açıkça "Hayır" demedikçe alanlardan silinmez
     private void saveExamForSelected() {
         Integer id = getSelectedAppointmentId();
         if (id == null) { Ui.err(this, "Önce randevu seç."); return; }
-        appointmentDAO.saveExam(id, doctor.getId(), txtNote.getText().trim(), txtPrescription.getText().trim());
-        Ui.info(this, "Muayene notu & reçete kaydedildi.");
+
+        String note = txtNote.getText().trim();
+        String prescription = txtPrescription.getText().trim();
+        ExamRecord base = loadedExam;
+        if (base == null || base.getAppointmentId() != id) {
+            // Alanlar bu randevunun kaydıyla doldurulmadan yazıldı: güncel sürüme kaydedilir, kayıtta farklı bir
+            // içerik varsa önce sorulur
+            base = appointmentDAO.findExam(id, doctor.getId());
+            if (base == null) { Ui.err(this, "Randevu bulunamadı."); return; }
+            boolean stored = !text(base.getNote()).isEmpty() || !text(base.getPrescription()).isEmpty();
+            boolean same = text(base.getNote()).equals(note) && text(base.getPrescription()).equals(prescription);
+            if (stored && !same && !confirmOverwrite("Bu randevunun kayıtlı notu ekrandakinden farklı.", base)) return;
+        }
+        int version = base.getVersion();
+        // Katalogla eşleşen reçete satırları metinle birlikte yazılır
+        List<PrescriptionLine> lines = DrugCatalog.getInstance().parse(prescription);
+
+        while (true) {
+            UpdateResult<ExamRecord> r = appointmentDAO.saveExam(id, doctor.getId(), note, prescription, lines, version);
+            if (r.isApplied()) {
+                loadedExam = r.getCurrent();
+                examStore.put(loadedExam);
+                setExamEditable(true);
+                Ui.info(this, "Muayene notu & reçete kaydedildi.");
+                return;
+            }
+            if (!r.isConflict()) { Ui.err(this, "Randevu bulunamadı."); return; }
+
+            ExamRecord current = r.getCurrent();
+            if (!confirmOverwrite("Bu randevunun notu başka bir oturumda değiştirildi.", current)) return;
+            version = r.getVersion();
+        }
+    }
+
+    // Evet: yazılanlar güncel kaydın üzerine yazılır. Hayır: hekimin seçimiyle güncel kayıt alanlara getirilir.
+    private boolean confirmOverwrite(String reason, ExamRecord current) {
+        int ok = JOptionPane.showConfirmDialog(this,
+                reason + "\n\n"
+                        + "Güncel not: " + current.getNote() + "\n"
+                        + "Güncel reçete: " + current.getPrescription() + "\n\n"
+                        + "Sizin yazdıklarınız üzerine yazılsın mı? (Hayır: güncel kaydı göster)",
+                "Çakışma", JOptionPane.YES_NO_OPTION);
+        if (ok == JOptionPane.YES_OPTION) return true;
+        showExam(current);
+        return false;
+    }
+
+    private static String text(String s) {
+        return s == null ? "" : s.trim();
     }
 
     private JPanel buildPatientSearchTab() {
@@ -217,7 +409,7 @@ public class DoctorDashboard extends BaseDashboard implements AppointmentObserve
         filter.add(new JLabel("Bitiş:")); filter.add(to);
         filter.add(btnList);
 
-        DefaultTableModel rm = new DefaultTableModel(new String[]{"ID","Doktor","Branş","Tarih","Saat","Durum"}, 0);
+        AppointmentTableModel rm = new AppointmentTableModel(new String[]{"ID","Doktor","Branş","Tarih","Saat","Durum"});
         JTable rt = new JTable(rm);
 
         JPanel center = new JPanel(new GridLayout(2,1,10,10));
@@ -249,8 +441,89 @@ public class DoctorDashboard extends BaseDashboard implements AppointmentObserve
                 return;
             }
 
-            rm.setRowCount(0);
-            for (String[] r : appointmentDAO.getByPatientBetween(patientId, f, tt)) rm.addRow(r);
+            rm.merge(PatientTimelineCache.getInstance().get(patientId, appointmentDAO::getByPatient).between(f, tt));
+        });
+
+        return root;
+    }
+
+    private JPanel buildLeaveTab() {
+        JPanel root = new JPanel(new BorderLayout());
+        ScheduleExceptionDAO exceptionDAO = new ScheduleExceptionDAO();
+
+        DefaultTableModel m = new DefaultTableModel(new String[]{"ID","Tür","Başlangıç","Bitiş","Saat","Açıklama"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) { return false; }
+        };
+        JTable t = new JTable(m);
+        root.add(new JScrollPane(t), BorderLayout.CENTER);
+
+        JTextField from = new JTextField(LocalDate.now().plusDays(1).toString(), 10);
+        JTextField to = new JTextField(LocalDate.now().plusDays(1).toString(), 10);
+        JTextField hours = new JTextField(9);
+        hours.setToolTipText("Boş: tüm gün, örn 13:00-17:00: yarım gün");
+        JTextField desc = new JTextField(16);
+        JButton btnAdd = new JButton("İzin Ekle");
+        JButton btnDelete = new JButton("Seçili İzni Sil");
+
+        JPanel form = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        form.add(new JLabel("Başlangıç:")); form.add(from);
+        form.add(new JLabel("Bitiş:")); form.add(to);
+        form.add(new JLabel("Saat (boş = tüm gün):")); form.add(hours);
+        form.add(new JLabel("Açıklama:")); form.add(desc);
+        form.add(btnAdd);
+        form.add(btnDelete);
+        root.add(form, BorderLayout.NORTH);
+
+        Runnable reload = () -> {
+            m.setRowCount(0);
+            for (ScheduleException x : exceptionDAO.getByDoctor(doctor.getId(), LocalDate.now())) {
+                m.addRow(new Object[]{x.getId(), x.getKindLabel(), x.getDateFrom(), x.getDateTo(),
+                        x.isFullDay() ? "Tüm gün" : x.getTimeFrom() + "-" + x.getTimeTo(), x.getDescription()});
+            }
+        };
+        reload.run();
+
+        btnAdd.addActionListener(e -> {
+            LocalDate f, tt;
+            LocalTime tf = null, tto = null;
+            try {
+                f = LocalDate.parse(from.getText().trim());
+                tt = LocalDate.parse(to.getText().trim());
+                String h = hours.getText().trim();
+                if (!h.isEmpty()) {
+                    String[] p = h.split("-");
+                    tf = LocalTime.parse(p[0].trim());
+                    tto = LocalTime.parse(p[1].trim());
+                }
+            } catch (Exception ex) {
+                Ui.err(this, "Tarih/saat formatı yanlış. Örn: 2025-12-31, 13:00-17:00");
+                return;
+            }
+            try {
+                ScheduleException.Kind kind = tf == null ? ScheduleException.Kind.IZIN : ScheduleException.Kind.YARIM_GUN;
+                exceptionDAO.add(doctor.getId(), null, f, tt, tf, tto, kind, desc.getText().trim());
+            } catch (IllegalArgumentException ex) {
+                Ui.err(this, ex.getMessage());
+                return;
+            }
+            reload.run();
+            showExceptions(listFrom, listTo);
+            // İzinler birincilde, randevular doktorun parçasında
+            ShardRouter router = DatabaseManager.getInstance().getRouter();
+            LocalTime fromTime = tf, toTime = tto;
+            int active = router.on(router.ofId(doctor.getId()), c -> new ScheduleExceptionDAO(c)
+                    .countActiveAppointments(doctor.getId(), f, tt, fromTime, toTime));
+            Ui.info(this, active == 0 ? "İzin eklendi."
+                    : "İzin eklendi. Bu aralıkta " + active + " aktif randevu var; hastalara bilgi verip iptal ediniz.");
+        });
+
+        btnDelete.addActionListener(e -> {
+            int row = t.getSelectedRow();
+            if (row < 0) { Ui.err(this, "Bir izin seç."); return; }
+            exceptionDAO.delete(Integer.parseInt(m.getValueAt(row, 0).toString()), doctor.getId());
+            reload.run();
+            showExceptions(listFrom, listTo);
         });
 
         return root;
@@ -270,22 +543,26 @@ public class DoctorDashboard extends BaseDashboard implements AppointmentObserve
         JButton save = new JButton("Çalışma Saatlerini Kaydet");
         root.add(new JLabel("")); root.add(save);
 
-        String currentContact = userDAO.getContactInfo(doctor.getId());
-        String currentPass = userDAO.getPassword(doctor.getId());
-        JTextField txtContact = new JTextField(currentContact == null ? "" : currentContact);
-        JPasswordField txtPass = new JPasswordField(currentPass == null ? "" : currentPass);
+        JTextField txtContact = new JTextField();
+        JPasswordField txtPass = new JPasswordField();
 
         root.add(new JLabel("İletişim Bilgisi:")); root.add(txtContact);
         root.add(new JLabel("Şifre:")); root.add(txtPass);
 
         JButton saveProfile = new JButton("Profil Kaydet");
         root.add(new JLabel("")); root.add(saveProfile);
+        fillProfileWhenLoaded(profile, txtContact, txtPass, saveProfile);
 
         save.addActionListener(e -> {
             String wh = txtWh.getText().trim();
             if (!wh.isEmpty()) {
-                List<String> slots = workingHourStrategy.generate(wh);
-                if (slots.isEmpty()) {
+                int[] slots;
+                try {
+                    slots = workingHourStrategy.generate(wh);
+                } catch (RuntimeException ex) {
+                    slots = new int[0];
+                }
+                if (slots.length == 0) {
                     Ui.err(this, "Çalışma saat formatı yanlış. Örn: 09:00-12:00,13:00-17:00");
                     return;
                 }
@@ -304,11 +581,24 @@ public class DoctorDashboard extends BaseDashboard implements AppointmentObserve
 
     @Override
     protected void loadData() {
-        loadDoctorAppointments(LocalDate.now(), LocalDate.now());
+        loadDoctorAppointments(listFrom, listTo);
     }
 
     @Override
     public void onAppointmentChanged() {
-        loadData();
+        loadDataOnEdt();
+    }
+
+    @Override
+    public void onAppointmentChanged(AppointmentEvent event) {
+        if (event.getDoctorId() != doctor.getId()) return;
+        if (event.getType() == AppointmentEvent.Type.EXAM_SAVED) examStore.evict(event.getAppointmentId());
+        onAppointmentChanged();
+    }
+
+    @Override
+    public void dispose() {
+        AppointmentSubject.getInstance().removeObserver(this);
+        super.dispose();
     }
 }
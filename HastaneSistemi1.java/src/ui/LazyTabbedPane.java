@@ -0,0 +1,36 @@
+package ui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Sekme içeriğini ilk seçildiğinde oluşturan JTabbedPane. Böylece panel açılırken yalnızca görünen
+ * sekmenin bileşenleri ve sorguları çalışır.
+ */
+public class LazyTabbedPane extends JTabbedPane {
+
+    private final Map<JPanel, Supplier<? extends Component>> pending = new HashMap<>();
+
+    public LazyTabbedPane() {
+        addChangeListener(e -> buildSelected());
+    }
+
+    public void addLazyTab(String title, Supplier<? extends Component> builder) {
+        JPanel holder = new JPanel(new BorderLayout());
+        pending.put(holder, builder);
+        addTab(title, holder);
+        if (getSelectedComponent() == holder) buildSelected();
+    }
+
+    private void buildSelected() {
+        Component selected = getSelectedComponent();
+        if (!(selected instanceof JPanel holder)) return;
+        Supplier<? extends Component> builder = pending.remove(holder);
+        if (builder == null) return;
+        holder.add(builder.get(), BorderLayout.CENTER);
+        holder.revalidate();
+    }
+}
@@ -1,12 +1,16 @@
 package ui;
 
-import dao.UserDAO;
+import dao.ShardedUserDAO;
 import model.Doctor;
 import model.Patient;
 import model.User;
+import util.StartupMetrics;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.concurrent.ExecutionException;
 
 public class LoginScreen extends JFrame {
 
@@ -36,28 +40,57 @@ public class LoginScreen extends JFrame {
 
         add(p);
 
-        btnLogin.addActionListener(e -> {
-            UserDAO dao = new UserDAO();
-            User u = dao.login(
-                    txtUsername.getText().trim(),
-                    new String(txtPassword.getPassword())
-            );
+        btnLogin.addActionListener(e -> login(btnLogin));
 
-            if (u == null) {
-                JOptionPane.showMessageDialog(this, "Hatalı kullanıcı adı veya şifre");
-                return;
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowOpened(WindowEvent e) {
+                StartupMetrics.mark(StartupMetrics.FIRST_FRAME);
             }
-
-            dispose();
-
-            if (u instanceof Doctor)
-                new DoctorDashboard((Doctor) u);
-            else
-                new PatientDashboard((Patient) u);
         });
 
         btnRegister.addActionListener(e -> new RegisterScreen());
 
         setVisible(true);
     }
+
+    // Açılışta veritabanı hâlâ hazırlanıyor olabilir; bekleme EDT'yi kilitlemesin
+    private void login(JButton btnLogin) {
+        String username = txtUsername.getText().trim();
+        String password = new String(txtPassword.getPassword());
+        btnLogin.setEnabled(false);
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+
+        new SwingWorker<User, Void>() {
+            @Override
+            protected User doInBackground() {
+                return new ShardedUserDAO().login(username, password);
+            }
+
+            @Override
+            protected void done() {
+                btnLogin.setEnabled(true);
+                setCursor(Cursor.getDefaultCursor());
+                User u;
+                try {
+                    u = get();
+                } catch (InterruptedException | ExecutionException ex) {
+                    JOptionPane.showMessageDialog(LoginScreen.this, "Veritabanına bağlanılamadı");
+                    return;
+                }
+
+                if (u == null) {
+                    JOptionPane.showMessageDialog(LoginScreen.this, "Hatalı kullanıcı adı veya şifre");
+                    return;
+                }
+
+                dispose();
+
+                if (u instanceof Doctor)
+                    new DoctorDashboard((Doctor) u);
+                else
+                    new PatientDashboard((Patient) u);
+            }
+        }.execute();
+    }
 }
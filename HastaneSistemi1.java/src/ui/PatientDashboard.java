@@ -1,41 +1,62 @@
 package ui;
 
-import dao.AppointmentDAO;
-import dao.UserDAO;
-import db.DatabaseManager;
+import booking.BookingGateway;
+import booking.BookingRejectedException;
+import booking.BookingRequest;
+import calendar.ExceptionCalendar;
+import dao.ShardedAppointmentDAO;
+import dao.ShardedUserDAO;
+import dao.UpdateResult;
+import model.Appointment;
 import model.Doctor;
 import model.Patient;
+import model.ScheduleException;
+import observer.AppointmentEvent;
 import observer.AppointmentObserver;
 import observer.AppointmentSubject;
-import strategy.HourlyWorkingHourStrategy;
-import strategy.WorkingHourStrategy;
+import reference.ReferenceData;
+import slot.SlotHoldService;
+import slot.SlotKey;
+import state.AppointmentState;
 import template.AbstractViewTemplate;
+import util.StartupMetrics;
 import util.Ui;
+import waitlist.WaitlistService;
 
 import javax.swing.*;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public class PatientDashboard extends BaseDashboard implements AppointmentObserver {
     private final Patient patient;
-    private final UserDAO userDAO = new UserDAO();
-    private final AppointmentDAO appointmentDAO = new AppointmentDAO();
-    private final WorkingHourStrategy workingHourStrategy = new HourlyWorkingHourStrategy();
+    private final ShardedUserDAO userDAO = new ShardedUserDAO();
+    private final ShardedAppointmentDAO appointmentDAO = new ShardedAppointmentDAO();
 
-    private final DefaultTableModel myModel = new DefaultTableModel(new String[]{"ID","Doktor","Branş","Tarih","Saat","Durum"}, 0);
+    private final AppointmentTableModel myModel = new AppointmentTableModel(new String[]{"ID","Doktor","Branş","Tarih","Saat","Durum"});
     private final JTable myTable = new JTable(myModel);
 
     private JComboBox<String> cmbBranch;
     private JComboBox<Doctor> cmbDoctor;
     private JTextField txtDate;
-    private JComboBox<String> cmbTime;
+    private JComboBox<Integer> cmbTime;
+    private JLabel lblDayNote;
+    private CompletableFuture<String[]> profile;
+    private String bookingNonce = UUID.randomUUID().toString();
+    private final SlotHoldService holds = SlotHoldService.getInstance();
+    private boolean reloadingTimes;
+    private boolean holdPending;
+    private boolean holdAgain;
 
     public PatientDashboard(Patient p) {
         this.patient = p;
@@ -46,17 +67,17 @@ public class PatientDashboard extends BaseDashboard implements AppointmentObserv
         setDefaultCloseOperation(EXIT_ON_CLOSE);
         setLayout(new BorderLayout());
 
-        JTabbedPane tabs = new JTabbedPane();
+        LazyTabbedPane tabs = new LazyTabbedPane();
 
-        tabs.add("Randevu Al", buildBookTab());
-        tabs.add("Randevularım", buildMyAppointmentsTab());
-        tabs.add("Doktor Ara", buildDoctorSearchTab());
-        tabs.add("Profilim", buildProfileTab());
+        tabs.addLazyTab("Randevu Al", this::buildBookTab);
+        tabs.addLazyTab("Randevularım", this::buildMyAppointmentsTab);
+        tabs.addLazyTab("Doktor Ara", this::buildDoctorSearchTab);
+        tabs.addLazyTab("Profilim", this::buildProfileTab);
 
         add(tabs, BorderLayout.CENTER);
 
         JButton logout = new JButton("Çıkış");
-        logout.addActionListener(e -> { new LoginScreen().setVisible(true); dispose(); });
+        logout.addActionListener(e -> { new LoginScreen(); dispose(); });
         add(logout, BorderLayout.SOUTH);
 
         AppointmentSubject.getInstance().addObserver(this);
@@ -64,7 +85,7 @@ public class PatientDashboard extends BaseDashboard implements AppointmentObserv
         new AbstractViewTemplate() {
             @Override
             protected void loadData() {
-                loadMyAppointments();
+                loadInitialData();
             }
 
             @Override
@@ -82,9 +103,7 @@ public class PatientDashboard extends BaseDashboard implements AppointmentObserv
         cmbBranch = new JComboBox<>();
         cmbDoctor = new JComboBox<>();
         txtDate = new JTextField(LocalDate.now().plusDays(1).toString());
-        cmbTime = new JComboBox<>();
-
-        for (String b : userDAO.getAllBranches()) cmbBranch.addItem(b);
+        cmbTime = Ui.slotCombo();
 
         JButton btnRefreshDoctors = new JButton("Doktorları Getir");
         JButton btnBook = new JButton("Randevu Oluştur");
@@ -101,11 +120,19 @@ public class PatientDashboard extends BaseDashboard implements AppointmentObserv
         timePanel.add(cmbTime);
         JButton btnLoadTimes = new JButton("Saatleri Göster");
         timePanel.add(btnLoadTimes);
+        JButton btnWaitlist = new JButton("Bekleme Listesine Ekle");
+        timePanel.add(btnWaitlist);
+        lblDayNote = new JLabel(" ");
+        lblDayNote.setForeground(Color.RED.darker());
+        timePanel.add(lblDayNote);
         root.add(timePanel, BorderLayout.CENTER);
 
+        btnWaitlist.addActionListener(e -> joinWaitlist());
+
         btnRefreshDoctors.addActionListener(e -> reloadDoctorsByBranch());
         btnLoadTimes.addActionListener(e -> reloadTimesForSelectedDoctor());
         cmbDoctor.addActionListener(e -> reloadTimesForSelectedDoctor());
+        cmbTime.addActionListener(e -> { if (!reloadingTimes) holdSelectedTime(); });
 
         txtDate.getDocument().addDocumentListener(new DocumentListener() {
             public void insertUpdate(DocumentEvent e) { reloadTimesForSelectedDoctor(); }
@@ -117,55 +144,195 @@ public class PatientDashboard extends BaseDashboard implements AppointmentObserv
             try {
                 Doctor d = (Doctor) cmbDoctor.getSelectedItem();
                 if (d == null) { Ui.err(this, "Doktor seç!"); return; }
-                LocalDate date = LocalDate.parse(txtDate.getText().trim());
-                String time = (String) cmbTime.getSelectedItem();
-                if (time == null) { Ui.err(this, "Saat seç!"); return; }
-
-                if (appointmentDAO.isSlotTaken(d.getId(), date, time)) {
-                    Ui.err(this, "Bu saat dolu!");
-                    reloadTimesForSelectedDoctor();
-                    return;
-                }
-
-                appointmentDAO.create(patient.getId(), d.getId(), date, time);
-                Ui.info(this, "Randevu oluşturuldu.");
+                Integer slot = (Integer) cmbTime.getSelectedItem();
+                if (slot == null) { Ui.err(this, "Saat seç!"); return; }
+
+                // Anahtar seçilen saate bağlı; sonuç gelene kadar aynı saate tekrar basmak yeni randevu açmaz
+                String key = bookingNonce + ":" + d.getId() + ":" + slot;
+                btnBook.setEnabled(false);
+                BookingGateway.getInstance().submit(new BookingRequest(patient.getId(), d.getId(), slot, key))
+                        .whenComplete((a, ex) -> SwingUtilities.invokeLater(() -> {
+                            btnBook.setEnabled(true);
+                            bookingNonce = UUID.randomUUID().toString();
+                            if (ex == null) {
+                                holds.forget(patient.getId());
+                                Ui.info(this, "Randevu oluşturuldu.");
+                            } else {
+                                Ui.err(this, ex.getMessage());
+                            }
+                            reloadTimesForSelectedDoctor();
+                        }));
+            } catch (BookingRejectedException ex) {
+                btnBook.setEnabled(true);
+                Ui.err(this, ex.getMessage() + " (" + ex.getRetryAfterSeconds() + " sn)");
+            } catch (RuntimeException ex) {
+                btnBook.setEnabled(true);
+                Ui.err(this, ex.getMessage());
                 reloadTimesForSelectedDoctor();
-            } catch (Exception ex) {
-                Ui.err(this, "Tarih formatı hatalı. Örn: 2025-12-31");
             }
         });
 
-        reloadDoctorsByBranch();
         return root;
     }
 
+    // Branş/doktor listesi, randevu geçmişi ve profil birbirinden bağımsız; ayrı bağlantılarla paralel yüklenir
+    private void loadInitialData() {
+        int id = patient.getId();
+        // Branş ve doktorlar yerel kopyadan gelir; kopya yoksa ilk yükleme burada beklenir
+        ReferenceData ref = ReferenceData.getInstance();
+        CompletableFuture<List<String>> branches = CompletableFuture.supplyAsync(ref::getAllBranches);
+        CompletableFuture<List<Doctor>> doctors = branches.thenApply(b -> b.isEmpty()
+                ? List.of()
+                : ref.getDoctorsByBranch(b.get(0)));
+        CompletableFuture<List<String[]>> mine = loadAsync(c -> new ShardedAppointmentDAO(0, c).getByPatient(id));
+        profile = loadAsync(c -> {
+            ShardedUserDAO dao = new ShardedUserDAO(0, c);
+            return new String[]{dao.getContactInfo(id), dao.getPassword(id)};
+        });
+
+        CompletableFuture.allOf(doctors, mine).whenComplete((v, ex) -> SwingUtilities.invokeLater(() -> {
+            if (ex != null) {
+                Ui.err(this, "Veriler yüklenemedi: " + ex.getMessage());
+                return;
+            }
+            for (String b : branches.join()) cmbBranch.addItem(b);
+            for (Doctor d : doctors.join()) cmbDoctor.addItem(d);
+            myModel.merge(mine.join());
+            StartupMetrics.screenReady(getClass().getSimpleName(), openedAt);
+        }));
+    }
+
+    private void joinWaitlist() {
+        String branch = (String) cmbBranch.getSelectedItem();
+        Doctor d = (Doctor) cmbDoctor.getSelectedItem();
+        if (branch == null) { Ui.err(this, "Branş seç!"); return; }
+
+        JCheckBox anyDoctor = new JCheckBox("Branştaki herhangi bir doktor", d == null);
+        JTextField from = new JTextField(txtDate.getText().trim());
+        JTextField to = new JTextField(txtDate.getText().trim());
+        JTextField timeFrom = new JTextField("08:00");
+        JTextField timeTo = new JTextField("18:00");
+
+        JPanel panel = new JPanel(new GridLayout(5, 2, 6, 6));
+        panel.add(new JLabel("Doktor: " + (d == null ? "-" : d.getFullName()))); panel.add(anyDoctor);
+        panel.add(new JLabel("Başlangıç Tarihi:")); panel.add(from);
+        panel.add(new JLabel("Bitiş Tarihi:")); panel.add(to);
+        panel.add(new JLabel("En Erken Saat:")); panel.add(timeFrom);
+        panel.add(new JLabel("En Geç Saat:")); panel.add(timeTo);
+
+        int ok = JOptionPane.showConfirmDialog(this, panel, "Bekleme Listesi", JOptionPane.OK_CANCEL_OPTION);
+        if (ok != JOptionPane.OK_OPTION) return;
+
+        try {
+            Integer doctorId = anyDoctor.isSelected() || d == null ? null : d.getId();
+            WaitlistService.getInstance().register(patient.getId(), doctorId, branch,
+                    LocalDate.parse(from.getText().trim()), LocalDate.parse(to.getText().trim()),
+                    LocalTime.parse(timeFrom.getText().trim()), LocalTime.parse(timeTo.getText().trim()));
+            Ui.info(this, "Bekleme listesine eklendiniz. Uygun saat boşalınca randevunuz otomatik oluşturulur.");
+        } catch (IllegalArgumentException ex) {
+            Ui.err(this, ex.getMessage());
+        } catch (Exception ex) {
+            Ui.err(this, "Tarih/saat formatı hatalı. Örn: 2025-12-31, 09:00");
+        }
+    }
+
     private void reloadDoctorsByBranch() {
         cmbDoctor.removeAllItems();
         String branch = (String) cmbBranch.getSelectedItem();
         if (branch == null) return;
-        for (Doctor d : userDAO.getDoctorsByBranch(branch)) cmbDoctor.addItem(d);
+        for (Doctor d : ReferenceData.getInstance().getDoctorsByBranch(branch)) cmbDoctor.addItem(d);
         reloadTimesForSelectedDoctor();
     }
 
     private void reloadTimesForSelectedDoctor() {
-        cmbTime.removeAllItems();
-        Doctor d = (Doctor) cmbDoctor.getSelectedItem();
-        if (d == null) return;
-
-        LocalDate date;
+        reloadingTimes = true;
         try {
-            date = LocalDate.parse(txtDate.getText().trim());
-        } catch (Exception ex) {
-            return;
-        }
+            cmbTime.removeAllItems();
+            lblDayNote.setText(" ");
+            Doctor d = (Doctor) cmbDoctor.getSelectedItem();
+            if (d == null) return;
 
-        List<String> slots = workingHourStrategy.generate(d.getWorkingHours());
+            LocalDate date;
+            try {
+                date = LocalDate.parse(txtDate.getText().trim());
+            } catch (Exception ex) {
+                return;
+            }
 
-        for (String s : slots) {
-            if (!appointmentDAO.isSlotTaken(d.getId(), date, s)) {
-                cmbTime.addItem(s);
+            // Çalışma saati tanımsız doktor için veritabanına gidilmez
+            if (ReferenceData.getInstance().getSchedule(d.getId()).length == 0) {
+                lblDayNote.setText("Doktorun çalışma saatleri tanımlı değil.");
+                return;
+            }
+            for (int slot : appointmentDAO.getFreeSlots(d.getId(), date, patient.getId())) cmbTime.addItem(slot);
+            // Tutulan saat aynı doktor ve gündeyse seçili kalır; başka güne / doktora geçilince bırakılır
+            SlotHoldService.Hold h = holds.current(patient.getId());
+            if (h != null && h.doctorId() == d.getId() && SlotKey.date(h.slot()).equals(date)) {
+                cmbTime.setSelectedItem(h.slot());
+                showHold(h);
+            } else if (h != null) {
+                releaseHold();
             }
+            // O gün izin / tatil varsa saatlerin neden eksik olduğu gösterilir
+            List<ScheduleException> notes = ExceptionCalendar.getInstance().between(d.getId(), date, date);
+            if (!notes.isEmpty()) lblDayNote.setText(notes.get(0).toString());
+        } finally {
+            reloadingTimes = false;
+        }
+    }
+
+    // Seçilen saat onaylanana kadar başka hastalara kapatılır; istekler sırayla gider, arada seçim değişirse sonuncusu tutulur
+    private void holdSelectedTime() {
+        Doctor d = (Doctor) cmbDoctor.getSelectedItem();
+        Integer slot = (Integer) cmbTime.getSelectedItem();
+        if (d == null || slot == null) return;
+        SlotHoldService.Hold current = holds.current(patient.getId());
+        if (current != null && current.isFor(d.getId(), slot)) return;
+        if (holdPending) {
+            holdAgain = true;
+            return;
         }
+        holdPending = true;
+        int patientId = patient.getId();
+        int doctorId = d.getId();
+        loadAsync(c -> holds.hold(c, patientId, doctorId, slot, this::holdExpired))
+                .whenComplete((h, ex) -> SwingUtilities.invokeLater(() -> {
+                    holdPending = false;
+                    if (holdAgain) {
+                        holdAgain = false;
+                        holdSelectedTime();
+                        return;
+                    }
+                    // Tutma yalnızca kolaylık; alınamazsa randevu oluşturulurken saat yine denetlenir
+                    if (ex != null) return;
+                    if (h == null) {
+                        reloadTimesForSelectedDoctor();
+                        lblDayNote.setText(SlotKey.formatTime(slot) + " az önce başka bir hastaya geçti, başka bir saat seçin.");
+                    } else {
+                        showHold(h);
+                    }
+                }));
+    }
+
+    private void showHold(SlotHoldService.Hold h) {
+        String until = DateTimeFormatter.ofPattern("HH:mm").withZone(ZoneId.systemDefault())
+                .format(Instant.ofEpochMilli(h.expiresAt()));
+        lblDayNote.setText(SlotKey.formatTime(h.slot()) + " sizin için " + until + "'e kadar ayrıldı.");
+    }
+
+    private void holdExpired(SlotHoldService.Hold h) {
+        SwingUtilities.invokeLater(() -> {
+            if (Integer.valueOf(h.slot()).equals(cmbTime.getSelectedItem()))
+                lblDayNote.setText(SlotKey.formatTime(h.slot()) + " için ayrılan süre doldu; saat yeniden herkese açık.");
+        });
+    }
+
+    private void releaseHold() {
+        int patientId = patient.getId();
+        loadAsync(c -> {
+            holds.release(c, patientId);
+            return null;
+        });
     }
 
     private JPanel buildMyAppointmentsTab() {
@@ -190,8 +357,8 @@ public class PatientDashboard extends BaseDashboard implements AppointmentObserv
             int row = myTable.getSelectedRow();
             if (row < 0) { Ui.err(this, "Bir randevu seç."); return; }
             int id = Integer.parseInt(myModel.getValueAt(row, 0).toString());
-            String state = myModel.getValueAt(row, 5).toString();
-            if (!"AKTIF".equalsIgnoreCase(state)) { Ui.err(this, "Sadece AKTIF randevu iptal edilir."); return; }
+            AppointmentState state = AppointmentState.ofName(myModel.getValueAt(row, 5).toString());
+            if (!state.canTransitionTo(AppointmentState.IPTAL)) { Ui.err(this, "Sadece AKTIF randevu iptal edilir."); return; }
             appointmentDAO.cancelByPatient(id, patient.getId());
             Ui.info(this, "Randevu iptal edildi.");
         });
@@ -201,27 +368,21 @@ public class PatientDashboard extends BaseDashboard implements AppointmentObserv
             if (row < 0) { Ui.err(this, "Bir randevu seç."); return; }
 
             int appointmentId = Integer.parseInt(myModel.getValueAt(row, 0).toString());
-            String state = myModel.getValueAt(row, 5).toString();
-            if (!"AKTIF".equalsIgnoreCase(state)) { Ui.err(this, "Sadece AKTIF randevu güncellenir."); return; }
+            int version = Integer.parseInt(myModel.getRow(row)[7]);
+            int doctorId = Integer.parseInt(myModel.getRow(row)[6]);
+            AppointmentState state = AppointmentState.ofName(myModel.getValueAt(row, 5).toString());
+            if (!state.isActive()) { Ui.err(this, "Sadece AKTIF randevu güncellenir."); return; }
 
             String doctorName = myModel.getValueAt(row, 1).toString();
 
             JTextField newDate = new JTextField(LocalDate.now().plusDays(1).toString());
-            JComboBox<String> newTime = new JComboBox<>();
-
-            int doctorId = getDoctorIdByAppointment(appointmentId, patient.getId());
-            Doctor d = getDoctorById(doctorId);
-
-            if (d == null) { Ui.err(this, "Doktor bulunamadı."); return; }
+            JComboBox<Integer> newTime = Ui.slotCombo();
 
             Runnable refreshTimes = () -> {
                 newTime.removeAllItems();
                 LocalDate dt;
                 try { dt = LocalDate.parse(newDate.getText().trim()); } catch (Exception ex) { return; }
-                List<String> slots = workingHourStrategy.generate(d.getWorkingHours());
-                for (String s : slots) {
-                    if (!appointmentDAO.isSlotTaken(d.getId(), dt, s)) newTime.addItem(s);
-                }
+                for (int slot : appointmentDAO.getFreeSlots(doctorId, dt, patient.getId())) newTime.addItem(slot);
             };
             refreshTimes.run();
             newDate.getDocument().addDocumentListener(new DocumentListener() {
@@ -239,15 +400,20 @@ public class PatientDashboard extends BaseDashboard implements AppointmentObserv
             int ok = JOptionPane.showConfirmDialog(this, panel, "Randevu Güncelle", JOptionPane.OK_CANCEL_OPTION);
             if (ok == JOptionPane.OK_OPTION) {
                 try {
-                    LocalDate nd = LocalDate.parse(newDate.getText().trim());
-                    String nt = (String) newTime.getSelectedItem();
-                    if (nt == null) { Ui.err(this, "Saat seç!"); return; }
-                    if (appointmentDAO.isSlotTaken(doctorId, nd, nt)) { Ui.err(this, "Seçilen saat dolu."); return; }
-
-                    appointmentDAO.rescheduleByPatient(appointmentId, patient.getId(), doctorId, nd, nt);
+                    Integer slot = (Integer) newTime.getSelectedItem();
+                    if (slot == null) { Ui.err(this, "Saat seç!"); return; }
+
+                    UpdateResult<Appointment> r =
+                            appointmentDAO.rescheduleByPatient(appointmentId, patient.getId(), doctorId, slot, version);
+                    if (r.isConflict()) {
+                        Ui.err(this, "Randevu başka bir oturumda değiştirildi (" + r.getCurrent() + "). Liste yenilendi.");
+                        loadMyAppointments();
+                        return;
+                    }
+                    if (!r.isApplied()) { Ui.err(this, "Randevu bulunamadı."); return; }
                     Ui.info(this, "Randevu güncellendi.");
-                } catch (Exception ex) {
-                    Ui.err(this, "Geçersiz tarih/saat.");
+                } catch (RuntimeException ex) {
+                    Ui.err(this, ex.getMessage());
                 }
             }
         });
@@ -255,28 +421,6 @@ public class PatientDashboard extends BaseDashboard implements AppointmentObserv
         return root;
     }
 
-    private int getDoctorIdByAppointment(int appointmentId, int patientId) {
-        String sql = "SELECT doctor_id FROM appointments WHERE id=? AND patient_id=?";
-        try (PreparedStatement ps = DatabaseManager.getInstance().getConnection().prepareStatement(sql)) {
-            ps.setInt(1, appointmentId);
-            ps.setInt(2, patientId);
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) return rs.getInt(1);
-                return -1;
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
-    }
-
-    private Doctor getDoctorById(int doctorUserId) {
-        try {
-            return userDAO.getDoctorByUserId(doctorUserId);
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
-    }
-
     private JPanel buildDoctorSearchTab() {
         JPanel root = new JPanel(new BorderLayout());
 
@@ -297,7 +441,7 @@ public class PatientDashboard extends BaseDashboard implements AppointmentObserv
             m.setRowCount(0);
             String query = q.getText().trim();
             if (query.isEmpty()) return;
-            for (Doctor d : userDAO.searchDoctors(query)) {
+            for (Doctor d : ReferenceData.getInstance().searchDoctors(query)) {
                 m.addRow(new Object[]{
                         d.getId(),
                         d.getTc(),
@@ -315,11 +459,8 @@ public class PatientDashboard extends BaseDashboard implements AppointmentObserv
     private JPanel buildProfileTab() {
         JPanel root = new JPanel(new GridLayout(6,2,10,10));
 
-        String currentContact = userDAO.getContactInfo(patient.getId());
-        String currentPass = userDAO.getPassword(patient.getId());
-
-        JTextField txtContact = new JTextField(currentContact == null ? "" : currentContact);
-        JPasswordField txtPass = new JPasswordField(currentPass == null ? "" : currentPass);
+        JTextField txtContact = new JTextField();
+        JPasswordField txtPass = new JPasswordField();
 
         root.add(new JLabel("TC:")); root.add(new JLabel(patient.getTc()));
         root.add(new JLabel("Ad Soyad:")); root.add(new JLabel(patient.getFullName()));
@@ -329,6 +470,7 @@ public class PatientDashboard extends BaseDashboard implements AppointmentObserv
         JButton save = new JButton("Kaydet");
         root.add(new JLabel(""));
         root.add(save);
+        fillProfileWhenLoaded(profile, txtContact, txtPass, save);
 
         save.addActionListener(e -> {
             userDAO.updateContactInfoAndPassword(patient.getId(), txtContact.getText().trim(), new String(txtPass.getPassword()));
@@ -339,8 +481,7 @@ public class PatientDashboard extends BaseDashboard implements AppointmentObserv
     }
 
     private void loadMyAppointments() {
-        myModel.setRowCount(0);
-        for (String[] r : appointmentDAO.getByPatient(patient.getId())) myModel.addRow(r);
+        myModel.merge(appointmentDAO.getByPatient(patient.getId()));
     }
 
     @Override
@@ -350,6 +491,18 @@ public class PatientDashboard extends BaseDashboard implements AppointmentObserv
 
     @Override
     public void onAppointmentChanged() {
-        loadData();
+        loadDataOnEdt();
+    }
+
+    @Override
+    public void onAppointmentChanged(AppointmentEvent event) {
+        if (event.getPatientId() == patient.getId()) onAppointmentChanged();
+    }
+
+    @Override
+    public void dispose() {
+        AppointmentSubject.getInstance().removeObserver(this);
+        if (holds.current(patient.getId()) != null) releaseHold();
+        super.dispose();
     }
 }
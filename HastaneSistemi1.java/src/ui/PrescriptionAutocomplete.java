@@ -0,0 +1,169 @@
+package ui;
+
+import drug.DrugCatalog;
+import model.Drug;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import java.awt.*;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.geom.Rectangle2D;
+import java.util.List;
+
+/**
+ * Reçete alanında imlecin bulunduğu satırın başındaki metne göre ilaç önerir. Aşağı / yukarı ile seçilir,
+ * Enter veya çift tıkla satırın başı ilacın adıyla değiştirilir, Esc kapatır. Satır bir ilaçla başladıktan
+ * sonra (kullanım talimatı yazılırken) öneri gösterilmez.
+ */
+public class PrescriptionAutocomplete {
+
+    private static final int LIMIT = 8;
+    private static final int MIN_CHARS = 2;
+
+    private final JTextArea area;
+    private final DrugCatalog catalog;
+    private final DefaultListModel<Drug> model = new DefaultListModel<>();
+    private final JList<Drug> list = new JList<>(model);
+    private JWindow popup;
+    private boolean replacing;
+
+    public static void install(JTextArea area) {
+        new PrescriptionAutocomplete(area, DrugCatalog.getInstance());
+    }
+
+    private PrescriptionAutocomplete(JTextArea area, DrugCatalog catalog) {
+        this.area = area;
+        this.catalog = catalog;
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        list.setFocusable(false);
+
+        area.getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) { changed(); }
+            public void removeUpdate(DocumentEvent e) { changed(); }
+            public void changedUpdate(DocumentEvent e) { }
+        });
+        area.addFocusListener(new FocusAdapter() {
+            @Override
+            public void focusLost(FocusEvent e) { hide(); }
+        });
+
+        // Öneri açıkken ok tuşları ve Enter listeye gider; metin alanının kendi davranışı çalışmaz
+        area.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (popup == null || !popup.isVisible()) return;
+                switch (e.getKeyCode()) {
+                    case KeyEvent.VK_DOWN -> move(1);
+                    case KeyEvent.VK_UP -> move(-1);
+                    case KeyEvent.VK_ENTER, KeyEvent.VK_TAB -> accept();
+                    case KeyEvent.VK_ESCAPE -> hide();
+                    default -> { return; }
+                }
+                e.consume();
+            }
+        });
+        list.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) accept();
+            }
+        });
+    }
+
+    // Belge olayı içinde belge değiştirilemediği için öneriler olaydan hemen sonra hesaplanır
+    private void changed() {
+        if (replacing) return;
+        SwingUtilities.invokeLater(this::refresh);
+    }
+
+    private void refresh() {
+        // Muayene kaydı yüklenirken alanın metni programla değişir; yalnızca doktor yazarken öneri açılır
+        if (!area.isFocusOwner()) {
+            hide();
+            return;
+        }
+        String typed = linePrefix().stripLeading();
+        if (typed.length() < MIN_CHARS || catalog.match(typed) != null && typed.endsWith(" ")) {
+            hide();
+            return;
+        }
+        List<Drug> found = catalog.suggest(typed, LIMIT);
+        if (found.isEmpty()) {
+            hide();
+            return;
+        }
+        model.clear();
+        found.forEach(model::addElement);
+        list.setSelectedIndex(0);
+        show();
+    }
+
+    private String linePrefix() {
+        try {
+            int caret = area.getCaretPosition();
+            int start = area.getLineStartOffset(area.getLineOfOffset(caret));
+            return area.getText(start, caret - start);
+        } catch (BadLocationException e) {
+            return "";
+        }
+    }
+
+    private void show() {
+        try {
+            Rectangle2D r = area.modelToView2D(area.getCaretPosition());
+            if (r == null) return;
+            Point p = new Point((int) r.getX(), (int) (r.getY() + r.getHeight()));
+            SwingUtilities.convertPointToScreen(p, area);
+            // Pencere, alan bir çerçeveye eklendikten sonra oluşturulur ki çerçeveye bağlı kalsın
+            if (popup == null) {
+                popup = new JWindow(SwingUtilities.getWindowAncestor(area));
+                popup.setFocusableWindowState(false);
+                popup.add(new JScrollPane(list));
+            }
+            list.setVisibleRowCount(Math.min(LIMIT, model.size()));
+            popup.pack();
+            popup.setSize(Math.max(popup.getWidth(), 320), popup.getHeight());
+            popup.setLocation(p);
+            popup.setVisible(true);
+        } catch (BadLocationException e) {
+            hide();
+        }
+    }
+
+    private void hide() {
+        if (popup != null) popup.setVisible(false);
+    }
+
+    private void move(int delta) {
+        int i = list.getSelectedIndex() + delta;
+        if (i < 0 || i >= model.size()) return;
+        list.setSelectedIndex(i);
+        list.ensureIndexIsVisible(i);
+    }
+
+    // Satırın imlece kadarki kısmı ilacın adıyla değişir; ardından kullanım talimatı yazılabilir
+    private void accept() {
+        Drug d = list.getSelectedValue();
+        hide();
+        if (d == null) return;
+        Document doc = area.getDocument();
+        try {
+            int caret = area.getCaretPosition();
+            int start = area.getLineStartOffset(area.getLineOfOffset(caret));
+            replacing = true;
+            doc.remove(start, caret - start);
+            doc.insertString(start, d.getName() + " ", null);
+        } catch (BadLocationException ignored) {
+        } finally {
+            replacing = false;
+        }
+    }
+}
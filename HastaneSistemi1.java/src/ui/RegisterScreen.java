@@ -1,6 +1,6 @@
 package ui;
 
-import dao.UserDAO;
+import dao.ShardedUserDAO;
 
 import javax.swing.*;
 import java.awt.*;
@@ -48,7 +48,7 @@ public class RegisterScreen extends JFrame {
                 return;
             }
 
-            UserDAO dao = new UserDAO();
+            ShardedUserDAO dao = new ShardedUserDAO();
 
             boolean ok = dao.registerPatient(
                     txtName.getText().trim(),
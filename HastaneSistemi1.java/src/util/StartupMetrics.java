@@ -0,0 +1,50 @@
+package util;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Açılış aşamalarının JVM başlangıcından itibaren geçen süresini tutar. "first-frame" giriş penceresinin
+ * ekrana geldiği, "interactive" ilk panelin verileriyle kullanılabilir olduğu andır.
+ * -Dstartup.metrics=true verilirse her aşama konsola yazılır.
+ */
+public final class StartupMetrics {
+
+    public static final String FIRST_FRAME = "first-frame";
+    public static final String DB_READY = "db-ready";
+    public static final String INTERACTIVE = "interactive";
+
+    private static final long JVM_START = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private static final boolean REPORT = Boolean.getBoolean("startup.metrics");
+    private static final Map<String, Long> marks = new LinkedHashMap<>();
+
+    private StartupMetrics() { }
+
+    // Aynı aşama ikinci kez işaretlenmez; örn. çıkış yapıp tekrar girince interactive değişmez
+    public static void mark(String phase) {
+        long ms = System.currentTimeMillis() - JVM_START;
+        synchronized (marks) {
+            if (marks.putIfAbsent(phase, ms) != null) return;
+        }
+        if (REPORT) System.out.printf("[açılış] %-24s %6d ms%n", phase, ms);
+    }
+
+    // Bir ekranın açılıştan verileri gelene kadar geçen süresi; her açılışta raporlanır
+    public static void screenReady(String screen, long openedAtMs) {
+        mark(INTERACTIVE);
+        if (REPORT) System.out.printf("[açılış] %-24s %6d ms (ekran)%n", screen, System.currentTimeMillis() - openedAtMs);
+    }
+
+    public static long elapsed(String phase) {
+        synchronized (marks) {
+            return marks.getOrDefault(phase, -1L);
+        }
+    }
+
+    public static Map<String, Long> snapshot() {
+        synchronized (marks) {
+            return new LinkedHashMap<>(marks);
+        }
+    }
+}
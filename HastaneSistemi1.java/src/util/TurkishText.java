@@ -0,0 +1,46 @@
+package util;
+
+import java.util.Locale;
+
+public class TurkishText {
+
+    // Türkçe büyük/küçük harf ve sıralama kuralları için ortak yerel
+    public static final Locale TR = Locale.forLanguageTag("tr-TR");
+
+    // Arama anahtarı: Türkçe küçük harf, aksanlar sadeleşir (İ/I/ı -> i, ş -> s, ğ -> g ...),
+    // harf/rakam dışı karakterler tek boşluk olur. "İBUPROFEN", "ibuprofen" ve "Ibuprofen" aynı anahtarı verir.
+    public static String normalize(String s) {
+        if (s == null) return "";
+        String lower = s.toLowerCase(TR);
+        StringBuilder sb = new StringBuilder(lower.length());
+        boolean space = true;
+        for (int i = 0; i < lower.length(); i++) {
+            char c = fold(lower.charAt(i));
+            if (c == '\u0307') continue; // başka yerelde küçültülmüş İ'den kalan birleşik nokta
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(c);
+                space = false;
+            } else if (!space) {
+                sb.append(' ');
+                space = true;
+            }
+        }
+        int n = sb.length();
+        if (n > 0 && sb.charAt(n - 1) == ' ') sb.setLength(n - 1);
+        return sb.toString();
+    }
+
+    private static char fold(char c) {
+        return switch (c) {
+            case 'ı', 'î', 'ì', 'í' -> 'i';
+            case 'ş' -> 's';
+            case 'ğ' -> 'g';
+            case 'ü', 'û', 'ù', 'ú' -> 'u';
+            case 'ö', 'ô', 'ò', 'ó' -> 'o';
+            case 'ç' -> 'c';
+            case 'â', 'à', 'á', 'ä' -> 'a';
+            case 'é', 'è', 'ê' -> 'e';
+            default -> c;
+        };
+    }
+}
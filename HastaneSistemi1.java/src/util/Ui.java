@@ -1,5 +1,7 @@
 package util;
 
+import slot.SlotKey;
+
 import javax.swing.*;
 
 public class Ui {
@@ -9,4 +11,18 @@ public class Ui {
     public static void info(JFrame p, String m) {
         JOptionPane.showMessageDialog(p, m, "Bilgi", JOptionPane.INFORMATION_MESSAGE);
     }
+
+    // Öğeler SlotKey anahtarlarıdır; yalnızca ekranda "HH:mm" olarak yazılır
+    public static JComboBox<Integer> slotCombo() {
+        JComboBox<Integer> combo = new JComboBox<>();
+        combo.setRenderer(new DefaultListCellRenderer() {
+            @Override
+            public java.awt.Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                                   boolean selected, boolean focused) {
+                Object text = value instanceof Integer slot ? SlotKey.formatTime(slot) : value;
+                return super.getListCellRendererComponent(list, text, index, selected, focused);
+            }
+        });
+        return combo;
+    }
 }
@@ -1,23 +1,25 @@
 package util;
 
+import slot.SlotKey;
+
 import java.time.*;
 import java.util.*;
 
 public class WorkingHoursUtil {
-    public static List<String> generateHourlySlots(String workingHours) {
-        List<String> out = new ArrayList<>();
-        if (workingHours == null || workingHours.isBlank()) return out;
-
+    // Slotların gün içindeki dakikaları (SlotKey.minute), aralık sırasıyla
+    public static int[] generateHourlySlots(String workingHours) {
+        if (workingHours == null || workingHours.isBlank()) return new int[0];
+        int[] out = new int[16];
+        int n = 0;
         for (String p : workingHours.split(",")) {
             String[] lr = p.trim().split("-");
-            LocalTime t = LocalTime.parse(lr[0]);
-            LocalTime end = LocalTime.parse(lr[1]);
-            while (t.isBefore(end)) {
-                out.add(t.toString().substring(0,5));
-                t = t.plusHours(1);
+            int end = SlotKey.parseMinute(lr[1]);
+            for (int t = SlotKey.parseMinute(lr[0]); t < end; t += 60) {
+                if (n == out.length) out = Arrays.copyOf(out, n * 2);
+                out[n++] = t;
             }
         }
-        return out;
+        return Arrays.copyOf(out, n);
     }
 
     public static LocalDate startOfWeek(LocalDate d) {
@@ -0,0 +1,203 @@
+package waitlist;
+
+import dao.ShardedAppointmentDAO;
+import dao.ShardedUserDAO;
+import dao.WaitlistDAO;
+import db.DatabaseManager;
+import model.Appointment;
+import model.Doctor;
+import model.WaitlistEntry;
+import observer.AppointmentEvent;
+import observer.AppointmentObserver;
+import observer.AppointmentSubject;
+import slot.SlotKey;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Boşalan slotları bekleme listesindeki ilk uygun hastaya verir.
+ * Bekleyenler (doktor, gün) ve (branş, gün) anahtarlı öncelik kuyruklarında tutulur; bir iptal
+ * yalnızca o güne ait iki kuyruğa bakar. Birden çok güne yayılan kayıt her günün kuyruğuna eklenir,
+ * karşılandığında diğer kuyruklardan tembel olarak düşer.
+ */
+public class WaitlistService implements AppointmentObserver {
+
+    private static final WaitlistService instance = new WaitlistService();
+    public static WaitlistService getInstance() { return instance; }
+
+    private static final int MAX_RANGE_DAYS = 90;
+
+    private final Map<String, PriorityQueue<Waiter>> queues = new HashMap<>();
+    private final Map<Integer, String> doctorBranches = new ConcurrentHashMap<>();
+    private final long refreshMinutes = Long.getLong("waitlist.refreshMinutes", 5L);
+
+    private ScheduledExecutorService worker;
+    private Connection conn;
+
+    private WaitlistService() { }
+
+    public synchronized void start() {
+        if (worker != null) return;
+        worker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "waitlist");
+            t.setDaemon(true);
+            return t;
+        });
+        worker.scheduleWithFixedDelay(this::reload, 0, refreshMinutes, TimeUnit.MINUTES);
+        AppointmentSubject.getInstance().addObserver(this);
+    }
+
+    public synchronized void stop() {
+        if (worker == null) return;
+        AppointmentSubject.getInstance().removeObserver(this);
+        worker.shutdownNow();
+        worker = null;
+    }
+
+    public WaitlistEntry register(int patientId, Integer doctorId, String branch,
+                                  LocalDate from, LocalDate to, LocalTime timeFrom, LocalTime timeTo) {
+        if (ChronoUnit.DAYS.between(from, to) > MAX_RANGE_DAYS)
+            throw new IllegalArgumentException("Bekleme aralığı en fazla " + MAX_RANGE_DAYS + " gün olabilir");
+        WaitlistEntry e = new WaitlistDAO().register(patientId, doctorId, branch, from, to, timeFrom, timeTo);
+        if (worker != null) worker.execute(() -> index(e));
+        return e;
+    }
+
+    @Override
+    public void onAppointmentChanged(AppointmentEvent event) {
+        if (worker == null || !event.freesSlot()) return;
+        int slot = event.freedSlot();
+        if (slot == AppointmentEvent.NO_SLOT || SlotKey.date(slot).isBefore(LocalDate.now())) return;
+        worker.execute(() -> backfill(event.getDoctorId(), slot));
+    }
+
+    private void reload() {
+        try {
+            LocalDate today = LocalDate.now();
+            List<WaitlistEntry> waiting = new WaitlistDAO(connection()).getWaiting(today);
+            queues.clear();
+            for (WaitlistEntry e : waiting) index(e);
+        } catch (RuntimeException | SQLException e) {
+            System.err.println("Bekleme listesi yüklenemedi: " + e.getMessage());
+            closeQuietly();
+        }
+    }
+
+    private void index(WaitlistEntry e) {
+        Waiter w = new Waiter(e);
+        LocalDate d = e.getDateFrom().isBefore(LocalDate.now()) ? LocalDate.now() : e.getDateFrom();
+        for (; !d.isAfter(e.getDateTo()); d = d.plusDays(1)) {
+            String key = e.getDoctorId() != null ? doctorKey(e.getDoctorId(), d) : branchKey(e.getBranch(), d);
+            queues.computeIfAbsent(key, k -> new PriorityQueue<>()).add(w);
+        }
+    }
+
+    private void backfill(int doctorId, int slot) {
+        try {
+            Connection c = connection();
+            WaitlistDAO waitlistDAO = new WaitlistDAO(c);
+            ShardedAppointmentDAO appointmentDAO = new ShardedAppointmentDAO(0, c);
+            LocalDate date = SlotKey.date(slot);
+
+            PriorityQueue<Waiter> byDoctor = queues.get(doctorKey(doctorId, date));
+            PriorityQueue<Waiter> byBranch = queues.get(branchKey(branchOf(c, doctorId), date));
+            List<Waiter> skipped = new ArrayList<>();
+            try {
+                while (true) {
+                    Waiter w = next(byDoctor, byBranch);
+                    if (w == null) return;
+                    if (w.done || !w.entry.accepts(SlotKey.minute(slot))) {
+                        if (!w.done) skipped.add(w);
+                        continue;
+                    }
+                    if (!waitlistDAO.claim(w.entry.getId())) {
+                        w.done = true;
+                        continue;
+                    }
+                    try {
+                        Appointment a = appointmentDAO.create(w.entry.getPatientId(), doctorId, slot);
+                        waitlistDAO.fulfil(w.entry.getId(), a.getId());
+                        w.done = true;
+                        return;
+                    } catch (RuntimeException ex) {
+                        // Çoğunlukla aynı gün kuralı; hasta sırasını korur
+                        waitlistDAO.release(w.entry.getId());
+                        skipped.add(w);
+                        // Slot başkası tarafından alındıysa sıradakileri denemenin anlamı yok
+                        if (appointmentDAO.isSlotTaken(doctorId, slot)) return;
+                    }
+                }
+            } finally {
+                for (Waiter w : skipped) {
+                    if (w.entry.getDoctorId() != null) byDoctor.add(w);
+                    else byBranch.add(w);
+                }
+            }
+        } catch (RuntimeException | SQLException e) {
+            System.err.println("Bekleme listesinden atama yapılamadı: " + e.getMessage());
+            closeQuietly();
+        }
+    }
+
+    // İki kuyruğun başındakilerden önce kaydolanı çıkarır
+    private static Waiter next(PriorityQueue<Waiter> a, PriorityQueue<Waiter> b) {
+        Waiter x = a == null ? null : a.peek();
+        Waiter y = b == null ? null : b.peek();
+        if (x == null && y == null) return null;
+        if (y == null || (x != null && x.compareTo(y) <= 0)) return a.poll();
+        return b.poll();
+    }
+
+    private String branchOf(Connection c, int doctorId) throws SQLException {
+        String branch = doctorBranches.get(doctorId);
+        if (branch != null) return branch;
+        Doctor d = new ShardedUserDAO(0, c).getDoctorByUserId(doctorId);
+        branch = d == null ? "" : d.getBranch();
+        doctorBranches.put(doctorId, branch);
+        return branch;
+    }
+
+    private Connection connection() throws SQLException {
+        if (conn == null || conn.isClosed()) conn = DatabaseManager.getInstance().openConnection();
+        return conn;
+    }
+
+    private void closeQuietly() {
+        try {
+            if (conn != null) conn.close();
+        } catch (SQLException ignored) {
+        }
+        conn = null;
+    }
+
+    private static String doctorKey(int doctorId, LocalDate d) {
+        return "D" + doctorId + "|" + d;
+    }
+
+    private static String branchKey(String branch, LocalDate d) {
+        return "B" + branch + "|" + d;
+    }
+
+    private static class Waiter implements Comparable<Waiter> {
+        final WaitlistEntry entry;
+        boolean done;
+
+        Waiter(WaitlistEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public int compareTo(Waiter o) {
+            return Integer.compare(entry.getId(), o.entry.getId());
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package watchdog;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.InputEvent;
+import java.awt.event.InvocationEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseEvent;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Swing olay thread'inin (EDT) ne kadar süre meşgul kaldığını ölçer. Sistem olay kuyruğunun yerine her olayın
+ * işlenme süresini ve (klavye / fare olaylarında) kuyrukta bekleme süresini kaydeden bir kuyruk konur.
+ * Bir olay edt.stallMs'i (varsayılan 200) aşınca ayrı bir thread edt.sampleMs aralıklarla EDT'nin yığınını
+ * örnekler; takılma tıklanan bileşene, yığındaki ui metoduna (örn. reloadTimesForSelectedDoctor) ve
+ * ui'nin çağırdığı dao metoduna (örn. AppointmentDAO.getFreeSlots) bağlanır.
+ *
+ * Her edt.reportMinutes (varsayılan 5) dakikada bir, olay olduysa, yüzdelik özetler ve en pahalı takılmalar
+ * edt.report dosyasına (varsayılan edt-rapor.log) eklenir; dosya edt.reportMaxKb'yi geçince .1 olarak saklanıp
+ * yeniden başlanır. Modal pencere açan olaylar (JOptionPane) kullanıcıyı beklediği için ölçüme katılmaz.
+ * -Dedt.watchdog=false ile kapatılır.
+ */
+public final class EdtWatchdog {
+
+    private static final int MAX_SAMPLES = 40;
+    private static final int TOP_STALLS = 10;
+    private static final DateTimeFormatter TS = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static EdtWatchdog instance;
+
+    private final long stallNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong("edt.stallMs", 200L));
+    private final long sampleMs = Long.getLong("edt.sampleMs", 50L);
+    private final long reportMs = TimeUnit.MINUTES.toMillis(Long.getLong("edt.reportMinutes", 5L));
+    private final Path reportFile = Path.of(System.getProperty("edt.report", "edt-rapor.log"));
+    private final long reportMaxBytes = Long.getLong("edt.reportMaxKb", 1024L) * 1024;
+
+    private volatile Dispatch current;
+
+    // Pencere istatistikleri; EDT yazar, rapor thread'i okur ve sıfırlar
+    private final LatencyHistogram handling = new LatencyHistogram();
+    private final LatencyHistogram queueDelay = new LatencyHistogram();
+    private final Map<String, StallGroup> stalls = new HashMap<>();
+    private long modal;
+    private LocalDateTime windowStart = LocalDateTime.now();
+
+    private EdtWatchdog() { }
+
+    public static synchronized void install() {
+        if (instance != null || !Boolean.parseBoolean(System.getProperty("edt.watchdog", "true"))) return;
+        instance = new EdtWatchdog();
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(instance.new MonitoredQueue());
+
+        Thread sampler = new Thread(instance::sampleLoop, "edt-watchdog");
+        sampler.setDaemon(true);
+        sampler.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(instance::report, "edt-watchdog-report"));
+    }
+
+    private final class MonitoredQueue extends EventQueue {
+        @Override
+        protected void dispatchEvent(AWTEvent event) {
+            Dispatch outer = current;
+            if (outer != null) outer.nested = true;
+            Dispatch d = new Dispatch(event, Thread.currentThread(), System.nanoTime());
+            current = d;
+            try {
+                super.dispatchEvent(event);
+            } finally {
+                current = outer;
+                finished(d, System.nanoTime());
+            }
+        }
+    }
+
+    private void finished(Dispatch d, long end) {
+        long nanos = end - d.start;
+        long waitedMs = d.event instanceof InputEvent ie ? System.currentTimeMillis() - nanos / 1_000_000 - ie.getWhen() : -1;
+        List<StackTraceElement[]> samples;
+        synchronized (d) {
+            samples = new ArrayList<>(d.samples);
+        }
+        synchronized (this) {
+            // İçinde başka olay işlenmiş olay modal bir döngüde beklemiştir; süresi kullanıcının okuma süresidir
+            if (d.nested) {
+                modal++;
+                return;
+            }
+            handling.record(nanos / 1000);
+            if (waitedMs >= 0) queueDelay.record(waitedMs * 1000);
+        }
+        if (nanos < stallNanos) return;
+
+        Attribution a = attribute(samples);
+        String source = describe(d.event);
+        String key = source + "|" + a.ui + "|" + a.dao;
+        synchronized (this) {
+            stalls.computeIfAbsent(key, k -> new StallGroup(source, a)).add(nanos / 1000);
+        }
+    }
+
+    private void sampleLoop() {
+        long nextReport = System.currentTimeMillis() + reportMs;
+        while (true) {
+            try {
+                Thread.sleep(sampleMs);
+            } catch (InterruptedException e) {
+                return;
+            }
+            Dispatch d = current;
+            if (d != null && !d.nested && System.nanoTime() - d.start >= stallNanos) {
+                StackTraceElement[] stack = d.thread.getStackTrace();
+                synchronized (d) {
+                    if (d.samples.size() < MAX_SAMPLES && current == d) d.samples.add(stack);
+                }
+            }
+            if (System.currentTimeMillis() >= nextReport) {
+                report();
+                nextReport = System.currentTimeMillis() + reportMs;
+            }
+        }
+    }
+
+    // Örneklerde en sık görülen ui / dao metodu; ui'de lambda yerine içinden çağrılan adlandırılmış metot tercih edilir
+    private static Attribution attribute(List<StackTraceElement[]> samples) {
+        if (samples.isEmpty()) return new Attribution("(örnek yok)", "-", null);
+        Map<String, Integer> uis = new HashMap<>();
+        Map<String, Integer> daos = new HashMap<>();
+        Map<String, Integer> tops = new HashMap<>();
+        for (StackTraceElement[] stack : samples) {
+            String ui = null, dao = null, top = null;
+            for (StackTraceElement f : stack) {
+                String cls = f.getClassName();
+                if (top == null && isApplication(cls)) top = frame(f) + "(" + f.getFileName() + ":" + f.getLineNumber() + ")";
+                if (cls.startsWith("dao.")) dao = frame(f);
+                if (ui == null && cls.startsWith("ui.") && !f.getMethodName().startsWith("lambda$")) ui = frame(f);
+            }
+            if (ui == null) ui = firstIn(stack, "ui.");
+            uis.merge(ui == null ? "-" : ui, 1, Integer::sum);
+            daos.merge(dao == null ? "-" : dao, 1, Integer::sum);
+            if (top != null) tops.merge(top, 1, Integer::sum);
+        }
+        return new Attribution(mode(uis), mode(daos), tops.isEmpty() ? null : mode(tops));
+    }
+
+    // JDK ve sürücü (org.h2, com.mysql) kareleri dışındaki ilk kare takılmanın asıl yeridir
+    private static boolean isApplication(String cls) {
+        for (String p : new String[]{"java.", "javax.", "sun.", "jdk.", "com.", "org."}) {
+            if (cls.startsWith(p)) return false;
+        }
+        return true;
+    }
+
+    private static String firstIn(StackTraceElement[] stack, String pkg) {
+        for (StackTraceElement f : stack) if (f.getClassName().startsWith(pkg)) return frame(f);
+        return null;
+    }
+
+    private static String frame(StackTraceElement f) {
+        String cls = f.getClassName();
+        int inner = cls.indexOf('$');
+        return (inner > 0 ? cls.substring(0, inner) : cls) + "." + f.getMethodName();
+    }
+
+    private static String mode(Map<String, Integer> counts) {
+        return counts.entrySet().stream().max(Map.Entry.comparingByValue()).map(Map.Entry::getKey).orElse("-");
+    }
+
+    private static String describe(AWTEvent e) {
+        String kind = e instanceof MouseEvent ? "fare" : e instanceof KeyEvent ? "tuş"
+                : e instanceof InvocationEvent ? "invokeLater" : e.getClass().getSimpleName();
+        if (!(e.getSource() instanceof Component c)) return kind;
+        Window w = c instanceof Window win ? win : SwingUtilities.getWindowAncestor(c);
+        String where = w == null ? "" : w.getClass().getSimpleName() + " ";
+        if (c instanceof AbstractButton b && b.getText() != null && !b.getText().isBlank()) {
+            return where + kind + " \"" + b.getText() + "\"";
+        }
+        return where + kind + " " + (c.getName() != null ? c.getName() : c.getClass().getSimpleName());
+    }
+
+    private void report() {
+        String text;
+        synchronized (this) {
+            if (handling.count() == 0 && modal == 0) {
+                windowStart = LocalDateTime.now();
+                return;
+            }
+            text = format();
+            handling.reset();
+            queueDelay.reset();
+            stalls.clear();
+            modal = 0;
+            windowStart = LocalDateTime.now();
+        }
+        try {
+            if (Files.exists(reportFile) && Files.size(reportFile) > reportMaxBytes) {
+                Files.move(reportFile, reportFile.resolveSibling(reportFile.getFileName() + ".1"),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.writeString(reportFile, text, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.err.println("EDT raporu yazılamadı: " + e.getMessage());
+        }
+    }
+
+    private String format() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("=== EDT ").append(TS.format(windowStart)).append(" - ").append(TS.format(LocalDateTime.now()))
+                .append(" ===\n");
+        sb.append(String.format("Olay: %d, işleme p50=%s p90=%s p99=%s p99.9=%s maks=%s%n", handling.count(),
+                ms(handling.percentile(50)), ms(handling.percentile(90)), ms(handling.percentile(99)),
+                ms(handling.percentile(99.9)), ms(handling.max())));
+        sb.append(String.format("Kuyrukta bekleme (tuş / fare): p50=%s p99=%s maks=%s; modal: %d%n",
+                ms(queueDelay.percentile(50)), ms(queueDelay.percentile(99)), ms(queueDelay.max()), modal));
+
+        List<StallGroup> groups = new ArrayList<>(stalls.values());
+        groups.sort(Comparator.comparingLong((StallGroup g) -> g.totalMicros).reversed());
+        int count = groups.stream().mapToInt(g -> (int) g.durations.count()).sum();
+        sb.append(String.format("Takılma (>%d ms): %d%n", TimeUnit.NANOSECONDS.toMillis(stallNanos), count));
+        for (StallGroup g : groups.subList(0, Math.min(TOP_STALLS, groups.size()))) {
+            sb.append(String.format("  %4dx  p50=%s maks=%s  %s%n", g.durations.count(),
+                    ms(g.durations.percentile(50)), ms(g.durations.max()), g.source));
+            sb.append("         ui: ").append(g.attribution.ui).append("  dao: ").append(g.attribution.dao).append('\n');
+            if (g.attribution.top != null) sb.append("         en sık kare: ").append(g.attribution.top).append('\n');
+        }
+        return sb.append('\n').toString();
+    }
+
+    private static String ms(long micros) {
+        return micros < 10_000 ? String.format("%.1fms", micros / 1000.0) : (micros / 1000) + "ms";
+    }
+
+    private static final class Dispatch {
+        final AWTEvent event;
+        final Thread thread;
+        final long start;
+        final List<StackTraceElement[]> samples = new ArrayList<>();
+        volatile boolean nested;
+
+        Dispatch(AWTEvent event, Thread thread, long start) {
+            this.event = event;
+            this.thread = thread;
+            this.start = start;
+        }
+    }
+
+    private record Attribution(String ui, String dao, String top) { }
+
+    private static final class StallGroup {
+        final String source;
+        final Attribution attribution;
+        final LatencyHistogram durations = new LatencyHistogram();
+        long totalMicros;
+
+        StallGroup(String source, Attribution attribution) {
+            this.source = source;
+            this.attribution = attribution;
+        }
+
+        void add(long micros) {
+            durations.record(micros);
+            totalMicros += micros;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package watchdog;
+
+import java.util.Arrays;
+
+/**
+ * Mikrosaniye cinsinden süreler için sabit boyutlu histogram. 16 µs'ye kadar birebir, sonrasında her ikinin
+ * kuvveti 8 alt kovaya bölünür (~%6 hassasiyet); olay sayısı ne olursa olsun bellek sabittir.
+ */
+final class LatencyHistogram {
+
+    private static final int LINEAR = 16;
+    private static final int SUB = 8;
+
+    private final long[] counts = new long[LINEAR + (63 - 4) * SUB];
+    private long total;
+    private long max;
+
+    void record(long micros) {
+        long v = Math.max(0, micros);
+        counts[index(v)]++;
+        total++;
+        if (v > max) max = v;
+    }
+
+    long count() {
+        return total;
+    }
+
+    long max() {
+        return max;
+    }
+
+    // p: 0-100; kovanın ortası döner
+    long percentile(double p) {
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(p / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(max, middle(i));
+        }
+        return max;
+    }
+
+    void reset() {
+        Arrays.fill(counts, 0);
+        total = 0;
+        max = 0;
+    }
+
+    private static int index(long v) {
+        if (v < LINEAR) return (int) v;
+        int e = 63 - Long.numberOfLeadingZeros(v);
+        int sub = (int) ((v >>> (e - 3)) & (SUB - 1));
+        return LINEAR + (e - 4) * SUB + sub;
+    }
+
+    private static long middle(int i) {
+        if (i < LINEAR) return i;
+        int e = (i - LINEAR) / SUB + 4;
+        int sub = (i - LINEAR) % SUB;
+        long lower = (long) (SUB + sub) << (e - 3);
+        return lower + (1L << (e - 3)) / 2;
+    }
+}
@@ -0,0 +1,175 @@
+package dao;
+
+import db.DatabaseManager;
+import db.TestDatabase;
+import model.Appointment;
+import model.ExamRecord;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import slot.SlotKey;
+import state.AppointmentState;
+
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Aynı satırı aynı sürümle güncelleyen iki oturum (ayrı bağlantı, ayrı DAO) yarıştırılır. Her turda tam olarak biri
+ * uygulanmalı, diğeri güncel satırı taşıyan çakışma almalı ve sürüm yalnızca bir artmalıdır.
+ * Bellek içi H2 (MySQL kipi) üzerinde çalışır; kurulu bir veritabanı gerekmez.
+ */
+class AppointmentDAOConcurrencyTest {
+
+    private static final int ROUNDS = 20;
+
+    private static ExecutorService sessions;
+    private static int doctorId;
+    private static int testIndex;
+
+    private LocalDate day;
+    private int patientId;
+    private Appointment appointment;
+
+    private interface Session<T> {
+        UpdateResult<T> run(AppointmentDAO dao) throws Exception;
+    }
+
+    @BeforeAll
+    static void openDatabase() {
+        sessions = Executors.newFixedThreadPool(2);
+        doctorId = TestDatabase.insertDoctor("Dahiliye");
+    }
+
+    @AfterAll
+    static void closeSessions() {
+        sessions.shutdownNow();
+    }
+
+    // Her test kendi hastası ve gün aralığıyla başlar; testler birbirinin saatini ya da gününü tutmaz
+    @BeforeEach
+    void newAppointment() {
+        patientId = TestDatabase.insertPatient();
+        day = LocalDate.now().plusDays(7 + 100L * testIndex++);
+        appointment = new AppointmentDAO().create(patientId, doctorId, SlotKey.of(day, "09:00"));
+    }
+
+    @Test
+    void rescheduleByPatientAppliesOnlyOneOfTwoMoves() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            // İki oturum ayrı günlere taşır; kaybedenin "aynı gün" denetimi kazananın satırını görmez
+            int first = SlotKey.of(day.plusDays(2L * round + 1), "10:00");
+            int second = SlotKey.of(day.plusDays(2L * round + 2), "11:00");
+            int version = appointment.getVersion();
+            List<UpdateResult<Appointment>> results = race(
+                    dao -> dao.rescheduleByPatient(appointment.getId(), patientId, doctorId, first, version),
+                    dao -> dao.rescheduleByPatient(appointment.getId(), patientId, doctorId, second, version));
+
+            Appointment winner = assertOneWins(results, version);
+            assertEquals(winner.getSlot(), loserOf(results).getCurrent().getSlot());
+            appointment = assertStoredVersion(version + 1);
+            assertEquals(winner.getSlot(), appointment.getSlot());
+        }
+    }
+
+    @Test
+    void updateStateByDoctorAppliesOnlyOneOfTwoChanges() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            int version = appointment.getVersion();
+            AppointmentState current = appointment.getState(), a, b;
+            if (current == AppointmentState.AKTIF) {
+                a = AppointmentState.TAMAMLANDI;
+                b = AppointmentState.GELMEDI;
+            } else {
+                // TAMAMLANDI ile GELMEDI birbirine düzeltilebilir; iki oturum aynı düzeltmeyi yarıştırır
+                a = b = current == AppointmentState.TAMAMLANDI ? AppointmentState.GELMEDI : AppointmentState.TAMAMLANDI;
+            }
+            AppointmentState first = a, second = b;
+            List<UpdateResult<Appointment>> results = race(
+                    dao -> dao.updateStateByDoctor(appointment.getId(), doctorId, first, version),
+                    dao -> dao.updateStateByDoctor(appointment.getId(), doctorId, second, version));
+
+            Appointment winner = assertOneWins(results, version);
+            assertSame(winner.getState(), loserOf(results).getCurrent().getState());
+            appointment = assertStoredVersion(version + 1);
+            assertSame(winner.getState(), appointment.getState());
+        }
+    }
+
+    @Test
+    void saveExamAppliesOnlyOneOfTwoSaves() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            int version = new AppointmentDAO().findExam(appointment.getId(), doctorId).getVersion();
+            String note = "Tur " + round;
+            List<UpdateResult<ExamRecord>> results = race(
+                    dao -> dao.saveExam(appointment.getId(), doctorId, note + " / birinci oturum", "", List.of(), version),
+                    dao -> dao.saveExam(appointment.getId(), doctorId, note + " / ikinci oturum", "", List.of(), version));
+
+            assertEquals(1, results.stream().filter(UpdateResult::isApplied).count(), "tam olarak biri uygulanmalı");
+            ExamRecord winner = winnerOf(results).getCurrent();
+            UpdateResult<ExamRecord> lost = loserOf(results);
+            assertEquals(version + 1, lost.getVersion());
+            assertEquals(version + 1, lost.getCurrent().getVersion());
+            assertEquals(winner.getNote(), lost.getCurrent().getNote());
+
+            ExamRecord stored = new AppointmentDAO().findExam(appointment.getId(), doctorId);
+            assertEquals(version + 1, stored.getVersion());
+            assertEquals(winner.getNote(), stored.getNote());
+        }
+    }
+
+    private static <T> List<UpdateResult<T>> race(Session<T> first, Session<T> second) throws Exception {
+        CyclicBarrier start = new CyclicBarrier(2);
+        List<Future<UpdateResult<T>>> futures = new ArrayList<>();
+        for (Session<T> session : List.of(first, second)) {
+            futures.add(sessions.submit(() -> {
+                try (Connection c = DatabaseManager.getInstance().openConnection()) {
+                    AppointmentDAO dao = new AppointmentDAO(c);
+                    start.await(5, TimeUnit.SECONDS);
+                    return session.run(dao);
+                }
+            }));
+        }
+        List<UpdateResult<T>> results = new ArrayList<>();
+        for (Future<UpdateResult<T>> f : futures) results.add(f.get(30, TimeUnit.SECONDS));
+        return results;
+    }
+
+    private static Appointment assertOneWins(List<UpdateResult<Appointment>> results, int version) {
+        assertEquals(1, results.stream().filter(UpdateResult::isApplied).count(), "tam olarak biri uygulanmalı");
+        Appointment winner = winnerOf(results).getCurrent();
+        UpdateResult<Appointment> lost = loserOf(results);
+        assertEquals(version + 1, winner.getVersion());
+        assertEquals(version + 1, lost.getVersion());
+        assertNotNull(lost.getCurrent());
+        assertEquals(version + 1, lost.getCurrent().getVersion());
+        return winner;
+    }
+
+    private static <T> UpdateResult<T> winnerOf(List<UpdateResult<T>> results) {
+        return results.get(0).isApplied() ? results.get(0) : results.get(1);
+    }
+
+    private static <T> UpdateResult<T> loserOf(List<UpdateResult<T>> results) {
+        UpdateResult<T> lost = results.get(0).isApplied() ? results.get(1) : results.get(0);
+        assertEquals(UpdateResult.Status.CONFLICT, lost.getStatus(), "kaybeden çakışma almalı");
+        return lost;
+    }
+
+    private Appointment assertStoredVersion(int expected) {
+        Appointment stored = new AppointmentDAO().findById(appointment.getId());
+        assertEquals(expected, stored.getVersion(), "sürüm tam olarak bir artmalı");
+        return stored;
+    }
+}
@@ -0,0 +1,109 @@
+package dao;
+
+import calendar.ExceptionCalendar;
+import db.ShardRouter;
+import db.TestDatabase;
+import model.Appointment;
+import model.ScheduleException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import slot.SlotKey;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * İki bellek içi H2 parçası (merkez ve kuzey) üzerinde yönlendirme: doktorun parçasına yazma, hasta geçmişinin
+ * bütün parçalardan toplanması, parçalar arası "aynı gün tek randevu" denetimi ve takvimin doktor branşlarını
+ * her parçadan okuması.
+ */
+class ShardedAppointmentDAOTest {
+
+    private static ShardRouter router;
+    private static int merkezDoctor;
+    private static int kuzeyDoctor;
+    private static int testIndex;
+
+    private final ShardedAppointmentDAO dao = new ShardedAppointmentDAO();
+
+    @BeforeAll
+    static void seedDoctors() {
+        router = TestDatabase.router();
+        merkezDoctor = TestDatabase.insertDoctor("Nöroloji");
+        kuzeyDoctor = TestDatabase.insertDoctor(TestDatabase.KUZEY_BRANCH);
+    }
+
+    // Her test kendi gün aralığında çalışır
+    private static LocalDate day(int offset) {
+        return LocalDate.now().plusDays(5 + 10L * testIndex++ + offset);
+    }
+
+    @Test
+    void appointmentIsWrittenToDoctorsShard() {
+        int patient = TestDatabase.insertPatient();
+        Appointment a = dao.create(patient, kuzeyDoctor, SlotKey.of(day(0), "10:00"));
+
+        assertEquals(1, router.ofId(kuzeyDoctor));
+        assertEquals(1, router.ofId(a.getId()));
+        assertEquals(1, countRows(1, a.getId()));
+        assertEquals(0, countRows(0, a.getId()));
+        assertEquals(a.getId(), dao.findById(a.getId()).getId());
+    }
+
+    @Test
+    void patientHistoryIsGatheredFromEveryShard() {
+        int patient = TestDatabase.insertPatient();
+        LocalDate first = day(0);
+        LocalDate second = first.plusDays(1);
+        Appointment merkez = dao.create(patient, merkezDoctor, SlotKey.of(first, "09:00"));
+        Appointment kuzey = dao.create(patient, kuzeyDoctor, SlotKey.of(second, "14:00"));
+
+        List<String[]> history = dao.getByPatient(patient);
+        assertEquals(2, history.size());
+        // En yenisi önce
+        assertEquals(String.valueOf(kuzey.getId()), history.get(0)[0]);
+        assertEquals(String.valueOf(merkez.getId()), history.get(1)[0]);
+
+        assertEquals(2, dao.getByPatientBetween(patient, first, second).size());
+    }
+
+    @Test
+    void sameDayRuleSpansShards() {
+        int patient = TestDatabase.insertPatient();
+        LocalDate d = day(0);
+        dao.create(patient, merkezDoctor, SlotKey.of(d, "09:00"));
+
+        assertTrue(dao.hasPatientAppointmentSameDay(patient, d));
+        assertThrows(RuleViolationException.class, () -> dao.create(patient, kuzeyDoctor, SlotKey.of(d, "14:00")));
+        assertFalse(dao.isSlotTaken(kuzeyDoctor, SlotKey.of(d, "14:00")));
+    }
+
+    @Test
+    void branchClosureReachesDoctorOnOtherShard() {
+        LocalDate d = day(0);
+        new ScheduleExceptionDAO().add(null, TestDatabase.KUZEY_BRANCH, d, d, null, null,
+                ScheduleException.Kind.BRANS_KAPALI, "Test");
+
+        assertTrue(ExceptionCalendar.getInstance().isBlocked(kuzeyDoctor, SlotKey.of(d, "10:00")));
+        assertFalse(ExceptionCalendar.getInstance().isBlocked(merkezDoctor, SlotKey.of(d, "10:00")));
+    }
+
+    private static int countRows(int shard, int appointmentId) {
+        return router.on(shard, c -> {
+            try (PreparedStatement ps = c.prepareStatement("SELECT COUNT(*) FROM appointments WHERE id=?")) {
+                ps.setInt(1, appointmentId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    return rs.getInt(1);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,107 @@
+package db;
+
+import dao.UserDAO;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Testlerin paylaştığı bellek içi H2 (MySQL kipi) veritabanları. DbConfig ve DatabaseManager tekil olduğundan ayarlar
+ * JVM başına bir kez, ilk bağlantıdan önce verilir; her test kendi kullanıcılarını ekleyip yalnızca onlarla çalışır.
+ * Kurulum iki parçalıdır: KUZEY_BRANCH doktorları "kuzey" parçasında, diğerleri birincil "merkez" parçasında açılır.
+ */
+public final class TestDatabase {
+
+    public static final String KUZEY_BRANCH = "Kardiyoloji";
+
+    private static final String H2 = ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    private static final AtomicInteger users = new AtomicInteger();
+    private static boolean configured;
+
+    private TestDatabase() { }
+
+    // Birincil parçanın paylaşılan bağlantısı
+    public static synchronized Connection open() {
+        if (!configured) {
+            System.setProperty("db.url", "jdbc:h2:mem:randevu_test" + H2);
+            System.setProperty("db.user", "sa");
+            System.setProperty("db.password", "");
+            System.setProperty("db.shards", "merkez,kuzey");
+            System.setProperty("db.shard.kuzey.url", "jdbc:h2:mem:randevu_test_kuzey" + H2);
+            System.setProperty("db.shard.kuzey.branches", KUZEY_BRANCH);
+            try {
+                System.setProperty("journal.dir", Files.createTempDirectory("randevu-gunluk").toString());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            configured = true;
+        }
+        return DatabaseManager.getInstance().getConnection();
+    }
+
+    public static ShardRouter router() {
+        open();
+        return DatabaseManager.getInstance().getRouter();
+    }
+
+    // Doktor branşının parçasında, o parçanın kimlik aralığından açılır
+    public static int insertDoctor(String branch) {
+        ShardRouter router = router();
+        return router.on(router.ofBranch(branch), c -> {
+            int id = insertUser(c, "Doktor", "DOCTOR");
+            try (PreparedStatement ps = c.prepareStatement("""
+                    INSERT INTO doctors(user_id,branch,polyclinic,working_hours)
+                    VALUES (?,?,'Poliklinik 1','09:00-12:00,13:00-17:00')
+                """)) {
+                ps.setInt(1, id);
+                ps.setString(2, branch);
+                ps.executeUpdate();
+            }
+            return id;
+        });
+    }
+
+    // Hasta birincilde açılıp uygulamadaki gibi diğer parçalara aynı kimlikle kopyalanır
+    public static int insertPatient() {
+        ShardRouter router = router();
+        return router.on(0, c -> {
+            int id = insertUser(c, "Hasta", "PATIENT");
+            try (PreparedStatement ps = c.prepareStatement("INSERT INTO patients(user_id) VALUES(?)")) {
+                ps.setInt(1, id);
+                ps.executeUpdate();
+            }
+            for (int shard = 1; shard < router.size(); shard++) {
+                router.on(shard, target -> {
+                    new UserDAO(c).copyPatientTo(id, target);
+                    return null;
+                });
+            }
+            return id;
+        });
+    }
+
+    private static int insertUser(Connection c, String surname, String role) throws SQLException {
+        int n = users.incrementAndGet();
+        try (PreparedStatement ps = c.prepareStatement("""
+                INSERT INTO users(name,surname,tc,username,password,role)
+                VALUES ('Test',?,?,?,'1234',?)
+            """, Statement.RETURN_GENERATED_KEYS)) {
+            ps.setString(1, surname);
+            ps.setString(2, String.valueOf(10000000000L + n));
+            ps.setString(3, "test" + n);
+            ps.setString(4, role);
+            ps.executeUpdate();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                keys.next();
+                return keys.getInt(1);
+            }
+        }
+    }
+}
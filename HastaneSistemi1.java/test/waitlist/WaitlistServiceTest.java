@@ -0,0 +1,79 @@
+package waitlist;
+
+import dao.AppointmentDAO;
+import dao.WaitlistDAO;
+import db.TestDatabase;
+import model.Appointment;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import slot.SlotKey;
+import state.AppointmentState;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Bekleme listesi veritabanından yeniden yüklendikten sonra boşalan slotun kuyruktaki hastaya verildiği denetlenir.
+ */
+class WaitlistServiceTest {
+
+    private static final long TIMEOUT_MS = 10_000;
+
+    @AfterEach
+    void stopService() {
+        WaitlistService.getInstance().stop();
+    }
+
+    @Test
+    void reloadedBranchWaiterGetsFreedSlot() throws Exception {
+        int doctorId = TestDatabase.insertDoctor("Göz");
+        int holder = TestDatabase.insertPatient();
+        int waiter = TestDatabase.insertPatient();
+        LocalDate day = LocalDate.now().plusDays(3);
+        int slot = SlotKey.of(day, "10:00");
+        Appointment held = new AppointmentDAO().create(holder, doctorId, slot);
+
+        // Servis başlamadan kaydedilir; kuyruğa yalnızca başlangıçtaki yeniden yüklemeyle girer
+        int entryId = new WaitlistDAO().register(waiter, null, "Göz", day, day,
+                LocalTime.of(9, 0), LocalTime.of(12, 0)).getId();
+        WaitlistService.getInstance().start();
+        new AppointmentDAO().cancelByPatient(held.getId(), holder);
+
+        awaitStatus(entryId, "DONE");
+        try (PreparedStatement ps = TestDatabase.open().prepareStatement(
+                "SELECT COUNT(*) FROM appointments WHERE patient_id=? AND doctor_id=? AND date=? AND state_code=?")) {
+            ps.setInt(1, waiter);
+            ps.setInt(2, doctorId);
+            ps.setDate(3, Date.valueOf(day));
+            ps.setInt(4, AppointmentState.AKTIF.getCode());
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                assertEquals(1, rs.getInt(1));
+            }
+        }
+    }
+
+    private static void awaitStatus(int entryId, String expected) throws SQLException, InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        String status = null;
+        while (System.currentTimeMillis() < deadline) {
+            try (PreparedStatement ps = TestDatabase.open().prepareStatement("SELECT status FROM waitlist WHERE id=?")) {
+                ps.setInt(1, entryId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    status = rs.getString(1);
+                }
+            }
+            if (expected.equals(status)) return;
+            Thread.sleep(50);
+        }
+        fail("Bekleme kaydı " + expected + " olmadı, son durum: " + status);
+    }
+}